@@ -0,0 +1,20 @@
+package net.hungryboys.letsyeat.processor;
+
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * Generates a streaming Gson TypeAdapter named {@code <Class>_TypeAdapter} for the annotated class,
+ * registered in the generated {@code GeneratedTypeAdapterFactory}.
+ * <p>
+ * Serialized fields are the {@code @Expose} fields if the class has any, all instance fields
+ * otherwise, named after their {@code @SerializedName}. The class needs a non-private constructor
+ * taking every serialized field as a parameter of the same name, and every serialized field needs
+ * to be non-private or to have a non-private getter ({@code getX()}, {@code isX()} or {@code x()}).
+ */
+@Retention(RetentionPolicy.SOURCE)
+@Target(ElementType.TYPE)
+public @interface GenerateTypeAdapter {
+}
@@ -0,0 +1,510 @@
+package net.hungryboys.letsyeat.processor;
+
+import java.io.IOException;
+import java.io.Writer;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Set;
+
+import javax.annotation.processing.AbstractProcessor;
+import javax.annotation.processing.RoundEnvironment;
+import javax.annotation.processing.SupportedAnnotationTypes;
+import javax.lang.model.SourceVersion;
+import javax.lang.model.element.AnnotationMirror;
+import javax.lang.model.element.AnnotationValue;
+import javax.lang.model.element.Element;
+import javax.lang.model.element.ElementKind;
+import javax.lang.model.element.ExecutableElement;
+import javax.lang.model.element.Modifier;
+import javax.lang.model.element.TypeElement;
+import javax.lang.model.element.VariableElement;
+import javax.lang.model.type.TypeKind;
+import javax.lang.model.type.TypeMirror;
+import javax.lang.model.util.ElementFilter;
+import javax.lang.model.util.Types;
+import javax.tools.Diagnostic;
+import javax.tools.JavaFileObject;
+
+/**
+ * Generates the TypeAdapters requested with {@link GenerateTypeAdapter}, and a
+ * {@code GeneratedTypeAdapterFactory} serving them, in the common package of the annotated classes.
+ */
+@SupportedAnnotationTypes("net.hungryboys.letsyeat.processor.GenerateTypeAdapter")
+public class TypeAdapterProcessor extends AbstractProcessor {
+
+    private static final String FACTORY_NAME = "GeneratedTypeAdapterFactory";
+    private static final String EXPOSE = "com.google.gson.annotations.Expose";
+    private static final String SERIALIZED_NAME = "com.google.gson.annotations.SerializedName";
+
+    private boolean factoryWritten;
+
+    /**
+     * A serialized field of an annotated class
+     */
+    private static class Property {
+        final String name;
+        final String jsonName;
+        final TypeMirror type;
+        final String accessor;
+
+        Property(String name, String jsonName, TypeMirror type, String accessor) {
+            this.name = name;
+            this.jsonName = jsonName;
+            this.type = type;
+            this.accessor = accessor;
+        }
+    }
+
+    /**
+     * Thrown when a class can't get a generated adapter
+     */
+    private static class InvalidClassException extends Exception {
+        final Element element;
+
+        InvalidClassException(String message, Element element) {
+            super(message);
+            this.element = element;
+        }
+    }
+
+    @Override
+    public SourceVersion getSupportedSourceVersion() {
+        return SourceVersion.latestSupported();
+    }
+
+    @Override
+    public boolean process(Set<? extends TypeElement> annotations, RoundEnvironment roundEnv) {
+        List<TypeElement> types = new ArrayList<>();
+
+        for (Element element : roundEnv.getElementsAnnotatedWith(GenerateTypeAdapter.class)) {
+            if (element.getKind() != ElementKind.CLASS) {
+                error("@GenerateTypeAdapter only applies to classes", element);
+                continue;
+            }
+
+            TypeElement type = (TypeElement) element;
+
+            try {
+                List<Property> properties = properties(type);
+                List<Property> ordered = constructorOrder(type, properties);
+                write(adapterName(type), type, adapterSource(type, properties, ordered));
+                types.add(type);
+            } catch (InvalidClassException e) {
+                error(e.getMessage(), e.element);
+            } catch (IOException e) {
+                error("Could not write adapter: " + e.getMessage(), type);
+            }
+        }
+
+        if (!types.isEmpty() && !factoryWritten) {
+            factoryWritten = true;
+            String pkg = commonPackage(types);
+
+            try {
+                write(pkg.isEmpty() ? FACTORY_NAME : pkg + "." + FACTORY_NAME,
+                        types.get(0), factorySource(pkg, types));
+            } catch (IOException e) {
+                error("Could not write adapter factory: " + e.getMessage(), types.get(0));
+            }
+        }
+
+        return true;
+    }
+
+    /* Model */
+
+    private List<Property> properties(TypeElement type) throws InvalidClassException {
+        List<VariableElement> fields = new ArrayList<>();
+        boolean anyExposed = false;
+
+        for (VariableElement field : ElementFilter.fieldsIn(type.getEnclosedElements())) {
+            Set<Modifier> modifiers = field.getModifiers();
+            if (modifiers.contains(Modifier.STATIC) || modifiers.contains(Modifier.TRANSIENT)) {
+                continue;
+            }
+
+            fields.add(field);
+            anyExposed |= annotation(field, EXPOSE) != null;
+        }
+
+        List<Property> properties = new ArrayList<>();
+
+        for (VariableElement field : fields) {
+            if (anyExposed && annotation(field, EXPOSE) == null) {
+                continue;
+            }
+
+            String name = field.getSimpleName().toString();
+            String jsonName = name;
+
+            AnnotationMirror serializedName = annotation(field, SERIALIZED_NAME);
+            if (serializedName != null) {
+                jsonName = (String) annotationValue(serializedName, "value");
+            }
+
+            properties.add(new Property(name, jsonName, field.asType(), accessor(type, field)));
+        }
+
+        return properties;
+    }
+
+    /**
+     * @return expression reading field from an instance named value
+     */
+    private String accessor(TypeElement type, VariableElement field) throws InvalidClassException {
+        String name = field.getSimpleName().toString();
+
+        if (!field.getModifiers().contains(Modifier.PRIVATE)) {
+            return "value." + name;
+        }
+
+        String capitalized = Character.toUpperCase(name.charAt(0)) + name.substring(1);
+        List<String> candidates = new ArrayList<>();
+        Collections.addAll(candidates, "get" + capitalized, "is" + capitalized, name);
+
+        Types types = processingEnv.getTypeUtils();
+
+        for (ExecutableElement method : ElementFilter.methodsIn(type.getEnclosedElements())) {
+            if (method.getModifiers().contains(Modifier.PRIVATE)
+                    || method.getModifiers().contains(Modifier.STATIC)
+                    || !method.getParameters().isEmpty()
+                    || !candidates.contains(method.getSimpleName().toString())
+                    || !types.isSameType(method.getReturnType(), field.asType())) {
+                continue;
+            }
+
+            return "value." + method.getSimpleName() + "()";
+        }
+
+        throw new InvalidClassException("Private field " + name
+                + " needs a non-private getter for @GenerateTypeAdapter", field);
+    }
+
+    /**
+     * @return properties in the order of the parameters of the constructor to use
+     */
+    private List<Property> constructorOrder(TypeElement type, List<Property> properties)
+            throws InvalidClassException {
+        Types types = processingEnv.getTypeUtils();
+
+        constructors:
+        for (ExecutableElement constructor : ElementFilter.constructorsIn(type.getEnclosedElements())) {
+            List<? extends VariableElement> parameters = constructor.getParameters();
+
+            if (constructor.getModifiers().contains(Modifier.PRIVATE)
+                    || parameters.size() != properties.size()) {
+                continue;
+            }
+
+            List<Property> ordered = new ArrayList<>();
+
+            for (VariableElement parameter : parameters) {
+                Property match = null;
+
+                for (Property property : properties) {
+                    if (property.name.contentEquals(parameter.getSimpleName())
+                            && types.isSameType(property.type, parameter.asType())) {
+                        match = property;
+                    }
+                }
+
+                if (match == null) {
+                    continue constructors;
+                }
+
+                ordered.add(match);
+            }
+
+            return ordered;
+        }
+
+        throw new InvalidClassException("@GenerateTypeAdapter needs a non-private constructor "
+                + "taking every serialized field, with parameters named like the fields", type);
+    }
+
+    /* Code generation */
+
+    private String adapterSource(TypeElement type, List<Property> properties, List<Property> ordered) {
+        String pkg = packageOf(type);
+        String simpleName = adapterName(type).substring(pkg.isEmpty() ? 0 : pkg.length() + 1);
+        String typeName = type.getQualifiedName().toString();
+
+        StringBuilder s = new StringBuilder();
+
+        if (!pkg.isEmpty()) {
+            s.append("package ").append(pkg).append(";\n\n");
+        }
+
+        s.append("import com.google.gson.Gson;\n")
+                .append("import com.google.gson.TypeAdapter;\n")
+                .append("import com.google.gson.reflect.TypeToken;\n")
+                .append("import com.google.gson.stream.JsonReader;\n")
+                .append("import com.google.gson.stream.JsonToken;\n")
+                .append("import com.google.gson.stream.JsonWriter;\n\n")
+                .append("import java.io.IOException;\n\n")
+                .append("/**\n * Generated by ").append(getClass().getSimpleName())
+                .append(", do not edit.\n */\n")
+                .append("public final class ").append(simpleName)
+                .append(" extends TypeAdapter<").append(typeName).append("> {\n\n")
+                .append("    private final Gson gson;\n");
+
+        for (Property property : properties) {
+            if (isDelegated(property.type)) {
+                s.append("    private TypeAdapter<").append(boxed(property.type)).append("> ")
+                        .append(property.name).append("Adapter;\n");
+            }
+        }
+
+        s.append("\n    public ").append(simpleName).append("(Gson gson) {\n")
+                .append("        this.gson = gson;\n")
+                .append("    }\n");
+
+        // write
+        s.append("\n    @Override\n")
+                .append("    public void write(JsonWriter out, ").append(typeName)
+                .append(" value) throws IOException {\n")
+                .append("        if (value == null) {\n")
+                .append("            out.nullValue();\n")
+                .append("            return;\n")
+                .append("        }\n\n")
+                .append("        out.beginObject();\n");
+
+        for (Property property : properties) {
+            s.append("        out.name(\"").append(property.jsonName).append("\");\n");
+
+            if (isDelegated(property.type)) {
+                s.append("        ").append(property.name).append("Adapter().write(out, ")
+                        .append(property.accessor).append(");\n");
+            } else if (property.type.getKind() == TypeKind.CHAR) {
+                // out.value(char) would widen to value(long), read back with nextString()
+                s.append("        out.value(String.valueOf(").append(property.accessor).append("));\n");
+            } else {
+                s.append("        out.value(").append(property.accessor).append(");\n");
+            }
+        }
+
+        s.append("        out.endObject();\n")
+                .append("    }\n");
+
+        // read
+        s.append("\n    @Override\n")
+                .append("    public ").append(typeName)
+                .append(" read(JsonReader in) throws IOException {\n")
+                .append("        if (in.peek() == JsonToken.NULL) {\n")
+                .append("            in.nextNull();\n")
+                .append("            return null;\n")
+                .append("        }\n\n");
+
+        for (Property property : properties) {
+            s.append("        ").append(property.type).append(" ").append(property.name)
+                    .append(" = ").append(defaultValue(property.type)).append(";\n");
+        }
+
+        s.append("\n        in.beginObject();\n")
+                .append("        while (in.hasNext()) {\n")
+                .append("            switch (in.nextName()) {\n");
+
+        for (Property property : properties) {
+            s.append("                case \"").append(property.jsonName).append("\":\n");
+
+            if (isDelegated(property.type)) {
+                s.append("                    ").append(property.name).append(" = ")
+                        .append(property.name).append("Adapter().read(in);\n");
+            } else {
+                s.append("                    if (in.peek() == JsonToken.NULL) {\n")
+                        .append("                        in.nextNull();\n")
+                        .append("                    } else {\n")
+                        .append("                        ").append(property.name).append(" = ")
+                        .append(readExpression(property.type)).append(";\n")
+                        .append("                    }\n");
+            }
+
+            s.append("                    break;\n");
+        }
+
+        s.append("                default:\n")
+                .append("                    in.skipValue();\n")
+                .append("            }\n")
+                .append("        }\n")
+                .append("        in.endObject();\n\n")
+                .append("        return new ").append(typeName).append("(");
+
+        for (int i = 0; i < ordered.size(); i++) {
+            s.append(i == 0 ? "" : ", ").append(ordered.get(i).name);
+        }
+
+        s.append(");\n")
+                .append("    }\n");
+
+        // Lazy delegate adapters, they may point back to this one
+        for (Property property : properties) {
+            if (isDelegated(property.type)) {
+                String boxed = boxed(property.type);
+
+                s.append("\n    private TypeAdapter<").append(boxed).append("> ")
+                        .append(property.name).append("Adapter() {\n")
+                        .append("        if (").append(property.name).append("Adapter == null) {\n")
+                        .append("            ").append(property.name)
+                        .append("Adapter = gson.getAdapter(new TypeToken<").append(boxed)
+                        .append(">() {});\n")
+                        .append("        }\n")
+                        .append("        return ").append(property.name).append("Adapter;\n")
+                        .append("    }\n");
+            }
+        }
+
+        s.append("}\n");
+        return s.toString();
+    }
+
+    private String factorySource(String pkg, List<TypeElement> types) {
+        StringBuilder s = new StringBuilder();
+
+        if (!pkg.isEmpty()) {
+            s.append("package ").append(pkg).append(";\n\n");
+        }
+
+        s.append("import com.google.gson.Gson;\n")
+                .append("import com.google.gson.TypeAdapter;\n")
+                .append("import com.google.gson.TypeAdapterFactory;\n")
+                .append("import com.google.gson.reflect.TypeToken;\n\n")
+                .append("/**\n * Serves the TypeAdapters generated by ").append(getClass().getSimpleName())
+                .append(", do not edit.\n */\n")
+                .append("public final class ").append(FACTORY_NAME)
+                .append(" implements TypeAdapterFactory {\n\n")
+                .append("    @Override\n")
+                .append("    @SuppressWarnings(\"unchecked\")\n")
+                .append("    public <T> TypeAdapter<T> create(Gson gson, TypeToken<T> type) {\n")
+                .append("        Class<? super T> rawType = type.getRawType();\n\n");
+
+        for (TypeElement type : types) {
+            s.append("        if (rawType == ").append(type.getQualifiedName()).append(".class) {\n")
+                    .append("            return (TypeAdapter<T>) new ").append(adapterName(type))
+                    .append("(gson);\n")
+                    .append("        }\n");
+        }
+
+        s.append("\n        return null;\n")
+                .append("    }\n")
+                .append("}\n");
+
+        return s.toString();
+    }
+
+    private static boolean isDelegated(TypeMirror type) {
+        return !type.getKind().isPrimitive() && !type.toString().equals("java.lang.String");
+    }
+
+    private static String readExpression(TypeMirror type) {
+        switch (type.getKind()) {
+            case BOOLEAN:
+                return "in.nextBoolean()";
+            case INT:
+                return "in.nextInt()";
+            case LONG:
+                return "in.nextLong()";
+            case DOUBLE:
+                return "in.nextDouble()";
+            case FLOAT:
+                return "(float) in.nextDouble()";
+            case SHORT:
+                return "(short) in.nextInt()";
+            case BYTE:
+                return "(byte) in.nextInt()";
+            case CHAR:
+                return "in.nextString().charAt(0)";
+            default:
+                // String, accepts booleans and numbers like Gson's own adapter
+                return "in.peek() == JsonToken.BOOLEAN ? Boolean.toString(in.nextBoolean()) : in.nextString()";
+        }
+    }
+
+    private static String defaultValue(TypeMirror type) {
+        switch (type.getKind()) {
+            case BOOLEAN:
+                return "false";
+            case CHAR:
+                return "'\\0'";
+            default:
+                return type.getKind().isPrimitive() ? "0" : "null";
+        }
+    }
+
+    private String boxed(TypeMirror type) {
+        if (type.getKind().isPrimitive()) {
+            return processingEnv.getTypeUtils().boxedClass((javax.lang.model.type.PrimitiveType) type)
+                    .getQualifiedName().toString();
+        }
+
+        return type.toString();
+    }
+
+    /* Helpers */
+
+    private void write(String qualifiedName, Element origin, String source) throws IOException {
+        JavaFileObject file = processingEnv.getFiler().createSourceFile(qualifiedName, origin);
+
+        try (Writer writer = file.openWriter()) {
+            writer.write(source);
+        }
+    }
+
+    private String adapterName(TypeElement type) {
+        String pkg = packageOf(type);
+        String binaryName = processingEnv.getElementUtils().getBinaryName(type).toString();
+        String simple = binaryName.substring(pkg.isEmpty() ? 0 : pkg.length() + 1).replace('$', '_');
+
+        return (pkg.isEmpty() ? "" : pkg + ".") + simple + "_TypeAdapter";
+    }
+
+    private String packageOf(TypeElement type) {
+        return processingEnv.getElementUtils().getPackageOf(type).getQualifiedName().toString();
+    }
+
+    private String commonPackage(List<TypeElement> types) {
+        String common = packageOf(types.get(0));
+
+        for (TypeElement type : types) {
+            String pkg = packageOf(type);
+
+            while (!pkg.equals(common) && !pkg.startsWith(common + ".")) {
+                int dot = common.lastIndexOf('.');
+                common = dot < 0 ? "" : common.substring(0, dot);
+
+                if (common.isEmpty()) {
+                    break;
+                }
+            }
+        }
+
+        return common;
+    }
+
+    private static AnnotationMirror annotation(Element element, String qualifiedName) {
+        for (AnnotationMirror mirror : element.getAnnotationMirrors()) {
+            TypeElement annotationType = (TypeElement) mirror.getAnnotationType().asElement();
+
+            if (annotationType.getQualifiedName().contentEquals(qualifiedName)) {
+                return mirror;
+            }
+        }
+
+        return null;
+    }
+
+    private static Object annotationValue(AnnotationMirror mirror, String name) {
+        for (ExecutableElement key : mirror.getElementValues().keySet()) {
+            if (key.getSimpleName().contentEquals(name)) {
+                AnnotationValue value = mirror.getElementValues().get(key);
+                return value.getValue();
+            }
+        }
+
+        return null;
+    }
+
+    private void error(String message, Element element) {
+        processingEnv.getMessager().printMessage(Diagnostic.Kind.ERROR, message, element);
+    }
+}
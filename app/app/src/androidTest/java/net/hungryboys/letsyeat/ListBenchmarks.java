@@ -0,0 +1,83 @@
+package net.hungryboys.letsyeat;
+
+import android.app.Instrumentation;
+import android.view.View;
+
+import androidx.recyclerview.widget.ListAdapter;
+import androidx.recyclerview.widget.RecyclerView;
+
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Main thread helpers shared by the list benchmarks
+ */
+public final class ListBenchmarks {
+
+    private ListBenchmarks() {}
+
+    /**
+     * Submits items and waits for the background diff to be dispatched to the adapter
+     */
+    public static <T> void submitAndWait(Instrumentation instrumentation,
+                                         final ListAdapter<T, ?> adapter,
+                                         final List<T> items) throws InterruptedException {
+        final CountDownLatch latch = new CountDownLatch(1);
+        final RecyclerView.AdapterDataObserver observer = new RecyclerView.AdapterDataObserver() {
+            @Override
+            public void onChanged() {
+                latch.countDown();
+            }
+
+            @Override
+            public void onItemRangeChanged(int positionStart, int itemCount, Object payload) {
+                latch.countDown();
+            }
+
+            @Override
+            public void onItemRangeInserted(int positionStart, int itemCount) {
+                latch.countDown();
+            }
+        };
+
+        instrumentation.runOnMainSync(new Runnable() {
+            @Override
+            public void run() {
+                adapter.registerAdapterDataObserver(observer);
+                adapter.submitList(items);
+            }
+        });
+
+        assertTrue("Diff never dispatched", latch.await(5, TimeUnit.SECONDS));
+
+        instrumentation.runOnMainSync(new Runnable() {
+            @Override
+            public void run() {
+                adapter.unregisterAdapterDataObserver(observer);
+            }
+        });
+    }
+
+    /**
+     * @return duration in ns of a measure + layout pass, the main thread share of a frame
+     */
+    public static long layout(Instrumentation instrumentation, final View view,
+                              final int widthSpec, final int heightSpec) {
+        final long[] duration = new long[1];
+
+        instrumentation.runOnMainSync(new Runnable() {
+            @Override
+            public void run() {
+                long start = System.nanoTime();
+                view.measure(widthSpec, heightSpec);
+                view.layout(0, 0, view.getMeasuredWidth(), view.getMeasuredHeight());
+                duration[0] = System.nanoTime() - start;
+            }
+        });
+
+        return duration[0];
+    }
+}
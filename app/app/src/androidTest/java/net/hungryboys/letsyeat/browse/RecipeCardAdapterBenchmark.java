@@ -0,0 +1,223 @@
+package net.hungryboys.letsyeat.browse;
+
+import android.app.Instrumentation;
+import android.content.Context;
+import android.os.Bundle;
+import android.os.Debug;
+import android.view.View;
+
+import androidx.appcompat.view.ContextThemeWrapper;
+import androidx.recyclerview.widget.LinearLayoutManager;
+import androidx.recyclerview.widget.RecyclerView;
+import androidx.test.ext.junit.runners.AndroidJUnit4;
+import androidx.test.platform.app.InstrumentationRegistry;
+
+import net.hungryboys.letsyeat.ListBenchmarks;
+import net.hungryboys.letsyeat.R;
+import net.hungryboys.letsyeat.data.RecipeID;
+import net.hungryboys.letsyeat.data.RecipeStub;
+
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Measures the layout pass following a 1,000 item refresh of {@link RecipeCardAdapter} where 5%
+ * of the stubs changed. Frame times are reported as instrumentation status (median / p90 in ms).
+ * Also checks that binding cards allocates nothing once every stub has been shown, but for the
+ * Picasso request of a new picture, whose cost per bind is reported.
+ */
+@RunWith(AndroidJUnit4.class)
+public class RecipeCardAdapterBenchmark {
+
+    private static final int ITEMS = 1000;
+    private static final int CHANGED_EVERY = 20; // 5%
+    private static final int ITERATIONS = 30;
+    private static final int WIDTH = 1080;
+    private static final int HEIGHT = 1920;
+    private static final int HOLDERS = 8; // about one screen of cards
+
+    private Instrumentation instrumentation;
+    private RecyclerView recyclerView;
+    private RecipeCardAdapter adapter;
+
+    @Before
+    public void setUp() {
+        instrumentation = InstrumentationRegistry.getInstrumentation();
+        final Context context = new ContextThemeWrapper(instrumentation.getTargetContext(), R.style.MainTheme);
+
+        instrumentation.runOnMainSync(new Runnable() {
+            @Override
+            public void run() {
+                recyclerView = new RecyclerView(context);
+                recyclerView.setLayoutManager(new LinearLayoutManager(context));
+                recyclerView.addItemDecoration(new TopCardMarginDecoration(context.getResources()));
+                adapter = new RecipeCardAdapter();
+                recyclerView.setAdapter(adapter);
+            }
+        });
+    }
+
+    @Test
+    public void refreshWithFivePercentChanged() throws InterruptedException {
+        List<RecipeStub> base = stubs(0, false);
+        submitAndWait(base);
+        layout();
+
+        long[] frames = new long[ITERATIONS];
+        final AtomicInteger changed = new AtomicInteger();
+
+        adapter.registerAdapterDataObserver(new RecyclerView.AdapterDataObserver() {
+            @Override
+            public void onItemRangeChanged(int positionStart, int itemCount, Object payload) {
+                changed.addAndGet(itemCount);
+            }
+        });
+
+        for (int i = 0; i < ITERATIONS; i++) {
+            changed.set(0);
+            submitAndWait(stubs(i + 1, false));
+            frames[i] = layout();
+
+            // Only the modified stubs must be reported as changed, nothing inserted or moved
+            assertEquals(ITEMS / CHANGED_EVERY, changed.get());
+        }
+
+        Arrays.sort(frames);
+        double median = frames[ITERATIONS / 2] / 1e6;
+        double p90 = frames[(int) (ITERATIONS * 0.9)] / 1e6;
+
+        Bundle results = new Bundle();
+        results.putDouble("frame_median_ms", median);
+        results.putDouble("frame_p90_ms", p90);
+        instrumentation.sendStatus(0, results);
+
+        assertTrue(median > 0);
+    }
+
+    @Test
+    public void bindAllocations() throws InterruptedException {
+        final RecipeCardAdapter.RecipeListItemViewHolder[] holders =
+                new RecipeCardAdapter.RecipeListItemViewHolder[HOLDERS];
+        final int[] allocations = new int[3];
+
+        submitAndWait(stubs(0, false));
+        instrumentation.runOnMainSync(new Runnable() {
+            @Override
+            public void run() {
+                for (int i = 0; i < HOLDERS; i++) {
+                    holders[i] = adapter.createViewHolder(recyclerView, 0);
+
+                    // Sized like on screen, so that pictures are requested right away
+                    View card = holders[i].itemView;
+                    card.measure(View.MeasureSpec.makeMeasureSpec(WIDTH, View.MeasureSpec.EXACTLY),
+                            View.MeasureSpec.makeMeasureSpec(0, View.MeasureSpec.UNSPECIFIED));
+                    card.layout(0, 0, card.getMeasuredWidth(), card.getMeasuredHeight());
+                }
+
+                // Like scrolling down the list twice, holders are rebound to other recipes
+                bindAll(holders);
+                allocations[0] = countAllocations(new Runnable() {
+                    @Override
+                    public void run() {
+                        bindAll(holders);
+                    }
+                });
+            }
+        });
+
+        submitAndWait(stubs(0, true));
+        instrumentation.runOnMainSync(new Runnable() {
+            @Override
+            public void run() {
+                bindAll(holders);
+                allocations[1] = countAllocations(new Runnable() {
+                    @Override
+                    public void run() {
+                        bindAll(holders);
+                    }
+                });
+
+                // Rebinding the recipes shown, e.g. after a refresh, requests nothing
+                allocations[2] = countAllocations(new Runnable() {
+                    @Override
+                    public void run() {
+                        for (int position = ITEMS - HOLDERS; position < ITEMS; position++) {
+                            adapter.onBindViewHolder(holders[position % HOLDERS], position);
+                        }
+                    }
+                });
+
+                for (RecipeCardAdapter.RecipeListItemViewHolder holder : holders) {
+                    holder.picture.cancel();
+                }
+            }
+        });
+
+        Bundle results = new Bundle();
+        results.putDouble("bind_allocations", allocations[0] / (double) ITEMS);
+        results.putDouble("picture_bind_allocations", allocations[1] / (double) ITEMS);
+        instrumentation.sendStatus(0, results);
+
+        assertEquals(0, allocations[0]);
+        assertEquals(0, allocations[2]);
+        // A new picture costs Picasso's request (RequestCreator, Request, action and key), the
+        // accepted exception reported above
+        assertTrue(allocations[1] > 0);
+    }
+
+    private void bindAll(RecipeCardAdapter.RecipeListItemViewHolder[] holders) {
+        for (int position = 0; position < ITEMS; position++) {
+            adapter.onBindViewHolder(holders[position % holders.length], position);
+        }
+    }
+
+    /**
+     * @return objects allocated on this thread by binds
+     */
+    @SuppressWarnings("deprecation")
+    private static int countAllocations(Runnable binds) {
+        Debug.startAllocCounting();
+        int before = Debug.getThreadAllocCount();
+        binds.run();
+        int count = Debug.getThreadAllocCount() - before;
+        Debug.stopAllocCounting();
+
+        return count;
+    }
+
+    /**
+     * @param version stubs at positions multiple of CHANGED_EVERY get a name depending on version
+     * @param pictures whether stubs have a picture, each its own
+     */
+    private static List<RecipeStub> stubs(int version, boolean pictures) {
+        List<RecipeStub> stubs = new ArrayList<>(ITEMS);
+
+        for (int i = 0; i < ITEMS; i++) {
+            String name = i % CHANGED_EVERY == 0 ? "Recipe " + i + " v" + version : "Recipe " + i;
+            // Real requests, refused locally rather than sent out
+            String pictureUrl = pictures ? "http://localhost/recipes/" + i + ".jpg" : "";
+            stubs.add(new RecipeStub(new RecipeID("id" + i), name, pictureUrl, 30 + i % 90, i % 5));
+        }
+
+        return stubs;
+    }
+
+    private void submitAndWait(List<RecipeStub> stubs) throws InterruptedException {
+        ListBenchmarks.submitAndWait(instrumentation, adapter, stubs);
+    }
+
+    private long layout() {
+        return ListBenchmarks.layout(instrumentation, recyclerView,
+                View.MeasureSpec.makeMeasureSpec(WIDTH, View.MeasureSpec.EXACTLY),
+                View.MeasureSpec.makeMeasureSpec(HEIGHT, View.MeasureSpec.EXACTLY));
+    }
+}
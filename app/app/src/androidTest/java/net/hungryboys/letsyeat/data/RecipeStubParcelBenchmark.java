@@ -0,0 +1,117 @@
+package net.hungryboys.letsyeat.data;
+
+import android.os.Bundle;
+import android.os.Parcel;
+
+import androidx.test.ext.junit.runners.AndroidJUnit4;
+import androidx.test.platform.app.InstrumentationRegistry;
+
+import org.junit.Test;
+import org.junit.runner.RunWith;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import static org.junit.Assert.assertEquals;
+
+/**
+ * Measures parcelling and unparcelling 1,000 {@link RecipeStub}s, the cost of handing a browse
+ * list between components or saving it in instance state. Times are reported as instrumentation
+ * status (median / p90 in ms), with the parcel size in bytes.
+ */
+@RunWith(AndroidJUnit4.class)
+public class RecipeStubParcelBenchmark {
+
+    private static final int ITEMS = 1000;
+    private static final int WARMUP = 10;
+    private static final int ITERATIONS = 50;
+
+    @Test
+    public void stubRoundTrip() {
+        List<RecipeStub> stubs = stubs();
+
+        Parcel parcel = Parcel.obtain();
+        try {
+            parcel.writeTypedList(stubs);
+            parcel.setDataPosition(0);
+
+            assertEquals(stubs, parcel.createTypedArrayList(RecipeStub.CREATOR));
+        } finally {
+            parcel.recycle();
+        }
+    }
+
+    @Test
+    public void recipeRoundTrip() {
+        Recipe recipe = Recipe.placeholder();
+
+        Parcel parcel = Parcel.obtain();
+        try {
+            recipe.writeToParcel(parcel, 0);
+            parcel.setDataPosition(0);
+            Recipe read = Recipe.CREATOR.createFromParcel(parcel);
+
+            assertEquals(recipe.getId(), read.getId());
+            assertEquals(recipe.getName(), read.getName());
+            assertEquals(recipe.getTime(), read.getTime());
+            assertEquals(recipe.getIngredients(), read.getIngredients());
+            assertEquals(recipe.getInstructions(), read.getInstructions());
+            assertEquals(recipe.getTags(), read.getTags());
+        } finally {
+            parcel.recycle();
+        }
+    }
+
+    @Test
+    public void parcelThousandStubs() {
+        List<RecipeStub> stubs = stubs();
+        long[] write = new long[ITERATIONS];
+        long[] read = new long[ITERATIONS];
+        int size = 0;
+
+        for (int i = -WARMUP; i < ITERATIONS; i++) {
+            Parcel parcel = Parcel.obtain();
+
+            long start = System.nanoTime();
+            parcel.writeTypedList(stubs);
+            long written = System.nanoTime();
+
+            parcel.setDataPosition(0);
+            List<RecipeStub> result = parcel.createTypedArrayList(RecipeStub.CREATOR);
+            long end = System.nanoTime();
+
+            size = parcel.dataSize();
+            parcel.recycle();
+
+            assertEquals(ITEMS, result.size());
+
+            if (i >= 0) {
+                write[i] = written - start;
+                read[i] = end - written;
+            }
+        }
+
+        Arrays.sort(write);
+        Arrays.sort(read);
+
+        Bundle results = new Bundle();
+        results.putDouble("parcel_median_ms", write[ITERATIONS / 2] / 1e6);
+        results.putDouble("parcel_p90_ms", write[(int) (ITERATIONS * 0.9)] / 1e6);
+        results.putDouble("unparcel_median_ms", read[ITERATIONS / 2] / 1e6);
+        results.putDouble("unparcel_p90_ms", read[(int) (ITERATIONS * 0.9)] / 1e6);
+        results.putInt("parcel_bytes", size);
+        InstrumentationRegistry.getInstrumentation().sendStatus(0, results);
+    }
+
+    private static List<RecipeStub> stubs() {
+        List<RecipeStub> stubs = new ArrayList<>(ITEMS);
+
+        for (int i = 0; i < ITEMS; i++) {
+            stubs.add(new RecipeStub(new RecipeID("id" + i), "Recipe " + i,
+                    "http://example.com/" + i + ".jpg", 30 + i % 90, i % 5));
+        }
+
+        return stubs;
+    }
+}
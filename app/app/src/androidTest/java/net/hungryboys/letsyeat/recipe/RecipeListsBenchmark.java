@@ -0,0 +1,133 @@
+package net.hungryboys.letsyeat.recipe;
+
+import android.app.Instrumentation;
+import android.content.Context;
+import android.os.Bundle;
+import android.view.View;
+import android.view.ViewGroup;
+
+import androidx.annotation.NonNull;
+import androidx.appcompat.view.ContextThemeWrapper;
+import androidx.recyclerview.widget.RecyclerView;
+import androidx.test.ext.junit.runners.AndroidJUnit4;
+import androidx.test.platform.app.InstrumentationRegistry;
+
+import net.hungryboys.letsyeat.ListBenchmarks;
+import net.hungryboys.letsyeat.R;
+import net.hungryboys.letsyeat.data.Ingredient;
+import net.hungryboys.letsyeat.data.Recipe;
+import net.hungryboys.letsyeat.data.RecipeID;
+import net.hungryboys.letsyeat.data.TagSet;
+
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+
+import java.util.Arrays;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Measures the layout pass showing a recipe with 20 ingredients and 60 steps in the list of
+ * {@link RecipeFragment}, first from empty and then switching between two recipes. Frame times
+ * are reported as instrumentation status (median / p90 in ms). Only the rows on screen may be
+ * inflated.
+ */
+@RunWith(AndroidJUnit4.class)
+public class RecipeListsBenchmark {
+
+    private static final int INGREDIENTS = 20;
+    private static final int STEPS = 60;
+    private static final int ITERATIONS = 30;
+    private static final int WIDTH = 1080;
+    private static final int HEIGHT = 1920;
+
+    private Instrumentation instrumentation;
+    private RecyclerView list;
+    private RecipeDetailAdapter adapter;
+    private final AtomicInteger created = new AtomicInteger();
+
+    @Before
+    public void setUp() {
+        instrumentation = InstrumentationRegistry.getInstrumentation();
+        final Context context = new ContextThemeWrapper(instrumentation.getTargetContext(), R.style.MainTheme);
+
+        instrumentation.runOnMainSync(new Runnable() {
+            @Override
+            public void run() {
+                list = new RecyclerView(context);
+                adapter = new RecipeDetailAdapter(new View.OnClickListener() {
+                    @Override
+                    public void onClick(View v) {
+                    }
+                }) {
+                    @NonNull
+                    @Override
+                    public RecyclerView.ViewHolder onCreateViewHolder(@NonNull ViewGroup parent, int viewType) {
+                        created.incrementAndGet();
+                        return super.onCreateViewHolder(parent, viewType);
+                    }
+                };
+                RecipeFragment.setUpList(list, adapter);
+            }
+        });
+    }
+
+    @Test
+    public void longRecipe() throws InterruptedException {
+        showAndWait(recipe("a"));
+        long first = layout();
+
+        // One holder per row on screen, none for the rows below it
+        int visible = list.getChildCount();
+        assertEquals(visible, created.get());
+        assertTrue(visible < 1 + INGREDIENTS + STEPS);
+
+        long[] frames = new long[ITERATIONS];
+
+        for (int i = 0; i < ITERATIONS; i++) {
+            showAndWait(recipe(i % 2 == 0 ? "b" : "a"));
+            frames[i] = layout();
+        }
+
+        // Switching recipes rebinds the rows already there
+        assertEquals(visible, created.get());
+
+        Arrays.sort(frames);
+
+        Bundle results = new Bundle();
+        results.putDouble("first_frame_ms", first / 1e6);
+        results.putDouble("switch_frame_median_ms", frames[ITERATIONS / 2] / 1e6);
+        results.putDouble("switch_frame_p90_ms", frames[(int) (ITERATIONS * 0.9)] / 1e6);
+        results.putInt("rows_created", created.get());
+        instrumentation.sendStatus(0, results);
+    }
+
+    private static Recipe recipe(String name) {
+        Ingredient[] ingredients = new Ingredient[INGREDIENTS];
+        for (int i = 0; i < INGREDIENTS; i++) {
+            ingredients[i] = new Ingredient("Ingredient " + name + i, "" + (i + 1), "cups");
+        }
+
+        String[] steps = new String[STEPS];
+        for (int i = 0; i < STEPS; i++) {
+            steps[i] = "Recipe " + name + ", step " + i + ": stir for " + (i % 7 + 1) + " minutes";
+        }
+
+        // No picture, the header binds without a request
+        return new Recipe(new RecipeID("id" + name), "Recipe " + name, "", 30, 2,
+                ingredients, steps, TagSet.EMPTY);
+    }
+
+    private void showAndWait(Recipe recipe) throws InterruptedException {
+        ListBenchmarks.submitAndWait(instrumentation, adapter, RecipeDetailAdapter.rows(recipe));
+    }
+
+    private long layout() {
+        return ListBenchmarks.layout(instrumentation, list,
+                View.MeasureSpec.makeMeasureSpec(WIDTH, View.MeasureSpec.EXACTLY),
+                View.MeasureSpec.makeMeasureSpec(HEIGHT, View.MeasureSpec.EXACTLY));
+    }
+}
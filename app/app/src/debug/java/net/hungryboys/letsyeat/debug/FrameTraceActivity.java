@@ -0,0 +1,66 @@
+package net.hungryboys.letsyeat.debug;
+
+import androidx.appcompat.app.AppCompatActivity;
+
+import android.os.Bundle;
+import android.os.Handler;
+import android.view.View;
+import android.widget.TextView;
+
+import net.hungryboys.letsyeat.R;
+
+/**
+ * Debug builds only: frame times, allocations and the slowest traced sections of the running app,
+ * see {@link FrameTracer}. Refreshed every second, late frames are also logged as they happen.
+ */
+public class FrameTraceActivity extends AppCompatActivity {
+
+    private static final long REFRESH_MS = 1000;
+
+    private final Handler handler = new Handler();
+    private TextView text;
+
+    private final Runnable refresh = new Runnable() {
+        @Override
+        public void run() {
+            show();
+            handler.postDelayed(this, REFRESH_MS);
+        }
+    };
+
+    @Override
+    protected void onCreate(Bundle savedInstanceState) {
+        super.onCreate(savedInstanceState);
+        setContentView(R.layout.activity_frame_trace);
+
+        text = findViewById(R.id.frame_trace_text);
+
+        findViewById(R.id.frame_trace_reset).setOnClickListener(new View.OnClickListener() {
+            @Override
+            public void onClick(View v) {
+                FrameTracer tracer = FrameTracer.getInstance();
+                if (tracer != null) {
+                    tracer.reset();
+                }
+                show();
+            }
+        });
+    }
+
+    @Override
+    protected void onResume() {
+        super.onResume();
+        handler.post(refresh);
+    }
+
+    @Override
+    protected void onPause() {
+        super.onPause();
+        handler.removeCallbacks(refresh);
+    }
+
+    private void show() {
+        FrameTracer tracer = FrameTracer.getInstance();
+        text.setText(tracer == null ? getString(R.string.frame_trace_off) : tracer.report());
+    }
+}
@@ -0,0 +1,319 @@
+package net.hungryboys.letsyeat.debug;
+
+import android.os.Debug;
+import android.os.Looper;
+import android.util.Log;
+import android.view.Choreographer;
+
+import androidx.annotation.NonNull;
+
+import net.hungryboys.letsyeat.UiTrace;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Debug builds only: times every frame of the main thread with {@link Choreographer} and counts
+ * the objects allocated in it, and times the {@link UiTrace} sections run in between. A frame
+ * that misses its vsync (over 16 ms at 60 Hz) is logged with the section that took the most time
+ * in it. Times and allocations of a section exclude those of the sections nested in it.
+ * <p>
+ * Main thread only, sections opened on other threads are ignored. Tracing itself doesn't allocate
+ * once every section has been seen, so allocation counts are the app's own.
+ */
+final class FrameTracer implements UiTrace.Tracer, Choreographer.FrameCallback {
+
+    private static final String TAG_FRAMES = "FrameTracer";
+    private static final int MAX_DEPTH = 32;
+    private static final int JANK_HISTORY = 20;
+
+    private static FrameTracer instance;
+
+    static final class Section {
+        final String name;
+        long calls;
+        long nanos;
+        long maxNanos;
+        long allocations;
+
+        // Spent in the current frame
+        long frameNanos;
+        boolean inFrame;
+
+        Section(String name) {
+            this.name = name;
+        }
+    }
+
+    static final class JankFrame {
+        long nanos;
+        long allocations;
+        String section;
+        long sectionNanos;
+    }
+
+    private final Thread mainThread = Looper.getMainLooper().getThread();
+    private final long budgetNanos;
+    private final long lateNanos;
+
+    private final Map<String, Section> sections = new HashMap<>();
+    private final List<Section> inFrame = new ArrayList<>();
+
+    private final Section[] stack = new Section[MAX_DEPTH];
+    private final long[] startNanos = new long[MAX_DEPTH];
+    private final long[] startAllocations = new long[MAX_DEPTH];
+    private final long[] childNanos = new long[MAX_DEPTH];
+    private final long[] childAllocations = new long[MAX_DEPTH];
+    private int depth;
+
+    private long lastFrameNanos;
+    private long frameStartAllocations;
+
+    private long frames;
+    private long jankFrames;
+    private long totalFrameNanos;
+    private long maxFrameNanos;
+    private long totalAllocations;
+    private long maxFrameAllocations;
+
+    private final JankFrame[] janks = new JankFrame[JANK_HISTORY];
+    private int jankIndex;
+
+    /**
+     * @param refreshRate of the display, in frames per second
+     */
+    private FrameTracer(float refreshRate) {
+        budgetNanos = (long) (TimeUnit.SECONDS.toNanos(1) / refreshRate);
+        // Vsyncs are a period apart, a frame over budget shows up as a skipped one
+        lateNanos = budgetNanos * 3 / 2;
+
+        for (int i = 0; i < janks.length; i++) {
+            janks[i] = new JankFrame();
+        }
+    }
+
+    /**
+     * Starts tracing, on the main thread
+     */
+    @SuppressWarnings("deprecation")
+    static void install(float refreshRate) {
+        if (instance != null) {
+            return;
+        }
+
+        instance = new FrameTracer(refreshRate);
+
+        // Deprecated as ART's counts are approximate, still good enough to compare frames
+        Debug.startAllocCounting();
+        instance.frameStartAllocations = Debug.getThreadAllocCount();
+
+        UiTrace.install(instance);
+        Choreographer.getInstance().postFrameCallback(instance);
+    }
+
+    /**
+     * @return null before {@link #install}
+     */
+    static FrameTracer getInstance() {
+        return instance;
+    }
+
+    @SuppressWarnings("deprecation")
+    @Override
+    public void begin(@NonNull String name) {
+        if (Thread.currentThread() != mainThread || depth == MAX_DEPTH) {
+            return;
+        }
+
+        Section section = sections.get(name);
+        if (section == null) {
+            section = new Section(name);
+            sections.put(name, section);
+        }
+
+        stack[depth] = section;
+        childNanos[depth] = 0;
+        childAllocations[depth] = 0;
+        startAllocations[depth] = Debug.getThreadAllocCount();
+        startNanos[depth] = System.nanoTime();
+        depth++;
+    }
+
+    @SuppressWarnings("deprecation")
+    @Override
+    public void end() {
+        if (Thread.currentThread() != mainThread || depth == 0) {
+            return;
+        }
+
+        long now = System.nanoTime();
+        long allocationCount = Debug.getThreadAllocCount();
+        depth--;
+
+        Section section = stack[depth];
+        stack[depth] = null;
+
+        long nanos = now - startNanos[depth];
+        long allocations = allocationCount - startAllocations[depth];
+
+        if (depth > 0) {
+            childNanos[depth - 1] += nanos;
+            childAllocations[depth - 1] += allocations;
+        }
+
+        long selfNanos = nanos - childNanos[depth];
+        section.calls++;
+        section.nanos += selfNanos;
+        section.maxNanos = Math.max(section.maxNanos, selfNanos);
+        section.allocations += allocations - childAllocations[depth];
+
+        if (!section.inFrame) {
+            section.inFrame = true;
+            inFrame.add(section);
+        }
+        section.frameNanos += selfNanos;
+    }
+
+    /**
+     * Runs once per vsync, so the interval since the last call is the time the previous frame
+     * took, including the sections traced while drawing it
+     */
+    @SuppressWarnings("deprecation")
+    @Override
+    public void doFrame(long frameTimeNanos) {
+        long allocations = Debug.getThreadAllocCount() - frameStartAllocations;
+
+        if (lastFrameNanos != 0) {
+            long nanos = frameTimeNanos - lastFrameNanos;
+
+            frames++;
+            totalFrameNanos += nanos;
+            maxFrameNanos = Math.max(maxFrameNanos, nanos);
+            totalAllocations += allocations;
+            maxFrameAllocations = Math.max(maxFrameAllocations, allocations);
+
+            if (nanos > lateNanos) {
+                jank(nanos, allocations);
+            }
+        }
+
+        for (int i = 0; i < inFrame.size(); i++) {
+            Section section = inFrame.get(i);
+            section.frameNanos = 0;
+            section.inFrame = false;
+        }
+        inFrame.clear();
+
+        lastFrameNanos = frameTimeNanos;
+        Choreographer.getInstance().postFrameCallback(this);
+
+        // After logging, so that it isn't counted against the next frame
+        frameStartAllocations = Debug.getThreadAllocCount();
+    }
+
+    private void jank(long nanos, long allocations) {
+        Section slowest = null;
+        for (int i = 0; i < inFrame.size(); i++) {
+            Section section = inFrame.get(i);
+            if (slowest == null || section.frameNanos > slowest.frameNanos) {
+                slowest = section;
+            }
+        }
+
+        jankFrames++;
+
+        JankFrame jank = janks[jankIndex];
+        jankIndex = (jankIndex + 1) % janks.length;
+        jank.nanos = nanos;
+        jank.allocations = allocations;
+        jank.section = slowest == null ? null : slowest.name;
+        jank.sectionNanos = slowest == null ? 0 : slowest.frameNanos;
+
+        Log.w(TAG_FRAMES, describe(jank));
+    }
+
+    void reset() {
+        for (Section section : sections.values()) {
+            section.calls = 0;
+            section.nanos = 0;
+            section.maxNanos = 0;
+            section.allocations = 0;
+        }
+
+        for (JankFrame jank : janks) {
+            jank.nanos = 0;
+        }
+
+        frames = 0;
+        jankFrames = 0;
+        totalFrameNanos = 0;
+        maxFrameNanos = 0;
+        totalAllocations = 0;
+        maxFrameAllocations = 0;
+    }
+
+    /**
+     * @return frame and section statistics since install or the last reset, slowest sections first
+     */
+    @NonNull
+    String report() {
+        StringBuilder sb = new StringBuilder();
+
+        sb.append(String.format(Locale.ROOT, "%d frames, %d over the %.1f ms budget%n",
+                frames, jankFrames, budgetNanos / 1e6));
+        if (frames > 0) {
+            sb.append(String.format(Locale.ROOT, "  mean %.1f ms, max %.1f ms%n",
+                    totalFrameNanos / 1e6 / frames, maxFrameNanos / 1e6));
+            sb.append(String.format(Locale.ROOT, "  %.1f allocations per frame, max %d%n",
+                    totalAllocations / (double) frames, maxFrameAllocations));
+        }
+
+        List<Section> sorted = new ArrayList<>(sections.values());
+        Collections.sort(sorted, new Comparator<Section>() {
+            @Override
+            public int compare(Section a, Section b) {
+                return b.nanos < a.nanos ? -1 : (b.nanos == a.nanos ? 0 : 1);
+            }
+        });
+
+        sb.append(String.format(Locale.ROOT, "%n%-36s %6s %8s %7s %12s%n",
+                "section", "calls", "mean us", "max ms", "allocs/call"));
+        for (Section section : sorted) {
+            if (section.calls == 0) {
+                continue;
+            }
+
+            sb.append(String.format(Locale.ROOT, "%-36s %6d %8.1f %7.1f %12.1f%n",
+                    section.name, section.calls, section.nanos / 1e3 / section.calls,
+                    section.maxNanos / 1e6, section.allocations / (double) section.calls));
+        }
+
+        sb.append("\nlast late frames\n");
+        for (int i = 1; i <= janks.length; i++) {
+            JankFrame jank = janks[(jankIndex - i + janks.length) % janks.length];
+            if (jank.nanos == 0) {
+                break;
+            }
+
+            sb.append("  ").append(describe(jank)).append('\n');
+        }
+
+        return sb.toString();
+    }
+
+    private static String describe(JankFrame jank) {
+        if (jank.section == null) {
+            return String.format(Locale.ROOT, "Frame %.1f ms, %d allocations, no traced section",
+                    jank.nanos / 1e6, jank.allocations);
+        }
+
+        return String.format(Locale.ROOT, "Frame %.1f ms, %d allocations, mostly %s (%.1f ms)",
+                jank.nanos / 1e6, jank.allocations, jank.section, jank.sectionNanos / 1e6);
+    }
+}
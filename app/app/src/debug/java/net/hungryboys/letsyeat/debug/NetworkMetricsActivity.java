@@ -0,0 +1,188 @@
+package net.hungryboys.letsyeat.debug;
+
+import androidx.appcompat.app.AppCompatActivity;
+
+import android.os.Bundle;
+import android.os.Handler;
+import android.util.Log;
+import android.view.View;
+import android.widget.TextView;
+import android.widget.Toast;
+
+import net.hungryboys.letsyeat.R;
+import net.hungryboys.letsyeat.api.APICaller;
+import net.hungryboys.letsyeat.api.ImageLoader;
+import net.hungryboys.letsyeat.api.LatencyHistogram;
+import net.hungryboys.letsyeat.api.NetworkMetrics;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+
+/**
+ * Debug builds only: client-wide counters and per-endpoint network statistics of the running app,
+ * refreshed every second, with a JSON dump to the app's external files directory.
+ */
+public class NetworkMetricsActivity extends AppCompatActivity {
+
+    private static final String TAG_METRICS = "NetworkMetricsActivity";
+    private static final String JSON_FILE = "network-metrics.json";
+    private static final long REFRESH_MS = 1000;
+
+    private final Handler handler = new Handler();
+    private TextView text;
+
+    private final Runnable refresh = new Runnable() {
+        @Override
+        public void run() {
+            show();
+            handler.postDelayed(this, REFRESH_MS);
+        }
+    };
+
+    @Override
+    protected void onCreate(Bundle savedInstanceState) {
+        super.onCreate(savedInstanceState);
+        setContentView(R.layout.activity_network_metrics);
+
+        text = findViewById(R.id.network_metrics_text);
+
+        findViewById(R.id.network_metrics_reset).setOnClickListener(new View.OnClickListener() {
+            @Override
+            public void onClick(View v) {
+                metrics().reset();
+                show();
+            }
+        });
+
+        findViewById(R.id.network_metrics_save).setOnClickListener(new View.OnClickListener() {
+            @Override
+            public void onClick(View v) {
+                save();
+            }
+        });
+    }
+
+    @Override
+    protected void onResume() {
+        super.onResume();
+        handler.post(refresh);
+    }
+
+    @Override
+    protected void onPause() {
+        super.onPause();
+        handler.removeCallbacks(refresh);
+    }
+
+    private static NetworkMetrics metrics() {
+        return APICaller.getInstance().getNetworkMetrics();
+    }
+
+    /**
+     * Client-wide counters, since the app started rather than the last reset. Main thread only,
+     * like the picture counters.
+     */
+    private static Map<String, Number> counters() {
+        APICaller api = APICaller.getInstance();
+
+        Map<String, Number> counters = new LinkedHashMap<>();
+        counters.put("connectionsOpened", api.getConnectionsOpened());
+        counters.put("handshakesAvoided", api.getHandshakesAvoided());
+        counters.put("requestsCollapsed", api.getCollapsedRequestCount());
+
+        // Pictures bound to a view, and the share already decoded in memory then
+        int loads = ImageLoader.getLoadCount();
+        int memoryHits = ImageLoader.getMemoryHitCount();
+        counters.put("imageLoads", loads);
+        counters.put("imageMemoryHits", memoryHits);
+        counters.put("imageMemoryHitRatio", loads == 0 ? 0 : Math.round(memoryHits * 1000.0 / loads) / 1000.0);
+
+        return counters;
+    }
+
+    private void show() {
+        StringBuilder sb = new StringBuilder("since start\n");
+        for (Map.Entry<String, Number> counter : counters().entrySet()) {
+            sb.append(String.format(Locale.ROOT, "  %-20s %s%n", counter.getKey(), counter.getValue()));
+        }
+        sb.append('\n');
+
+        List<NetworkMetrics.Endpoint> endpoints = metrics().getEndpoints();
+
+        if (endpoints.isEmpty()) {
+            sb.append(getString(R.string.network_metrics_empty));
+        } else {
+            appendCounts(sb, metrics().getTotals());
+            sb.append('\n');
+        }
+
+        for (NetworkMetrics.Endpoint endpoint : endpoints) {
+            appendCounts(sb, endpoint);
+
+            sb.append("  ms         n    p50    p90    p99    max\n");
+            append(sb, "dns", endpoint.getDns());
+            append(sb, "connect", endpoint.getConnect());
+            append(sb, "first byte", endpoint.getFirstByte());
+            append(sb, "total", endpoint.getTotal());
+            sb.append('\n');
+        }
+
+        text.setText(sb);
+    }
+
+    private static void appendCounts(StringBuilder sb, NetworkMetrics.Endpoint endpoint) {
+        sb.append(endpoint.getName()).append('\n');
+        sb.append(String.format(Locale.ROOT, "  %d requests, %d B sent, %d B received%n",
+                endpoint.getRequests(), endpoint.getRequestBytes(), endpoint.getResponseBytes()));
+        sb.append(String.format(Locale.ROOT, "  cache %d hit, %d revalidated, %d miss%n",
+                endpoint.getCacheHits(), endpoint.getConditionalHits(), endpoint.getCacheMisses()));
+
+        for (Map.Entry<String, Long> error : endpoint.getErrors().entrySet()) {
+            sb.append(String.format(Locale.ROOT, "  error %s x%d%n", error.getKey(), error.getValue()));
+        }
+    }
+
+    private static void append(StringBuilder sb, String name, LatencyHistogram histogram) {
+        if (histogram.getCount() == 0) {
+            return;
+        }
+
+        sb.append(String.format(Locale.ROOT, "  %-10s %3d %6.1f %6.1f %6.1f %6.1f%n", name,
+                histogram.getCount(),
+                histogram.getMicrosAtPercentile(50) / 1000.0,
+                histogram.getMicrosAtPercentile(90) / 1000.0,
+                histogram.getMicrosAtPercentile(99) / 1000.0,
+                histogram.getMaxMicros() / 1000.0));
+    }
+
+    private void save() {
+        File dir = getExternalFilesDir(null);
+        if (dir == null) {
+            dir = getFilesDir();
+        }
+
+        File file = new File(dir, JSON_FILE);
+
+        try {
+            Writer writer = new OutputStreamWriter(new FileOutputStream(file), "UTF-8");
+            try {
+                writer.write(metrics().toJson(counters()));
+            } finally {
+                writer.close();
+            }
+
+            Toast.makeText(this, getString(R.string.network_metrics_saved, file.getPath()),
+                    Toast.LENGTH_LONG).show();
+        } catch (IOException e) {
+            Log.e(TAG_METRICS, "Could not write " + file, e);
+            Toast.makeText(this, R.string.network_metrics_save_failed, Toast.LENGTH_SHORT).show();
+        }
+    }
+}
@@ -0,0 +1,33 @@
+package net.hungryboys.letsyeat;
+
+import android.app.Application;
+import android.content.ComponentCallbacks2;
+
+import net.hungryboys.letsyeat.api.APICaller;
+import net.hungryboys.letsyeat.api.ImageLoader;
+import net.hungryboys.letsyeat.data.CatalogSyncWorker;
+import net.hungryboys.letsyeat.data.RecipeRepository;
+
+/**
+ * Application entry point, owns process-wide singletons that should outlive single activities.
+ */
+public class LetsYeatApplication extends Application {
+
+    @Override
+    public void onCreate() {
+        super.onCreate();
+        APICaller.init(this);
+        RecipeRepository.init(this);
+        ImageLoader.init(this);
+        CatalogSyncWorker.schedule(this);
+    }
+
+    @Override
+    public void onTrimMemory(int level) {
+        super.onTrimMemory(level);
+
+        if (level >= ComponentCallbacks2.TRIM_MEMORY_BACKGROUND) {
+            APICaller.getInstance().trimMemory();
+        }
+    }
+}
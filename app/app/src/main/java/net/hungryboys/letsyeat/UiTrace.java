@@ -0,0 +1,68 @@
+package net.hungryboys.letsyeat;
+
+import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
+
+/**
+ * Marks main-thread hot paths (view holder creation and binding, LiveData dispatch) so that debug
+ * builds can attribute slow frames and allocations to them. Nothing is installed in release
+ * builds, where a section costs one volatile read.
+ * <p>
+ * Sections nest and must be closed on the thread that opened them:
+ * <pre>
+ * UiTrace.begin(UiTrace.BIND_RECIPE_CARD);
+ * try {
+ *     ...
+ * } finally {
+ *     UiTrace.end();
+ * }
+ * </pre>
+ */
+public final class UiTrace {
+
+    public static final String CREATE_RECIPE_CARD = "RecipeCardAdapter.onCreateViewHolder";
+    public static final String BIND_RECIPE_CARD = "RecipeCardAdapter.onBindViewHolder";
+    public static final String CREATE_RECIPE_ROW = "RecipeDetailAdapter.onCreateViewHolder";
+    public static final String BIND_RECIPE_ROW = "RecipeDetailAdapter.onBindViewHolder";
+    public static final String CHANGE_RECIPE_ROWS = "RecipeDetailAdapter.showRecipe";
+    public static final String DISPATCH_RECIPE = "LiveData RecipeViewModel.recipe";
+    public static final String DISPATCH_RECIPES = "LiveData BrowseViewModel.recipes";
+    public static final String DISPATCH_SEARCH_RESULTS = "LiveData BrowseViewModel.searchResults";
+
+    /**
+     * Receives the sections, on whatever thread they are opened
+     */
+    public interface Tracer {
+        void begin(@NonNull String section);
+
+        void end();
+    }
+
+    private static volatile Tracer tracer;
+
+    private UiTrace() {}
+
+    /**
+     * @param installed replaces the current tracer, null to stop tracing
+     */
+    public static void install(@Nullable Tracer installed) {
+        tracer = installed;
+    }
+
+    /**
+     * @param section a constant, sections are told apart by name
+     */
+    public static void begin(@NonNull String section) {
+        Tracer current = tracer;
+        if (current != null) {
+            current.begin(section);
+        }
+    }
+
+    public static void end() {
+        Tracer current = tracer;
+        if (current != null) {
+            current.end();
+        }
+    }
+}
@@ -1,37 +1,163 @@
 package net.hungryboys.letsyeat.api;
 
+import android.content.Context;
+
 import com.google.gson.Gson;
 import com.google.gson.GsonBuilder;
 
+import net.hungryboys.letsyeat.BuildConfig;
+import net.hungryboys.letsyeat.GeneratedTypeAdapterFactory;
+
+import java.io.File;
 import java.util.concurrent.TimeUnit;
 
+import okhttp3.Cache;
+import okhttp3.Dns;
 import okhttp3.OkHttpClient;
 import okhttp3.logging.HttpLoggingInterceptor;
 import retrofit2.Retrofit;
 import retrofit2.converter.gson.GsonConverterFactory;
 
+/**
+ * Process-wide API client. The OkHttp client (connection pool, dispatcher), Gson instance and
+ * Retrofit proxy are built once and shared by every caller. Responses are kept in a bounded
+ * on-disk cache, see {@link CachePolicy} for per-endpoint behaviour.
+ */
 public class APICaller {
 
-    private static final String BASE_URL = "http://23.96.30.147:3001/";
+    private static final String BASE_URL = BuildConfig.API_BASE_URL;
+    private static final String CACHE_DIR = "http";
+    private static final long CACHE_SIZE = 10 * 1024 * 1024;
+
+    private static volatile APICaller instance;
+    private static File cacheDir;
+
+    private final OkHttpClient client;
+    private final APICalls apiCalls;
+    private final ConnectionReuseInterceptor connectionReuse;
+    private final SingleFlightInterceptor singleFlight;
+    private final NetworkMetrics networkMetrics;
 
-    public static APICalls getApiCall(){
-        HttpLoggingInterceptor logging = new HttpLoggingInterceptor();
-        logging.setLevel(HttpLoggingInterceptor.Level.BODY);
-        OkHttpClient.Builder httpClient = new OkHttpClient.Builder();
-        httpClient.addInterceptor(logging)
-                .readTimeout(40, TimeUnit.SECONDS); // Long timeout for facial verification
+    // private constructor : singleton access
+    private APICaller() {
+        connectionReuse = new ConnectionReuseInterceptor();
+        singleFlight = new SingleFlightInterceptor();
+        networkMetrics = new NetworkMetrics();
+        MetricsInterceptor metering = new MetricsInterceptor(networkMetrics);
+
+        Cache cache = cacheDir == null ? null : new Cache(new File(cacheDir, CACHE_DIR), CACHE_SIZE);
+
+        OkHttpClient.Builder builder = new OkHttpClient.Builder()
+                .cache(cache)
+                .dns(metering.dns(Dns.SYSTEM))
+                .socketFactory(metering.socketFactory())
+                // First, so that calls collapsed into another one are measured too
+                .addInterceptor(metering)
+                .addInterceptor(singleFlight)
+                .addInterceptor(CachePolicy.REQUEST);
+
+        if (BuildConfig.DEBUG) {
+            HttpLoggingInterceptor logging = new HttpLoggingInterceptor();
+            // BODY would buffer whole responses before they reach the streaming parser
+            logging.setLevel(HttpLoggingInterceptor.Level.HEADERS);
+            builder.addInterceptor(logging);
+        }
+
+        client = builder
+                .addNetworkInterceptor(CachePolicy.RESPONSE)
+                .addNetworkInterceptor(connectionReuse)
+                .addNetworkInterceptor(metering.network())
+                .readTimeout(40, TimeUnit.SECONDS) // Long timeout for facial verification
+                .build();
 
         Gson gson = new GsonBuilder()
                 .setDateFormat("yyyy-MM-dd'T'HH:mm:ss")
+                .registerTypeAdapterFactory(new GeneratedTypeAdapterFactory())
                 .create();
 
         Retrofit retrofit = new Retrofit.Builder()
                 .baseUrl(BASE_URL)
+                .addConverterFactory(new RecipeBinaryConverterFactory())
                 .addConverterFactory(GsonConverterFactory.create(gson))
-                .client(httpClient.build())
+                .client(client)
                 .build();
 
-        return retrofit.create(APICalls.class);
+        apiCalls = retrofit.create(APICalls.class);
+    }
+
+    /**
+     * Must be called before the first request for the response cache to be enabled.
+     */
+    public static void init(Context context) {
+        cacheDir = context.getApplicationContext().getCacheDir();
+        warmUp();
     }
 
+    public static APICaller getInstance() {
+        if (instance == null) {
+            synchronized (APICaller.class) {
+                if (instance == null) {
+                    instance = new APICaller();
+                }
+            }
+        }
+
+        return instance;
+    }
+
+    public static APICalls getApiCall() {
+        return getInstance().apiCalls;
+    }
+
+    /**
+     * @return the shared client, other clients should reuse its connection pool and dispatcher.
+     * Deriving them with newBuilder() would also inherit the API interceptors and metering.
+     */
+    OkHttpClient getClient() {
+        return client;
+    }
+
+    /**
+     * Builds the shared client off the main thread so the first request doesn't pay for it.
+     */
+    public static void warmUp() {
+        new Thread(new Runnable() {
+            @Override
+            public void run() {
+                getInstance();
+            }
+        }, "APICaller-warmup").start();
+    }
+
+    /**
+     * Releases idle keep-alive connections, called when the app goes to the background.
+     */
+    public void trimMemory() {
+        client.connectionPool().evictAll();
+    }
+
+    /**
+     * @return number of requests that reused a pooled connection instead of a new TCP/TLS handshake
+     */
+    public long getHandshakesAvoided() {
+        return connectionReuse.getReusedCount();
+    }
+
+    public long getConnectionsOpened() {
+        return connectionReuse.getConnectionCount();
+    }
+
+    /**
+     * @return number of requests answered by an identical request already in flight
+     */
+    public long getCollapsedRequestCount() {
+        return singleFlight.getCollapsedCount();
+    }
+
+    /**
+     * @return per-endpoint latency, payload and cache statistics since start or the last reset
+     */
+    public NetworkMetrics getNetworkMetrics() {
+        return networkMetrics;
+    }
 }
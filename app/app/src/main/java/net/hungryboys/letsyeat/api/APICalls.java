@@ -1,7 +1,9 @@
 package net.hungryboys.letsyeat.api;
 
+import net.hungryboys.letsyeat.data.CatalogDelta;
 import net.hungryboys.letsyeat.data.Recipe;
 import net.hungryboys.letsyeat.data.RecipeID;
+import net.hungryboys.letsyeat.data.RecipePage;
 import net.hungryboys.letsyeat.data.RecipeStub;
 import net.hungryboys.letsyeat.data.RegistrationChoice;
 import net.hungryboys.letsyeat.data.User;
@@ -10,11 +12,14 @@ import net.hungryboys.letsyeat.login.LoginResult;
 import java.util.Calendar;
 import java.util.List;
 
+import okhttp3.ResponseBody;
 import retrofit2.Call;
 import retrofit2.http.GET;
+import retrofit2.http.Headers;
 import retrofit2.http.POST;
 import retrofit2.http.PUT;
 import retrofit2.http.Query;
+import retrofit2.http.Streaming;
 
 
 public interface APICalls {
@@ -22,21 +27,69 @@ public interface APICalls {
     /* Recipe API Calls */
 
     @GET("/recipe/id")
+    @Headers(CachePolicy.LONG_LIVED)
     Call<Recipe> getRecipe(@Query("id") RecipeID id);
 
+    /**
+     * Multi-get, the recipes found are returned in the requested order
+     */
+    @GET("/recipe/ids")
+    @Headers(RecipeBinaryFormat.ACCEPT_HEADER)
+    Call<List<Recipe>> getRecipes(@Query("id") List<RecipeID> ids);
+
     @GET("/recipe/suggest")
+    @Headers(CachePolicy.NEVER)
     Call<RecipeID> getRecipeSuggestion(@Query("email") String email);
 
     @GET("/recipe/list")
+    @Headers(RecipeBinaryFormat.ACCEPT_HEADER)
     Call<List<RecipeStub>> getRecipeList(@Query("email") String email,
                                          @Query("max") int max);
 
     @GET("/recipe/list")
+    @Headers(RecipeBinaryFormat.ACCEPT_HEADER)
     Call<List<RecipeStub>> getRecipeList(@Query("email") String email,
                                          @Query("max") int max,
                                          @Query("search") String search,
                                          @Query("tags") List<String> tags);
 
+    /**
+     * Paged recipe list, pass a null cursor for the first page and
+     * {@link RecipePage#getNextCursor()} for the following ones.
+     */
+    @GET("/recipe/list")
+    @Headers(RecipeBinaryFormat.ACCEPT_HEADER)
+    Call<RecipePage> getRecipeList(@Query("email") String email,
+                                   @Query("cursor") String cursor,
+                                   @Query("limit") int pageSize);
+
+    @GET("/recipe/list")
+    @Headers(RecipeBinaryFormat.ACCEPT_HEADER)
+    Call<RecipePage> getRecipeList(@Query("email") String email,
+                                   @Query("cursor") String cursor,
+                                   @Query("limit") int pageSize,
+                                   @Query("search") String search,
+                                   @Query("tags") List<String> tags);
+
+    /**
+     * Same as {@link #getRecipeList(String, String, int)} but the body is left unread, to be
+     * parsed incrementally with {@link RecipeStubStreamParser}, or {@link RecipeBinaryFormat} if the
+     * server answered in that format
+     */
+    @Streaming
+    @GET("/recipe/list")
+    @Headers(RecipeBinaryFormat.ACCEPT_HEADER)
+    Call<ResponseBody> streamRecipeList(@Query("email") String email,
+                                        @Query("cursor") String cursor,
+                                        @Query("limit") int pageSize);
+
+    /**
+     * Catalog changes since token, see {@link CatalogDelta}. Pass a null token for a full sync.
+     */
+    @GET("/recipe/sync")
+    @Headers(CachePolicy.NEVER)
+    Call<CatalogDelta> syncCatalog(@Query("token") String token, @Query("limit") int limit);
+
 
     /* Notification / Firebase API Calls */
 
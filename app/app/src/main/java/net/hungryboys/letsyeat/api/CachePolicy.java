@@ -0,0 +1,86 @@
+package net.hungryboys.letsyeat.api;
+
+import java.io.IOException;
+import java.util.concurrent.TimeUnit;
+
+import okhttp3.CacheControl;
+import okhttp3.Interceptor;
+import okhttp3.Request;
+import okhttp3.Response;
+
+/**
+ * Per-endpoint HTTP cache policies. An endpoint in {@link APICalls} opts in with
+ * {@code @Headers(CachePolicy.LONG_LIVED)} or opts out with {@code @Headers(CachePolicy.NEVER)}.
+ * Endpoints without the header follow whatever the server sends.
+ */
+final class CachePolicy {
+
+    static final String HEADER = "X-Cache-Policy";
+    static final String LONG_LIVED = HEADER + ": long-lived";
+    static final String NEVER = HEADER + ": never";
+
+    private static final String LONG_LIVED_VALUE = "long-lived";
+    private static final String NEVER_VALUE = "never";
+
+    /** Recipes don't change once parsed, revalidate with ETag once a week */
+    static final int LONG_LIVED_MAX_AGE_DAYS = 7;
+
+    private static final CacheControl NO_CACHE = new CacheControl.Builder()
+            .noCache()
+            .noStore()
+            .build();
+
+    private CachePolicy() {}
+
+    /**
+     * Application interceptor: bypasses the cache entirely for {@link #NEVER} endpoints.
+     */
+    static final Interceptor REQUEST = new Interceptor() {
+        @Override
+        public Response intercept(Chain chain) throws IOException {
+            Request request = chain.request();
+
+            if (NEVER_VALUE.equals(request.header(HEADER))) {
+                request = request.newBuilder()
+                        .removeHeader(HEADER)
+                        .cacheControl(NO_CACHE)
+                        .build();
+            }
+
+            return chain.proceed(request);
+        }
+    };
+
+    /**
+     * Network interceptor: strips the policy header before it hits the wire and makes
+     * {@link #LONG_LIVED} responses cacheable when the server doesn't say otherwise.
+     * Stored ETags are then sent back as If-None-Match by the OkHttp cache once stale.
+     */
+    static final Interceptor RESPONSE = new Interceptor() {
+        @Override
+        public Response intercept(Chain chain) throws IOException {
+            Request request = chain.request();
+            String policy = request.header(HEADER);
+
+            if (policy == null) {
+                return chain.proceed(request);
+            }
+
+            Response response = chain.proceed(request.newBuilder().removeHeader(HEADER).build());
+
+            if (LONG_LIVED_VALUE.equals(policy) && response.isSuccessful()
+                    && response.header("Cache-Control") == null) {
+                CacheControl cacheControl = new CacheControl.Builder()
+                        .maxAge(LONG_LIVED_MAX_AGE_DAYS, TimeUnit.DAYS)
+                        .build();
+
+                response = response.newBuilder()
+                        .removeHeader("Pragma")
+                        .header("Cache-Control", cacheControl.toString())
+                        .build();
+            }
+
+            return response;
+        }
+    };
+}
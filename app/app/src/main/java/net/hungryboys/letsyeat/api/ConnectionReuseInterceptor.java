@@ -0,0 +1,47 @@
+package net.hungryboys.letsyeat.api;
+
+import java.io.IOException;
+import java.util.Collections;
+import java.util.Set;
+import java.util.WeakHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+import okhttp3.Connection;
+import okhttp3.Interceptor;
+import okhttp3.Response;
+
+/**
+ * Network interceptor counting how many requests went over an already established connection,
+ * i.e. how many TCP/TLS handshakes the shared connection pool saved.
+ */
+class ConnectionReuseInterceptor implements Interceptor {
+
+    private final Set<Connection> seen =
+            Collections.synchronizedSet(Collections.newSetFromMap(new WeakHashMap<Connection, Boolean>()));
+
+    private final AtomicLong connections = new AtomicLong();
+    private final AtomicLong reused = new AtomicLong();
+
+    @Override
+    public Response intercept(Chain chain) throws IOException {
+        Connection connection = chain.connection();
+
+        if (connection != null) {
+            if (seen.add(connection)) {
+                connections.incrementAndGet();
+            } else {
+                reused.incrementAndGet();
+            }
+        }
+
+        return chain.proceed(chain.request());
+    }
+
+    long getConnectionCount() {
+        return connections.get();
+    }
+
+    long getReusedCount() {
+        return reused.get();
+    }
+}
@@ -0,0 +1,231 @@
+package net.hungryboys.letsyeat.api;
+
+import android.app.ActivityManager;
+import android.content.Context;
+import android.graphics.Bitmap;
+import android.widget.ImageView;
+
+import androidx.annotation.DrawableRes;
+import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
+import androidx.core.app.ActivityManagerCompat;
+
+import com.squareup.picasso.Callback;
+import com.squareup.picasso.Downloader;
+import com.squareup.picasso.LruCache;
+import com.squareup.picasso.OkHttp3Downloader;
+import com.squareup.picasso.Picasso;
+
+import java.io.File;
+import java.io.IOException;
+
+import okhttp3.Cache;
+import okhttp3.OkHttpClient;
+import okhttp3.Request;
+import okhttp3.Response;
+
+/**
+ * Recipe picture loading. Pictures are decoded to the size of their target view, kept in a memory
+ * cache sized from the app's heap and in a disk cache, and fetched through the same connection
+ * pool as {@link APICaller}.
+ */
+public class ImageLoader {
+
+    private static final String CACHE_DIR = "images";
+    private static final long DISK_CACHE_SIZE = 50 * 1024 * 1024;
+
+    // Share of the app's heap given to decoded bitmaps
+    private static final int HEAP_FRACTION = 7;
+    private static final int HEAP_FRACTION_LOW_RAM = 10;
+
+    // Main thread only, updated by Slot.load()
+    private static int loadCount;
+    private static int memoryHitCount;
+
+    private ImageLoader() {}
+
+    /**
+     * Installs the shared Picasso instance, must be called once before the first load.
+     */
+    public static void init(Context context) {
+        Context appContext = context.getApplicationContext();
+        ActivityManager am = (ActivityManager) appContext.getSystemService(Context.ACTIVITY_SERVICE);
+
+        boolean lowRam = ActivityManagerCompat.isLowRamDevice(am);
+        int heapBytes = am.getMemoryClass() * 1024 * 1024;
+        int cacheBytes = heapBytes / (lowRam ? HEAP_FRACTION_LOW_RAM : HEAP_FRACTION);
+
+        Picasso picasso = new Picasso.Builder(appContext)
+                .downloader(new LazyDownloader(new File(appContext.getCacheDir(), CACHE_DIR)))
+                .memoryCache(new LruCache(cacheBytes))
+                // Half the memory per pixel, pictures are photos without transparency
+                .defaultBitmapConfig(lowRam ? Bitmap.Config.RGB_565 : Bitmap.Config.ARGB_8888)
+                .build();
+
+        Picasso.setSingletonInstance(picasso);
+    }
+
+    /**
+     * Loads pictures into one view, again and again for a ViewHolder. Each picture is decoded to
+     * the view's size and center cropped, and any previous request for the view is cancelled.
+     * A slot is its own Picasso callback, so the only allocations of a load are Picasso's request
+     * for it, and there is none when the view already shows the picture.
+     */
+    public static class Slot implements Callback {
+        private final ImageView target;
+        @DrawableRes
+        private final int placeholder;
+
+        // Picture shown or loading, null when the view shows neither
+        private String url;
+        private boolean done;
+        // Picasso calls back synchronously from into() when the bitmap is already in memory
+        private boolean inLoad;
+
+        public Slot(@NonNull ImageView target, @DrawableRes int placeholder) {
+            this.target = target;
+            this.placeholder = placeholder;
+        }
+
+        /**
+         * Shows the picture at url, the placeholder while it loads or if there is none.
+         * Main thread only.
+         */
+        public void load(@Nullable String url) {
+            if (url == null || url.isEmpty()) {
+                Picasso.get().cancelRequest(target);
+                this.url = null;
+                target.setImageResource(placeholder);
+                return;
+            }
+
+            if (url.equals(this.url)) {
+                return;
+            }
+
+            this.url = url;
+            done = false;
+            inLoad = true;
+            loadCount++;
+
+            Picasso.get()
+                    .load(url)
+                    .placeholder(placeholder)
+                    .error(placeholder)
+                    .fit()
+                    .centerCrop()
+                    .into(target, this);
+
+            inLoad = false;
+        }
+
+        /**
+         * Cancels the pending load if any, e.g. when the ViewHolder is recycled. A picture
+         * already shown is kept and not loaded again for the same url.
+         */
+        public void cancel() {
+            Picasso.get().cancelRequest(target);
+
+            if (!done) {
+                url = null;
+            }
+        }
+
+        @Override
+        public void onSuccess() {
+            done = true;
+
+            if (inLoad) {
+                memoryHitCount++;
+            }
+        }
+
+        @Override
+        public void onError(Exception e) {
+            // Error drawable already shown
+            done = true;
+        }
+    }
+
+    /**
+     * Warms the caches with the picture at url at low priority, decoded to the given size so that
+     * a later {@link Slot#load} into a view of that size is a memory hit.
+     *
+     * @param tag used to cancel the prefetch with {@link #cancelPrefetch}
+     */
+    public static void prefetch(@Nullable String url, int width, int height, @NonNull Object tag) {
+        if (url == null || url.isEmpty() || width <= 0 || height <= 0) {
+            return;
+        }
+
+        Picasso.get()
+                .load(url)
+                .resize(width, height)
+                .centerCrop()
+                .priority(Picasso.Priority.LOW)
+                .tag(tag)
+                .fetch();
+    }
+
+    public static void cancelPrefetch(@NonNull Object tag) {
+        Picasso.get().cancelTag(tag);
+    }
+
+    /**
+     * @return number of pictures loaded into a view
+     */
+    public static int getLoadCount() {
+        return loadCount;
+    }
+
+    /**
+     * @return number of pictures that were already decoded in memory when loaded into a view
+     */
+    public static int getMemoryHitCount() {
+        return memoryHitCount;
+    }
+
+    /**
+     * Builds the OkHttp downloader on first use, on a Picasso worker thread, so that app start
+     * doesn't wait for the API client.
+     */
+    private static class LazyDownloader implements Downloader {
+        private final File cacheDir;
+        private OkHttp3Downloader delegate;
+
+        LazyDownloader(File cacheDir) {
+            this.cacheDir = cacheDir;
+        }
+
+        private synchronized OkHttp3Downloader delegate() {
+            if (delegate == null) {
+                OkHttpClient api = APICaller.getInstance().getClient();
+
+                // Only the connections and threads are shared: none of the API interceptors,
+                // metering DNS or sockets apply to image data
+                OkHttpClient client = new OkHttpClient.Builder()
+                        .connectionPool(api.connectionPool())
+                        .dispatcher(api.dispatcher())
+                        .cache(new Cache(cacheDir, DISK_CACHE_SIZE))
+                        .build();
+
+                delegate = new OkHttp3Downloader(client);
+            }
+
+            return delegate;
+        }
+
+        @NonNull
+        @Override
+        public Response load(@NonNull Request request) throws IOException {
+            return delegate().load(request);
+        }
+
+        @Override
+        public synchronized void shutdown() {
+            if (delegate != null) {
+                delegate.shutdown();
+            }
+        }
+    }
+}
@@ -0,0 +1,106 @@
+package net.hungryboys.letsyeat.api;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Latency histogram laid out like HdrHistogram: buckets double in width and each is split into
+ * 32 linear sub-buckets, so every value is kept within 1/32 (3%) of itself in a fixed 2.8 KB,
+ * however many samples are recorded. Values are in microseconds, capped at {@link #MAX_MICROS}.
+ */
+public final class LatencyHistogram {
+
+    private static final int SUB_BUCKET_BITS = 6;
+    private static final int SUB_BUCKETS = 1 << SUB_BUCKET_BITS;
+    private static final int HALF = SUB_BUCKETS / 2;
+
+    static final long MAX_MICROS = TimeUnit.SECONDS.toMicros(60);
+    private static final int SIZE = index(MAX_MICROS) + 1;
+
+    // Allocated on the first sample, most endpoints never open a connection themselves
+    private int[] counts;
+    private long count;
+    private long sum;
+    private long max;
+
+    LatencyHistogram() {
+    }
+
+    private LatencyHistogram(LatencyHistogram other) {
+        counts = other.counts == null ? null : other.counts.clone();
+        count = other.count;
+        sum = other.sum;
+        max = other.max;
+    }
+
+    synchronized void record(long micros) {
+        long value = Math.max(0, micros);
+
+        if (counts == null) {
+            counts = new int[SIZE];
+        }
+
+        counts[index(Math.min(value, MAX_MICROS))]++;
+        count++;
+        sum += value;
+        max = Math.max(max, value);
+    }
+
+    synchronized LatencyHistogram copy() {
+        return new LatencyHistogram(this);
+    }
+
+    public synchronized long getCount() {
+        return count;
+    }
+
+    public synchronized long getMeanMicros() {
+        return count == 0 ? 0 : sum / count;
+    }
+
+    public synchronized long getMaxMicros() {
+        return max;
+    }
+
+    /**
+     * @param percentile 0 to 100
+     * @return the highest value within 3% of the sample at percentile, 0 if there is none
+     */
+    public synchronized long getMicrosAtPercentile(double percentile) {
+        if (count == 0) {
+            return 0;
+        }
+
+        long rank = Math.max(1, (long) Math.ceil(percentile / 100 * count));
+        long seen = 0;
+
+        for (int i = 0; i < counts.length; i++) {
+            seen += counts[i];
+
+            if (seen >= rank) {
+                return Math.min(highestEquivalent(i), max);
+            }
+        }
+
+        return max;
+    }
+
+    static int index(long value) {
+        if (value < SUB_BUCKETS) {
+            return (int) value;
+        }
+
+        // Keeps the top SUB_BUCKET_BITS - 1 bits below the highest one
+        int shift = 63 - Long.numberOfLeadingZeros(value) - (SUB_BUCKET_BITS - 1);
+        return SUB_BUCKETS + (shift - 1) * HALF + (int) (value >>> shift) - HALF;
+    }
+
+    static long highestEquivalent(int index) {
+        if (index < SUB_BUCKETS) {
+            return index;
+        }
+
+        int shift = (index - SUB_BUCKETS) / HALF + 1;
+        long subBucket = (index - SUB_BUCKETS) % HALF + HALF;
+        return ((subBucket + 1) << shift) - 1;
+    }
+}
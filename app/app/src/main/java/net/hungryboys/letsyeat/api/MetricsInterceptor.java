@@ -0,0 +1,278 @@
+package net.hungryboys.letsyeat.api;
+
+import java.io.IOException;
+import java.net.InetAddress;
+import java.net.Socket;
+import java.net.SocketAddress;
+import java.net.UnknownHostException;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import javax.net.SocketFactory;
+
+import okhttp3.Dns;
+import okhttp3.Interceptor;
+import okhttp3.MediaType;
+import okhttp3.Request;
+import okhttp3.RequestBody;
+import okhttp3.Response;
+import okhttp3.ResponseBody;
+import okio.Buffer;
+import okio.BufferedSource;
+import okio.ForwardingSource;
+import okio.Okio;
+import okio.Source;
+
+/**
+ * Application interceptor feeding {@link NetworkMetrics}. OkHttp runs a call's DNS lookup, connect
+ * and network interceptors on the thread that runs its application interceptors, so the phases
+ * are timed by the {@link #dns}, {@link #socketFactory} and {@link #network} hooks into a
+ * thread-local for the call in progress. A call ends when its response body is read or closed.
+ */
+class MetricsInterceptor implements Interceptor {
+
+    private final NetworkMetrics metrics;
+    private final ThreadLocal<Timings> current = new ThreadLocal<>();
+
+    private static class Timings {
+        final String endpoint;
+        final long start = System.nanoTime();
+        long dnsMicros = -1;
+        long connectMicros = -1;
+        long firstByteMicros = -1;
+
+        Timings(String endpoint) {
+            this.endpoint = endpoint;
+        }
+    }
+
+    MetricsInterceptor(NetworkMetrics metrics) {
+        this.metrics = metrics;
+    }
+
+    @Override
+    public Response intercept(Chain chain) throws IOException {
+        Request request = chain.request();
+        Timings timings = new Timings(request.method() + " " + request.url().encodedPath());
+        long requestBytes = contentLength(request.body());
+        Response response;
+
+        current.set(timings);
+        try {
+            response = chain.proceed(request);
+        } catch (IOException e) {
+            record(timings, requestBytes, 0, null, e.getClass().getSimpleName());
+            throw e;
+        } finally {
+            current.remove();
+        }
+
+        NetworkMetrics.CacheUse cache;
+        if (response.networkResponse() == null) {
+            cache = response.cacheResponse() == null ? null : NetworkMetrics.CacheUse.HIT;
+        } else {
+            cache = response.cacheResponse() == null
+                    ? NetworkMetrics.CacheUse.MISS : NetworkMetrics.CacheUse.CONDITIONAL;
+        }
+
+        String error = response.code() >= 400 ? "HTTP " + response.code() / 100 + "xx" : null;
+        ResponseBody body = response.body();
+
+        if (body == null) {
+            record(timings, requestBytes, 0, cache, error);
+            return response;
+        }
+
+        return response.newBuilder()
+                .body(new MeteredBody(body, timings, requestBytes, cache, error))
+                .build();
+    }
+
+    private void record(Timings timings, long requestBytes, long responseBytes,
+                        NetworkMetrics.CacheUse cache, String error) {
+        metrics.record(timings.endpoint, timings.dnsMicros, timings.connectMicros,
+                timings.firstByteMicros, micros(timings.start), requestBytes, responseBytes,
+                cache, error);
+    }
+
+    /**
+     * @return a network interceptor timing the first byte of each call, add it last
+     */
+    Interceptor network() {
+        return new Interceptor() {
+            @Override
+            public Response intercept(Chain chain) throws IOException {
+                long start = System.nanoTime();
+                Response response = chain.proceed(chain.request());
+                Timings timings = current.get();
+
+                // Nothing to attribute it to outside a call started by intercept()
+                if (timings != null) {
+                    timings.firstByteMicros = micros(start);
+                }
+
+                return response;
+            }
+        };
+    }
+
+    Dns dns(final Dns delegate) {
+        return new Dns() {
+            @Override
+            public List<InetAddress> lookup(String hostname) throws UnknownHostException {
+                long start = System.nanoTime();
+
+                try {
+                    return delegate.lookup(hostname);
+                } finally {
+                    Timings timings = current.get();
+                    if (timings != null) {
+                        timings.dnsMicros = Math.max(0, timings.dnsMicros) + micros(start);
+                    }
+                }
+            }
+        };
+    }
+
+    /**
+     * @return sockets timing their connect, OkHttp only uses the unconnected createSocket()
+     */
+    SocketFactory socketFactory() {
+        final SocketFactory delegate = SocketFactory.getDefault();
+
+        return new SocketFactory() {
+            @Override
+            public Socket createSocket() {
+                return new Socket() {
+                    @Override
+                    public void connect(SocketAddress endpoint, int timeout) throws IOException {
+                        long start = System.nanoTime();
+
+                        try {
+                            super.connect(endpoint, timeout);
+                        } finally {
+                            Timings timings = current.get();
+                            if (timings != null) {
+                                // Every route tried counts, a failed address costs as much
+                                timings.connectMicros = Math.max(0, timings.connectMicros) + micros(start);
+                            }
+                        }
+                    }
+                };
+            }
+
+            @Override
+            public Socket createSocket(String host, int port) throws IOException {
+                return delegate.createSocket(host, port);
+            }
+
+            @Override
+            public Socket createSocket(String host, int port, InetAddress localHost, int localPort)
+                    throws IOException {
+                return delegate.createSocket(host, port, localHost, localPort);
+            }
+
+            @Override
+            public Socket createSocket(InetAddress host, int port) throws IOException {
+                return delegate.createSocket(host, port);
+            }
+
+            @Override
+            public Socket createSocket(InetAddress address, int port, InetAddress localAddress,
+                                       int localPort) throws IOException {
+                return delegate.createSocket(address, port, localAddress, localPort);
+            }
+        };
+    }
+
+    private static long contentLength(RequestBody body) {
+        if (body == null) {
+            return 0;
+        }
+
+        try {
+            return Math.max(0, body.contentLength());
+        } catch (IOException e) {
+            return 0;
+        }
+    }
+
+    private static long micros(long startNanos) {
+        return TimeUnit.NANOSECONDS.toMicros(System.nanoTime() - startNanos);
+    }
+
+    /**
+     * Counts the bytes the app reads and records the call once they are exhausted or closed.
+     */
+    private class MeteredBody extends ResponseBody {
+        private final ResponseBody delegate;
+        private final BufferedSource source;
+
+        private final Timings timings;
+        private final long requestBytes;
+        private final NetworkMetrics.CacheUse cache;
+        private final String error;
+
+        private long read;
+        private boolean recorded;
+
+        MeteredBody(ResponseBody delegate, Timings timings, long requestBytes,
+                    NetworkMetrics.CacheUse cache, String error) {
+            this.delegate = delegate;
+            this.timings = timings;
+            this.requestBytes = requestBytes;
+            this.cache = cache;
+            this.error = error;
+
+            source = Okio.buffer(new ForwardingSource(delegate.source()) {
+                @Override
+                public long read(Buffer sink, long byteCount) throws IOException {
+                    long count;
+
+                    try {
+                        count = super.read(sink, byteCount);
+                    } catch (IOException e) {
+                        finish(e.getClass().getSimpleName());
+                        throw e;
+                    }
+
+                    if (count == -1) {
+                        finish(MeteredBody.this.error);
+                    } else {
+                        read += count;
+                    }
+
+                    return count;
+                }
+
+                @Override
+                public void close() throws IOException {
+                    finish(MeteredBody.this.error);
+                    super.close();
+                }
+            });
+        }
+
+        private synchronized void finish(String error) {
+            if (!recorded) {
+                recorded = true;
+                record(timings, requestBytes, read, cache, error);
+            }
+        }
+
+        @Override
+        public MediaType contentType() {
+            return delegate.contentType();
+        }
+
+        @Override
+        public long contentLength() {
+            return delegate.contentLength();
+        }
+
+        @Override
+        public BufferedSource source() {
+            return source;
+        }
+    }
+}
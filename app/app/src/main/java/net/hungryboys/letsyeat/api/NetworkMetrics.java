@@ -0,0 +1,314 @@
+package net.hungryboys.letsyeat.api;
+
+import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
+
+import com.google.gson.stream.JsonWriter;
+
+import java.io.IOException;
+import java.io.StringWriter;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * Per-endpoint network statistics of the API client, recorded by {@link MetricsInterceptor}:
+ * latency histograms for DNS, connect, time to first byte and total, payload bytes, cache use and
+ * errors. Endpoints are named by method and path, e.g. "GET /recipe/list", and their counts are
+ * also summed in {@link #getTotals()}.
+ */
+public final class NetworkMetrics {
+
+    private static final double[] PERCENTILES = {50, 90, 99};
+    private static final String TOTALS = "all endpoints";
+
+    public static final class Endpoint {
+        private final String name;
+        private long requests;
+        private long cacheHits;
+        private long conditionalHits;
+        private long cacheMisses;
+        private long requestBytes;
+        private long responseBytes;
+        // Exception simple name or "HTTP 4xx" / "HTTP 5xx" to count
+        private final Map<String, Long> errors;
+
+        private final LatencyHistogram dns;
+        private final LatencyHistogram connect;
+        private final LatencyHistogram firstByte;
+        private final LatencyHistogram total;
+
+        Endpoint(String name) {
+            this.name = name;
+            errors = new TreeMap<>();
+            dns = new LatencyHistogram();
+            connect = new LatencyHistogram();
+            firstByte = new LatencyHistogram();
+            total = new LatencyHistogram();
+        }
+
+        private Endpoint(Endpoint other) {
+            name = other.name;
+            requests = other.requests;
+            cacheHits = other.cacheHits;
+            conditionalHits = other.conditionalHits;
+            cacheMisses = other.cacheMisses;
+            requestBytes = other.requestBytes;
+            responseBytes = other.responseBytes;
+            errors = new TreeMap<>(other.errors);
+            dns = other.dns.copy();
+            connect = other.connect.copy();
+            firstByte = other.firstByte.copy();
+            total = other.total.copy();
+        }
+
+        public String getName() {
+            return name;
+        }
+
+        public long getRequests() {
+            return requests;
+        }
+
+        /**
+         * @return responses served from the cache without asking the server
+         */
+        public long getCacheHits() {
+            return cacheHits;
+        }
+
+        /**
+         * @return cached responses the server confirmed were still valid (304)
+         */
+        public long getConditionalHits() {
+            return conditionalHits;
+        }
+
+        public long getCacheMisses() {
+            return cacheMisses;
+        }
+
+        public long getRequestBytes() {
+            return requestBytes;
+        }
+
+        /**
+         * @return response body bytes read by the app, after decompression
+         */
+        public long getResponseBytes() {
+            return responseBytes;
+        }
+
+        public Map<String, Long> getErrors() {
+            return Collections.unmodifiableMap(errors);
+        }
+
+        /**
+         * @return DNS lookups made for this endpoint's calls, none when a pooled connection was used
+         */
+        public LatencyHistogram getDns() {
+            return dns;
+        }
+
+        /**
+         * @return TCP connects made for this endpoint's calls, none when a pooled connection was used
+         */
+        public LatencyHistogram getConnect() {
+            return connect;
+        }
+
+        /**
+         * @return from sending the request to reading the response headers
+         */
+        public LatencyHistogram getFirstByte() {
+            return firstByte;
+        }
+
+        /**
+         * @return from the start of the call until its body was read, cache hits included
+         */
+        public LatencyHistogram getTotal() {
+            return total;
+        }
+    }
+
+    enum CacheUse {
+        HIT, CONDITIONAL, MISS
+    }
+
+    private final Map<String, Endpoint> endpoints = new TreeMap<>();
+
+    NetworkMetrics() {
+    }
+
+    /**
+     * @param dnsMicros -1 if no lookup was made, same for connectMicros and firstByteMicros
+     * @param error null if the call succeeded
+     */
+    synchronized void record(@NonNull String endpoint, long dnsMicros, long connectMicros,
+                             long firstByteMicros, long totalMicros, long requestBytes,
+                             long responseBytes, @Nullable CacheUse cache, @Nullable String error) {
+        Endpoint stats = endpoints.get(endpoint);
+
+        if (stats == null) {
+            stats = new Endpoint(endpoint);
+            endpoints.put(endpoint, stats);
+        }
+
+        stats.requests++;
+        stats.requestBytes += requestBytes;
+        stats.responseBytes += responseBytes;
+
+        if (cache == CacheUse.HIT) {
+            stats.cacheHits++;
+        } else if (cache == CacheUse.CONDITIONAL) {
+            stats.conditionalHits++;
+        } else if (cache == CacheUse.MISS) {
+            stats.cacheMisses++;
+        }
+
+        if (error != null) {
+            Long count = stats.errors.get(error);
+            stats.errors.put(error, count == null ? 1 : count + 1);
+        }
+
+        if (dnsMicros >= 0) {
+            stats.dns.record(dnsMicros);
+        }
+        if (connectMicros >= 0) {
+            stats.connect.record(connectMicros);
+        }
+        if (firstByteMicros >= 0) {
+            stats.firstByte.record(firstByteMicros);
+        }
+        if (totalMicros >= 0) {
+            stats.total.record(totalMicros);
+        }
+    }
+
+    /**
+     * @return a copy of every endpoint's statistics, by name
+     */
+    @NonNull
+    public synchronized List<Endpoint> getEndpoints() {
+        List<Endpoint> copies = new ArrayList<>(endpoints.size());
+
+        for (Endpoint endpoint : endpoints.values()) {
+            copies.add(new Endpoint(endpoint));
+        }
+
+        return copies;
+    }
+
+    /**
+     * @return requests, payload bytes, cache use and errors summed over every endpoint, without
+     * latencies
+     */
+    @NonNull
+    public synchronized Endpoint getTotals() {
+        Endpoint totals = new Endpoint(TOTALS);
+
+        for (Endpoint endpoint : endpoints.values()) {
+            totals.requests += endpoint.requests;
+            totals.cacheHits += endpoint.cacheHits;
+            totals.conditionalHits += endpoint.conditionalHits;
+            totals.cacheMisses += endpoint.cacheMisses;
+            totals.requestBytes += endpoint.requestBytes;
+            totals.responseBytes += endpoint.responseBytes;
+
+            for (Map.Entry<String, Long> error : endpoint.errors.entrySet()) {
+                Long count = totals.errors.get(error.getKey());
+                totals.errors.put(error.getKey(), count == null ? error.getValue() : count + error.getValue());
+            }
+        }
+
+        return totals;
+    }
+
+    public synchronized void reset() {
+        endpoints.clear();
+    }
+
+    /**
+     * @param counters client-wide counters kept elsewhere, written first by name
+     * @return the counters and every endpoint's statistics as JSON, latencies as count, mean, p50,
+     * p90, p99 and max in microseconds
+     */
+    @NonNull
+    public String toJson(@NonNull Map<String, ? extends Number> counters) {
+        StringWriter json = new StringWriter();
+        JsonWriter writer = new JsonWriter(json);
+        writer.setIndent("  ");
+
+        try {
+            writer.beginObject();
+
+            writer.name("counters").beginObject();
+            for (Map.Entry<String, ? extends Number> counter : counters.entrySet()) {
+                writer.name(counter.getKey()).value(counter.getValue());
+            }
+            writer.endObject();
+
+            writer.name("totals").beginObject();
+            writeCounts(writer, getTotals());
+            writer.endObject();
+
+            writer.name("endpoints").beginArray();
+
+            for (Endpoint endpoint : getEndpoints()) {
+                writer.beginObject().name("endpoint").value(endpoint.name);
+                writeCounts(writer, endpoint);
+
+                writer.name("latencyMicros").beginObject();
+                write(writer, "dns", endpoint.dns);
+                write(writer, "connect", endpoint.connect);
+                write(writer, "firstByte", endpoint.firstByte);
+                write(writer, "total", endpoint.total);
+                writer.endObject();
+
+                writer.endObject();
+            }
+
+            writer.endArray().endObject();
+            writer.close();
+        } catch (IOException e) {
+            // A StringWriter doesn't throw
+            throw new AssertionError(e);
+        }
+
+        return json.toString();
+    }
+
+    private static void writeCounts(JsonWriter writer, Endpoint endpoint) throws IOException {
+        writer.name("requests").value(endpoint.requests)
+                .name("requestBytes").value(endpoint.requestBytes)
+                .name("responseBytes").value(endpoint.responseBytes);
+
+        writer.name("cache").beginObject()
+                .name("hit").value(endpoint.cacheHits)
+                .name("conditional").value(endpoint.conditionalHits)
+                .name("miss").value(endpoint.cacheMisses)
+                .endObject();
+
+        writer.name("errors").beginObject();
+        for (Map.Entry<String, Long> error : endpoint.errors.entrySet()) {
+            writer.name(error.getKey()).value(error.getValue());
+        }
+        writer.endObject();
+    }
+
+    private static void write(JsonWriter writer, String name, LatencyHistogram histogram)
+            throws IOException {
+        writer.name(name).beginObject()
+                .name("count").value(histogram.getCount())
+                .name("mean").value(histogram.getMeanMicros());
+
+        for (double percentile : PERCENTILES) {
+            writer.name("p" + (int) percentile).value(histogram.getMicrosAtPercentile(percentile));
+        }
+
+        writer.name("max").value(histogram.getMaxMicros()).endObject();
+    }
+}
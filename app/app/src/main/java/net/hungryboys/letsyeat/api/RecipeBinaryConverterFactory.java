@@ -0,0 +1,88 @@
+package net.hungryboys.letsyeat.api;
+
+import net.hungryboys.letsyeat.data.Recipe;
+import net.hungryboys.letsyeat.data.RecipePage;
+import net.hungryboys.letsyeat.data.RecipeStub;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.lang.annotation.Annotation;
+import java.lang.reflect.ParameterizedType;
+import java.lang.reflect.Type;
+import java.util.List;
+
+import okhttp3.ResponseBody;
+import retrofit2.Converter;
+import retrofit2.Retrofit;
+
+/**
+ * Decodes recipe list responses sent as {@link RecipeBinaryFormat}. Responses in any other
+ * content type are handed to the next converter (Gson), so endpoints only use the binary format
+ * when they ask for it with {@link RecipeBinaryFormat#ACCEPT_HEADER} and the server supports it.
+ */
+class RecipeBinaryConverterFactory extends Converter.Factory {
+
+    private static final int KIND_NONE = 0;
+
+    @Override
+    public Converter<ResponseBody, ?> responseBodyConverter(Type type, Annotation[] annotations,
+                                                            Retrofit retrofit) {
+        int kind = kindOf(type);
+
+        if (kind == KIND_NONE) {
+            return null;
+        }
+
+        Converter<ResponseBody, ?> fallback = retrofit.nextResponseBodyConverter(this, type, annotations);
+        return new BinaryConverter(kind, fallback);
+    }
+
+    private static int kindOf(Type type) {
+        if (type == RecipePage.class) {
+            return RecipeBinaryFormat.KIND_STUB_PAGE;
+        }
+
+        if (type instanceof ParameterizedType && ((ParameterizedType) type).getRawType() == List.class) {
+            Type element = ((ParameterizedType) type).getActualTypeArguments()[0];
+
+            if (element == RecipeStub.class) {
+                return RecipeBinaryFormat.KIND_STUB_LIST;
+            } else if (element == Recipe.class) {
+                return RecipeBinaryFormat.KIND_RECIPE_LIST;
+            }
+        }
+
+        return KIND_NONE;
+    }
+
+    private static class BinaryConverter implements Converter<ResponseBody, Object> {
+        private final int kind;
+        private final Converter<ResponseBody, ?> fallback;
+
+        BinaryConverter(int kind, Converter<ResponseBody, ?> fallback) {
+            this.kind = kind;
+            this.fallback = fallback;
+        }
+
+        @Override
+        public Object convert(ResponseBody body) throws IOException {
+            if (!RecipeBinaryFormat.isBinary(body.contentType())) {
+                return fallback.convert(body);
+            }
+
+            InputStream in = body.byteStream();
+            try {
+                switch (kind) {
+                    case RecipeBinaryFormat.KIND_STUB_PAGE:
+                        return RecipeBinaryFormat.decodeStubPage(in, null);
+                    case RecipeBinaryFormat.KIND_RECIPE_LIST:
+                        return RecipeBinaryFormat.decodeRecipes(in);
+                    default:
+                        return RecipeBinaryFormat.decodeStubs(in);
+                }
+            } finally {
+                body.close();
+            }
+        }
+    }
+}
@@ -0,0 +1,372 @@
+package net.hungryboys.letsyeat.api;
+
+import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
+
+import net.hungryboys.letsyeat.data.Ingredient;
+import net.hungryboys.letsyeat.data.Recipe;
+import net.hungryboys.letsyeat.data.RecipeID;
+import net.hungryboys.letsyeat.data.RecipePage;
+import net.hungryboys.letsyeat.data.RecipeStub;
+import net.hungryboys.letsyeat.data.TagSet;
+
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.charset.Charset;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import okhttp3.MediaType;
+
+/**
+ * Compact binary encoding of recipe lists, an opt-in alternative to JSON negotiated with the
+ * Accept header (see {@link #ACCEPT_HEADER}). Mirrored by server/recipeBinary.js.
+ * <pre>
+ * payload    := 'Y' 'R' version:u8 kind:u8 dictionary [nextCursor:string] count:varint item*
+ * dictionary := count:varint string*          (tags, referenced by index)
+ * string     := varint(byteLength + 1) utf8   (0 encodes null)
+ * stub       := id:string name:string pictureUrl:string time:zigzag difficulty:zigzag
+ * recipe     := stub ingredients:(count ingredient*) tags:(count index*) instructions:(count string*)
+ * ingredient := name:string quantity:string unit:string
+ * </pre>
+ * Difficulties are sent in hundredths.
+ */
+public final class RecipeBinaryFormat {
+
+    public static final String MEDIA_TYPE = "application/x-yeat-recipes";
+
+    /**
+     * Header for endpoints that accept the binary format, JSON stays the fallback
+     */
+    public static final String ACCEPT_HEADER = "Accept: " + MEDIA_TYPE + ", application/json;q=0.5";
+
+    static final int KIND_STUB_LIST = 1;
+    static final int KIND_RECIPE_LIST = 2;
+    static final int KIND_STUB_PAGE = 3;
+
+    private static final int VERSION = 1;
+    private static final Charset UTF_8 = Charset.forName("UTF-8");
+
+    public interface StubListener {
+        void onStub(@NonNull RecipeStub stub);
+    }
+
+    private RecipeBinaryFormat() {}
+
+    /**
+     * @return true if a response with this content type should be decoded with this class
+     */
+    public static boolean isBinary(@Nullable MediaType contentType) {
+        return contentType != null
+                && MEDIA_TYPE.equalsIgnoreCase(contentType.type() + "/" + contentType.subtype());
+    }
+
+    /* Decoding */
+
+    public static List<RecipeStub> decodeStubs(@NonNull InputStream in) throws IOException {
+        Reader reader = new Reader(in);
+        reader.header(KIND_STUB_LIST);
+        return reader.stubs(null);
+    }
+
+    public static List<Recipe> decodeRecipes(@NonNull InputStream in) throws IOException {
+        Reader reader = new Reader(in);
+        String[] dictionary = reader.header(KIND_RECIPE_LIST);
+
+        int count = reader.count();
+        List<Recipe> recipes = new ArrayList<>(count);
+
+        for (int i = 0; i < count; i++) {
+            recipes.add(reader.recipe(dictionary));
+        }
+
+        return recipes;
+    }
+
+    /**
+     * @param listener if not null, called with every stub as soon as it is decoded
+     */
+    public static RecipePage decodeStubPage(@NonNull InputStream in, @Nullable StubListener listener)
+            throws IOException {
+        Reader reader = new Reader(in);
+        reader.header(KIND_STUB_PAGE);
+        String nextCursor = reader.string();
+
+        return new RecipePage(reader.stubs(listener), nextCursor);
+    }
+
+    /* Encoding, used by tests and benchmarks, the server has its own encoder */
+
+    public static void encodeStubs(@NonNull List<RecipeStub> stubs, @NonNull OutputStream out) throws IOException {
+        Writer writer = new Writer(out);
+        writer.header(KIND_STUB_LIST, new String[0]);
+        writer.stubs(stubs);
+    }
+
+    public static void encodeStubPage(@NonNull RecipePage page, @NonNull OutputStream out) throws IOException {
+        Writer writer = new Writer(out);
+        writer.header(KIND_STUB_PAGE, new String[0]);
+        writer.string(page.getNextCursor());
+        writer.stubs(page.getRecipes());
+    }
+
+    public static void encodeRecipes(@NonNull List<Recipe> recipes, @NonNull OutputStream out) throws IOException {
+        Map<String, Integer> dictionary = new LinkedHashMap<>();
+
+        for (Recipe recipe : recipes) {
+            for (int i = 0; i < recipe.getTagCount(); i++) {
+                String tag = recipe.getTag(i);
+
+                if (!dictionary.containsKey(tag)) {
+                    dictionary.put(tag, dictionary.size());
+                }
+            }
+        }
+
+        Writer writer = new Writer(out);
+        writer.header(KIND_RECIPE_LIST, dictionary.keySet().toArray(new String[0]));
+        writer.varint(recipes.size());
+
+        for (Recipe recipe : recipes) {
+            writer.recipe(recipe, dictionary);
+        }
+    }
+
+    private static class Reader {
+        private final InputStream in;
+        private byte[] buffer = new byte[64];
+
+        Reader(InputStream in) {
+            this.in = in;
+        }
+
+        String[] header(int expectedKind) throws IOException {
+            if (u8() != 'Y' || u8() != 'R') {
+                throw new IOException("Not a recipe binary payload");
+            }
+
+            int version = u8();
+            if (version != VERSION) {
+                throw new IOException("Unsupported recipe binary version " + version);
+            }
+
+            int kind = u8();
+            if (kind != expectedKind) {
+                throw new IOException("Expected payload kind " + expectedKind + " but got " + kind);
+            }
+
+            String[] dictionary = new String[count()];
+            for (int i = 0; i < dictionary.length; i++) {
+                dictionary[i] = string();
+            }
+
+            return dictionary;
+        }
+
+        List<RecipeStub> stubs(StubListener listener) throws IOException {
+            int count = count();
+            List<RecipeStub> stubs = new ArrayList<>(count);
+
+            for (int i = 0; i < count; i++) {
+                RecipeStub stub = new RecipeStub(new RecipeID(string()), string(), string(),
+                        zigzag(), zigzag() / 100.0);
+                stubs.add(stub);
+
+                if (listener != null) {
+                    listener.onStub(stub);
+                }
+            }
+
+            return stubs;
+        }
+
+        Recipe recipe(String[] dictionary) throws IOException {
+            RecipeID id = new RecipeID(string());
+            String name = string();
+            String pictureUrl = string();
+            int time = zigzag();
+            double difficulty = zigzag() / 100.0;
+
+            Ingredient[] ingredients = new Ingredient[count()];
+            for (int i = 0; i < ingredients.length; i++) {
+                ingredients[i] = new Ingredient(string(), string(), string());
+            }
+
+            String[] tags = new String[count()];
+            for (int i = 0; i < tags.length; i++) {
+                int index = count();
+
+                if (index >= dictionary.length) {
+                    throw new IOException("Tag index out of dictionary: " + index);
+                }
+
+                tags[i] = dictionary[index];
+            }
+
+            String[] instructions = new String[count()];
+            for (int i = 0; i < instructions.length; i++) {
+                instructions[i] = string();
+            }
+
+            return new Recipe(id, name, pictureUrl, time, difficulty, ingredients, instructions,
+                    TagSet.of(tags));
+        }
+
+        String string() throws IOException {
+            int length = count();
+
+            if (length == 0) {
+                return null;
+            }
+
+            length--;
+            if (buffer.length < length) {
+                buffer = new byte[Math.max(length, buffer.length * 2)];
+            }
+
+            int read = 0;
+            while (read < length) {
+                int n = in.read(buffer, read, length - read);
+
+                if (n < 0) {
+                    throw new EOFException();
+                }
+
+                read += n;
+            }
+
+            return new String(buffer, 0, length, UTF_8);
+        }
+
+        /**
+         * Non negative varint used for counts and lengths, bounded to guard against bad input
+         */
+        int count() throws IOException {
+            long value = varint();
+
+            if (value > Integer.MAX_VALUE / 2) {
+                throw new IOException("Count too large: " + value);
+            }
+
+            return (int) value;
+        }
+
+        int zigzag() throws IOException {
+            long value = varint();
+            return (int) ((value >>> 1) ^ -(value & 1));
+        }
+
+        long varint() throws IOException {
+            long value = 0;
+
+            for (int shift = 0; shift < 64; shift += 7) {
+                int b = u8();
+                value |= (long) (b & 0x7f) << shift;
+
+                if ((b & 0x80) == 0) {
+                    return value;
+                }
+            }
+
+            throw new IOException("Malformed varint");
+        }
+
+        int u8() throws IOException {
+            int b = in.read();
+
+            if (b < 0) {
+                throw new EOFException();
+            }
+
+            return b;
+        }
+    }
+
+    private static class Writer {
+        private final OutputStream out;
+
+        Writer(OutputStream out) {
+            this.out = out;
+        }
+
+        void header(int kind, String[] dictionary) throws IOException {
+            out.write('Y');
+            out.write('R');
+            out.write(VERSION);
+            out.write(kind);
+
+            varint(dictionary.length);
+            for (String entry : dictionary) {
+                string(entry);
+            }
+        }
+
+        void stubs(List<RecipeStub> stubs) throws IOException {
+            varint(stubs.size());
+
+            for (RecipeStub stub : stubs) {
+                string(stub.getId().getId());
+                string(stub.getName());
+                string(stub.getPictureUrl());
+                zigzag(stub.getTime());
+                zigzag((int) Math.round(stub.getDifficulty() * 100));
+            }
+        }
+
+        void recipe(Recipe recipe, Map<String, Integer> dictionary) throws IOException {
+            string(recipe.getId().getId());
+            string(recipe.getName());
+            string(recipe.getPictureUrl());
+            zigzag(recipe.getTime());
+            zigzag((int) Math.round(recipe.getDifficulty() * 100));
+
+            varint(recipe.getIngredientCount());
+            for (int i = 0; i < recipe.getIngredientCount(); i++) {
+                Ingredient ingredient = recipe.getIngredient(i);
+                string(ingredient.getName());
+                string(ingredient.getQuantity());
+                string(ingredient.getUnit());
+            }
+
+            varint(recipe.getTagCount());
+            for (int i = 0; i < recipe.getTagCount(); i++) {
+                varint(dictionary.get(recipe.getTag(i)));
+            }
+
+            varint(recipe.getInstructionCount());
+            for (int i = 0; i < recipe.getInstructionCount(); i++) {
+                string(recipe.getInstruction(i));
+            }
+        }
+
+        void string(String value) throws IOException {
+            if (value == null) {
+                varint(0);
+                return;
+            }
+
+            byte[] bytes = value.getBytes(UTF_8);
+            varint(bytes.length + 1);
+            out.write(bytes);
+        }
+
+        void zigzag(int value) throws IOException {
+            varint((value << 1) ^ (value >> 31));
+        }
+
+        void varint(long value) throws IOException {
+            value &= 0xffffffffL;
+
+            while ((value & ~0x7fL) != 0) {
+                out.write((int) ((value & 0x7f) | 0x80));
+                value >>>= 7;
+            }
+
+            out.write((int) value);
+        }
+    }
+}
@@ -0,0 +1,97 @@
+package net.hungryboys.letsyeat.api;
+
+import androidx.annotation.NonNull;
+
+import com.google.gson.Gson;
+import com.google.gson.stream.JsonReader;
+import com.google.gson.stream.JsonToken;
+
+import net.hungryboys.letsyeat.data.RecipePage;
+import net.hungryboys.letsyeat.data.RecipeStub;
+
+import java.io.IOException;
+import java.io.Reader;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Incremental parser for /recipe/list responses, either a plain array of stubs or a
+ * {@link RecipePage} object. Stubs are read one at a time from the stream and handed out in small
+ * chunks, so the first cards can be shown before the whole body arrived.
+ */
+public class RecipeStubStreamParser {
+
+    public interface Listener {
+        /**
+         * Called on the parsing thread for every chunk of stubs read
+         */
+        void onStubs(@NonNull List<RecipeStub> stubs);
+    }
+
+    private final Gson gson;
+    private final int chunkSize;
+
+    public RecipeStubStreamParser(@NonNull Gson gson, int chunkSize) {
+        this.gson = gson;
+        this.chunkSize = chunkSize;
+    }
+
+    /**
+     * Reads the whole response, closes reader when done.
+     *
+     * @return the complete page, with a null cursor for plain arrays
+     */
+    public RecipePage parse(@NonNull Reader reader, @NonNull Listener listener) throws IOException {
+        JsonReader json = new JsonReader(reader);
+        List<RecipeStub> all = new ArrayList<>();
+        String nextCursor = null;
+
+        try {
+            if (json.peek() == JsonToken.BEGIN_ARRAY) {
+                readStubs(json, all, listener);
+            } else {
+                json.beginObject();
+
+                while (json.hasNext()) {
+                    String name = json.nextName();
+
+                    if ("recipes".equals(name) && json.peek() == JsonToken.BEGIN_ARRAY) {
+                        readStubs(json, all, listener);
+                    } else if ("nextCursor".equals(name) && json.peek() == JsonToken.STRING) {
+                        nextCursor = json.nextString();
+                    } else {
+                        json.skipValue();
+                    }
+                }
+
+                json.endObject();
+            }
+        } finally {
+            json.close();
+        }
+
+        return new RecipePage(all, nextCursor);
+    }
+
+    private void readStubs(JsonReader json, List<RecipeStub> all, Listener listener) throws IOException {
+        List<RecipeStub> chunk = new ArrayList<>(chunkSize);
+        json.beginArray();
+
+        while (json.hasNext()) {
+            RecipeStub stub = gson.fromJson(json, RecipeStub.class);
+            all.add(stub);
+            chunk.add(stub);
+
+            if (chunk.size() == chunkSize) {
+                listener.onStubs(chunk);
+                chunk = new ArrayList<>(chunkSize);
+            }
+        }
+
+        json.endArray();
+
+        if (!chunk.isEmpty()) {
+            listener.onStubs(chunk);
+        }
+    }
+}
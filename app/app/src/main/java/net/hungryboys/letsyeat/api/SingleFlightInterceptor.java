@@ -0,0 +1,172 @@
+package net.hungryboys.letsyeat.api;
+
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import okhttp3.Interceptor;
+import okhttp3.MediaType;
+import okhttp3.Request;
+import okhttp3.Response;
+import okhttp3.ResponseBody;
+
+/**
+ * Application interceptor collapsing concurrent identical GET requests (same URL, so same
+ * endpoint and parameters) into a single network call. The first caller performs the request,
+ * callers arriving while it is in flight wait for it and each receive a copy of its response.
+ * <p>
+ * A waiting caller whose own call is cancelled gives up at once. If the caller performing the
+ * request is cancelled instead, the waiting callers start over, one of them making the request.
+ */
+class SingleFlightInterceptor implements Interceptor {
+
+    // How often a waiting caller checks whether its call was cancelled
+    private static final long CANCEL_CHECK_MS = 50;
+
+    private final Map<String, Flight> inFlight = new HashMap<>();
+    private final AtomicLong collapsed = new AtomicLong();
+
+    private static class Flight {
+        final CountDownLatch done = new CountDownLatch(1);
+        int followers;
+
+        Response response;
+        MediaType contentType;
+        byte[] body;
+        IOException error;
+        // The error is the leader's own cancellation, not a failure of the request
+        boolean leaderCanceled;
+    }
+
+    @Override
+    public Response intercept(Chain chain) throws IOException {
+        Request request = chain.request();
+
+        if (!"GET".equals(request.method())) {
+            return chain.proceed(request);
+        }
+
+        String key = request.url().toString();
+        Flight flight;
+        boolean leader;
+
+        synchronized (inFlight) {
+            flight = inFlight.get(key);
+            leader = flight == null;
+
+            if (leader) {
+                flight = new Flight();
+                inFlight.put(key, flight);
+            } else {
+                flight.followers++;
+            }
+        }
+
+        if (leader) {
+            return lead(chain, key, flight);
+        } else {
+            return follow(chain, key, flight);
+        }
+    }
+
+    long getCollapsedCount() {
+        return collapsed.get();
+    }
+
+    private Response lead(Chain chain, String key, Flight flight) throws IOException {
+        Response response;
+
+        try {
+            response = chain.proceed(chain.request());
+        } catch (IOException e) {
+            finish(key, flight, e, chain.call().isCanceled());
+            throw e;
+        } catch (RuntimeException e) {
+            finish(key, flight, new IOException(e), false);
+            throw e;
+        }
+
+        boolean shared;
+        synchronized (inFlight) {
+            inFlight.remove(key);
+            shared = flight.followers > 0;
+        }
+
+        if (!shared) {
+            return response;
+        }
+
+        // Someone is waiting, buffer the body so it can be read once per caller
+        ResponseBody body = response.body();
+        try {
+            flight.contentType = body == null ? null : body.contentType();
+            flight.body = body == null ? new byte[0] : body.bytes();
+            flight.response = response;
+        } catch (IOException e) {
+            flight.error = e;
+            throw e;
+        } finally {
+            flight.done.countDown();
+        }
+
+        return copy(flight, chain.request());
+    }
+
+    private void finish(String key, Flight flight, IOException error, boolean canceled) {
+        synchronized (inFlight) {
+            inFlight.remove(key);
+        }
+
+        flight.error = error;
+        flight.leaderCanceled = canceled;
+        flight.done.countDown();
+    }
+
+    private Response follow(Chain chain, String key, Flight flight) throws IOException {
+        try {
+            while (!flight.done.await(CANCEL_CHECK_MS, TimeUnit.MILLISECONDS)) {
+                if (chain.call().isCanceled()) {
+                    leave(key, flight);
+                    throw new IOException("Canceled");
+                }
+            }
+        } catch (InterruptedException e) {
+            leave(key, flight);
+            throw new InterruptedIOException("Interrupted while waiting for identical request");
+        }
+
+        if (flight.error != null) {
+            if (flight.leaderCanceled && !chain.call().isCanceled()) {
+                // Nothing wrong with the request, make it again or wait for whoever does
+                return intercept(chain);
+            }
+
+            throw new IOException("Identical request failed", flight.error);
+        }
+
+        collapsed.incrementAndGet();
+        return copy(flight, chain.request());
+    }
+
+    /**
+     * A follower stopped waiting, the leader needn't buffer the response for it
+     */
+    private void leave(String key, Flight flight) {
+        synchronized (inFlight) {
+            if (inFlight.get(key) == flight) {
+                flight.followers--;
+            }
+        }
+    }
+
+    private static Response copy(Flight flight, Request request) {
+        return flight.response.newBuilder()
+                .request(request)
+                .body(ResponseBody.create(flight.contentType, flight.body))
+                .build();
+    }
+}
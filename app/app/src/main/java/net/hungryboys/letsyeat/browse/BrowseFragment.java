@@ -1,18 +1,22 @@
 package net.hungryboys.letsyeat.browse;
 
+import androidx.annotation.NonNull;
+import androidx.appcompat.widget.SearchView;
 import androidx.fragment.app.Fragment;
 import androidx.lifecycle.Observer;
 import androidx.lifecycle.ViewModelProviders;
 import androidx.recyclerview.widget.LinearLayoutManager;
 import androidx.recyclerview.widget.RecyclerView;
 
+import android.content.Intent;
+import android.os.Build;
 import android.os.Bundle;
 import android.view.LayoutInflater;
 import android.view.View;
 import android.view.ViewGroup;
 
 import net.hungryboys.letsyeat.R;
-import net.hungryboys.letsyeat.data.RecipeID;
+import net.hungryboys.letsyeat.UiTrace;
 import net.hungryboys.letsyeat.data.RecipeStub;
 import net.hungryboys.letsyeat.recipe.RecipeActivity;
 
@@ -20,10 +24,16 @@ import java.util.List;
 
 public class BrowseFragment extends Fragment {
 
+    // Start loading the next page when the last visible card is this close to the end
+    private static final int PREFETCH_DISTANCE = 5;
+
     private RecyclerView recyclerView;
     private RecipeCardAdapter mAdapter;
-    private RecyclerView.LayoutManager layoutManager;
+    private LinearLayoutManager layoutManager;
+    private ImagePrefetcher imagePrefetcher;
+    private BrowseViewModel model;
     private View rootView;
+    private boolean fullyDrawnReported;
 
     public BrowseFragment(){
         // Required empty constructor
@@ -46,20 +56,113 @@ public class BrowseFragment extends Fragment {
 
         layoutManager = new LinearLayoutManager(getActivity());
         recyclerView.setLayoutManager(layoutManager);
+        recyclerView.addItemDecoration(new TopCardMarginDecoration(getResources()));
 
         mAdapter = new RecipeCardAdapter();
+        mAdapter.setOnSelectListener(new RecipeCardAdapter.RecipeOnSelectListener() {
+            @Override
+            public void onPress(RecipeStub recipe) {
+                // A touch down during a fling only stops it, don't fetch for that
+                if (recyclerView.getScrollState() == RecyclerView.SCROLL_STATE_IDLE) {
+                    model.prefetchRecipe(recipe.getId());
+                }
+            }
+
+            @Override
+            public void onSelect(RecipeStub recipe) {
+                Intent intent = new Intent(getActivity(), RecipeActivity.class);
+                intent.putExtra(RecipeActivity.EXTRA_RECIPE_ID, recipe.getId());
+                intent.putExtra(RecipeActivity.EXTRA_RECIPE_STUB, recipe);
+                startActivity(intent);
+            }
+        });
         recyclerView.setAdapter(mAdapter);
 
-        BrowseViewModel  model = ViewModelProviders.of(this).get(BrowseViewModel.class);
-        model.getRecipes().observe(this, new Observer<List<Recipe>>() {
+        model = ViewModelProviders.of(this).get(BrowseViewModel.class);
+        model.getRecipes().observe(this, new Observer<List<RecipeStub>>() {
+            @Override
+            public void onChanged(List<RecipeStub> recipes) {
+                UiTrace.begin(UiTrace.DISPATCH_RECIPES);
+                try {
+                    if (!model.isSearching()) {
+                        mAdapter.setRecipes(recipes);
+                        reportFullyDrawn(recipes);
+                    }
+                } finally {
+                    UiTrace.end();
+                }
+            }
+        });
+        model.getSearchResults().observe(this, new Observer<List<RecipeStub>>() {
             @Override
-            public void onChanged(List<Recipe> recipes) {
-                mAdapter.setRecipes(recipes);
+            public void onChanged(List<RecipeStub> results) {
+                UiTrace.begin(UiTrace.DISPATCH_SEARCH_RESULTS);
+                try {
+                    // Back to the browse list when the search is cleared
+                    mAdapter.setRecipes(results != null ? results : model.getRecipes().getValue());
+                } finally {
+                    UiTrace.end();
+                }
+            }
+        });
+
+        SearchView searchView = rootView.findViewById(R.id.browse_search);
+        searchView.setOnQueryTextListener(new SearchView.OnQueryTextListener() {
+            @Override
+            public boolean onQueryTextSubmit(String query) {
+                model.setSearchQuery(query);
+                return false;
+            }
+
+            @Override
+            public boolean onQueryTextChange(String newText) {
+                model.setSearchQuery(newText);
+                return true;
+            }
+        });
+
+        imagePrefetcher = new ImagePrefetcher(layoutManager, mAdapter);
+        recyclerView.addOnScrollListener(imagePrefetcher);
+
+        recyclerView.addOnScrollListener(new RecyclerView.OnScrollListener() {
+            @Override
+            public void onScrolled(@NonNull RecyclerView recyclerView, int dx, int dy) {
+                // Search results come in one piece
+                if (dy <= 0 || model.isSearching()) {
+                    return;
+                }
+
+                int lastVisible = layoutManager.findLastVisibleItemPosition();
+                if (lastVisible >= mAdapter.getItemCount() - PREFETCH_DISTANCE) {
+                    model.loadMore();
+                }
             }
         });
 
         return rootView;
     }
 
+    /**
+     * Marks the end of startup once the first recipes are shown, for time to full display
+     */
+    private void reportFullyDrawn(List<RecipeStub> recipes) {
+        if (fullyDrawnReported || recipes == null || recipes.isEmpty()) {
+            return;
+        }
+
+        fullyDrawnReported = true;
+        if (Build.VERSION.SDK_INT >= Build.VERSION_CODES.KITKAT && getActivity() != null) {
+            getActivity().reportFullyDrawn();
+        }
+    }
+
+    @Override
+    public void onDestroy() {
+        super.onDestroy();
+
+        if (imagePrefetcher != null) {
+            imagePrefetcher.cancel();
+        }
+    }
 
 }
@@ -1,26 +1,32 @@
 package net.hungryboys.letsyeat.browse;
 
-import android.util.Log;
-
+import androidx.annotation.NonNull;
 import androidx.lifecycle.LiveData;
 import androidx.lifecycle.MutableLiveData;
 import androidx.lifecycle.ViewModel;
 
-import net.hungryboys.letsyeat.api.APICaller;
+import net.hungryboys.letsyeat.data.RecipeID;
+import net.hungryboys.letsyeat.data.RecipeRepository;
 import net.hungryboys.letsyeat.data.RecipeStub;
+import net.hungryboys.letsyeat.data.TagSet;
 import net.hungryboys.letsyeat.login.LoginRepository;
 
-import java.util.ArrayList;
+import java.util.Collections;
 import java.util.List;
 
-import retrofit2.Call;
-import retrofit2.Callback;
-import retrofit2.Response;
-
 public class BrowseViewModel extends ViewModel {
-    private MutableLiveData<List<Recipe>> recipes;
+    private static final int PAGE_SIZE = 20;
+    private static final int SEARCH_LIMIT = 50;
+
+    private MutableLiveData<List<RecipeStub>> recipes;
+    private RecipePagingSource pagingSource;
 
-    public LiveData<List<Recipe>> getRecipes() {
+    private final MutableLiveData<List<RecipeStub>> searchResults = new MutableLiveData<>();
+    private String searchQuery = "";
+    private TagSet searchTags = TagSet.EMPTY;
+    private RecipeRepository.SearchRequest searchRequest;
+
+    public LiveData<List<RecipeStub>> getRecipes() {
         if (recipes == null) {
             recipes = new MutableLiveData<>();
             loadRecipes();
@@ -29,30 +35,90 @@ public class BrowseViewModel extends ViewModel {
         return recipes;
     }
 
-    // TODO replace hardcoded values with calls to server/recipe cache
-    private void loadRecipes() {
-        LoginRepository login = LoginRepository.getInstance();
+    /**
+     * Called when the list is scrolled close to its end
+     */
+    public void loadMore() {
+        if (pagingSource != null) {
+            pagingSource.loadNextPage();
+        }
+    }
 
-        if (login.isLoggedIn()) {
-            Call<List<RecipeStub>> call = APICaller.getApiCall().getRecipeList(
-                    login.getUserEmail(), NUM_RECIPES);
-            call.enqueue(new Callback<List<RecipeStub>>() {
-                @Override
-                public void onResponse(Call<List<RecipeStub>> call, Response<List<RecipeStub>> response) {
-                    if (response.isSuccessful()) {
-                        recipes.postValue(response.body());
-                    } else {
-                        Log.e(TAG_BROWSE_VM, "Could not get recipe stubs " + response.message());
-                    }
-                }
+    /**
+     * Starts fetching a recipe the user is likely to open, e.g. on touch down on its card
+     */
+    public void prefetchRecipe(RecipeID id) {
+        RecipeRepository.getInstance().prefetchRecipes(Collections.singletonList(id));
+    }
+
+    /**
+     * Results of the current search, null when not searching
+     */
+    public LiveData<List<RecipeStub>> getSearchResults() {
+        return searchResults;
+    }
+
+    /**
+     * @return true if a query or tags are set, the list then shows {@link #getSearchResults()}
+     */
+    public boolean isSearching() {
+        return !searchQuery.trim().isEmpty() || !searchTags.isEmpty();
+    }
+
+    /**
+     * Called on every keystroke, the previous search is cancelled
+     */
+    public void setSearchQuery(String query) {
+        if (!query.equals(searchQuery)) {
+            searchQuery = query;
+            search();
+        }
+    }
 
-                @Override
-                public void onFailure(Call<List<RecipeStub>> call, Throwable t) {
-                    Log.e(TAG_BROWSE_VM, "Could not get recipe stubs", t);
-                }
-            });
+    public void setSearchTags(TagSet tags) {
+        if (!tags.equals(searchTags)) {
+            searchTags = tags;
+            search();
         }
+    }
+
+    @Override
+    protected void onCleared() {
+        super.onCleared();
+
+        if (searchRequest != null) {
+            searchRequest.cancel();
+        }
+    }
+
+    private void search() {
+        if (searchRequest != null) {
+            searchRequest.cancel();
+            searchRequest = null;
+        }
+
+        LoginRepository login = LoginRepository.getInstance();
 
+        if (!isSearching() || !login.isLoggedIn()) {
+            searchResults.setValue(null);
+            return;
+        }
 
+        searchRequest = RecipeRepository.getInstance().searchRecipes(login.getUserEmail(),
+                searchQuery, searchTags, SEARCH_LIMIT, new RecipeRepository.SearchCallback() {
+                    @Override
+                    public void onResults(@NonNull List<RecipeStub> results, boolean complete) {
+                        searchResults.setValue(results);
+                    }
+                });
+    }
+
+    private void loadRecipes() {
+        LoginRepository login = LoginRepository.getInstance();
+
+        if (login.isLoggedIn()) {
+            pagingSource = new RecipePagingSource(login.getUserEmail(), PAGE_SIZE, recipes);
+            pagingSource.refresh();
+        }
     }
 }
@@ -0,0 +1,86 @@
+package net.hungryboys.letsyeat.browse;
+
+import androidx.annotation.NonNull;
+import androidx.recyclerview.widget.LinearLayoutManager;
+import androidx.recyclerview.widget.RecyclerView;
+
+import net.hungryboys.letsyeat.api.ImageLoader;
+
+/**
+ * Warms the image cache for the cards about to scroll into view. The number of cards prefetched
+ * grows with scroll velocity, and pending prefetches are cancelled when the direction reverses.
+ */
+class ImagePrefetcher extends RecyclerView.OnScrollListener {
+
+    private static final int MIN_LOOKAHEAD = 2;
+    private static final int MAX_LOOKAHEAD = 12;
+    // Number of scroll events worth of distance to look ahead at the current velocity
+    private static final int LOOKAHEAD_EVENTS = 8;
+
+    private final LinearLayoutManager layoutManager;
+    private final RecipeCardAdapter adapter;
+
+    private int direction;
+    // Furthest position already prefetched in the current direction
+    private int prefetchedUntil = RecyclerView.NO_POSITION;
+
+    ImagePrefetcher(@NonNull LinearLayoutManager layoutManager, @NonNull RecipeCardAdapter adapter) {
+        this.layoutManager = layoutManager;
+        this.adapter = adapter;
+    }
+
+    @Override
+    public void onScrolled(@NonNull RecyclerView recyclerView, int dx, int dy) {
+        if (dy == 0) {
+            return;
+        }
+
+        int newDirection = dy > 0 ? 1 : -1;
+        if (newDirection != direction) {
+            cancel();
+            direction = newDirection;
+        }
+
+        int first = layoutManager.findFirstVisibleItemPosition();
+        int last = layoutManager.findLastVisibleItemPosition();
+        if (first == RecyclerView.NO_POSITION) {
+            return;
+        }
+
+        RecyclerView.ViewHolder holder = recyclerView.findViewHolderForAdapterPosition(first);
+        if (!(holder instanceof RecipeCardAdapter.RecipeListItemViewHolder)) {
+            return;
+        }
+
+        RecipeCardAdapter.RecipeListItemViewHolder card = (RecipeCardAdapter.RecipeListItemViewHolder) holder;
+        int cardHeight = Math.max(1, card.itemView.getHeight());
+        int lookahead = Math.abs(dy) * LOOKAHEAD_EVENTS / cardHeight;
+        lookahead = Math.max(MIN_LOOKAHEAD, Math.min(MAX_LOOKAHEAD, lookahead));
+
+        int from = direction > 0 ? last + 1 : first - 1;
+        int to = direction > 0
+                ? Math.min(adapter.getItemCount() - 1, last + lookahead)
+                : Math.max(0, first - lookahead);
+
+        // Skip what was prefetched on previous events
+        if (prefetchedUntil != RecyclerView.NO_POSITION) {
+            from = direction > 0 ? Math.max(from, prefetchedUntil + 1) : Math.min(from, prefetchedUntil - 1);
+        }
+
+        int width = card.image.getWidth();
+        int height = card.image.getHeight();
+
+        for (int position = from; direction > 0 ? position <= to : position >= to; position += direction) {
+            ImageLoader.prefetch(adapter.getRecipe(position).getPictureUrl(), width, height, this);
+            prefetchedUntil = position;
+        }
+    }
+
+    /**
+     * Cancels pending prefetches, also to be called when the list goes away
+     */
+    void cancel() {
+        ImageLoader.cancelPrefetch(this);
+        prefetchedUntil = RecyclerView.NO_POSITION;
+    }
+}
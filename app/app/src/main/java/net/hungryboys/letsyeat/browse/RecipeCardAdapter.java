@@ -1,6 +1,7 @@
 package net.hungryboys.letsyeat.browse;
 
 import android.view.LayoutInflater;
+import android.view.MotionEvent;
 import android.view.View;
 import android.view.ViewGroup;
 import android.widget.ImageView;
@@ -8,27 +9,42 @@ import android.widget.TextView;
 
 import androidx.annotation.NonNull;
 import androidx.cardview.widget.CardView;
+import androidx.recyclerview.widget.DiffUtil;
+import androidx.recyclerview.widget.ListAdapter;
 import androidx.recyclerview.widget.RecyclerView;
 
 import net.hungryboys.letsyeat.R;
+import net.hungryboys.letsyeat.UiTrace;
+import net.hungryboys.letsyeat.api.ImageLoader;
 import net.hungryboys.letsyeat.data.RecipeID;
 import net.hungryboys.letsyeat.data.RecipeStub;
 
-import java.lang.reflect.Array;
-import java.util.ArrayList;
 import java.util.List;
-import java.util.Locale;
 
-public class RecipeCardAdapter extends RecyclerView.Adapter<RecipeCardAdapter.RecipeListItemViewHolder> {
-    private List<Recipe> recipes;
+/**
+ * Browse list adapter. List updates are diffed on a background thread by {@link ListAdapter},
+ * items are identified by {@link RecipeID} so only cards whose stub changed get rebound.
+ * Binding allocates nothing but the picture request of a card showing a new picture: listeners
+ * and the picture's {@link ImageLoader.Slot} are created with the view holder, display strings
+ * are cached on the stubs and the top card's margin comes from {@link TopCardMarginDecoration}.
+ */
+public class RecipeCardAdapter extends ListAdapter<RecipeStub, RecipeCardAdapter.RecipeListItemViewHolder> {
+
+    private static final long FNV_OFFSET_BASIS = 0xcbf29ce484222325L;
+    private static final long FNV_PRIME = 0x100000001b3L;
+
+    private RecipeOnSelectListener listener;
 
     // Provide a reference to the views for each data item
     public static class RecipeListItemViewHolder extends RecyclerView.ViewHolder {
+        public CardView card;
         public ImageView image;
         public TextView name;
         public TextView time;
         public TextView difficulty;
 
+        final ImageLoader.Slot picture;
+
         public RecipeListItemViewHolder(CardView v) {
             super(v);
             card = v;
@@ -36,21 +52,34 @@ public class RecipeCardAdapter extends RecyclerView.Adapter<RecipeCardAdapter.Re
             name = v.findViewById(R.id.recipe_card_name);
             time = v.findViewById(R.id.recipe_card_time);
             difficulty = v.findViewById(R.id.recipe_card_difficulty);
+            picture = new ImageLoader.Slot(image, R.drawable.placeholder_recipe_photo);
         }
     }
 
     public interface RecipeOnSelectListener {
-        void onSelect(RecipeID recipeID);
+        /**
+         * A finger went down on the card, it may be selected next
+         */
+        void onPress(RecipeStub recipe);
+
+        void onSelect(RecipeStub recipe);
     }
 
     public RecipeCardAdapter() {
-        recipes = new ArrayList<>();
+        super(CALLBACK);
+        setHasStableIds(true);
     }
 
+    /**
+     * Replaces the displayed recipes, recipeList must be a new list instance for every update.
+     * Appended pages result in inserts only, cards already shown are not rebound.
+     */
     public void setRecipes(List<RecipeStub> recipeList) {
-        recipes.clear();
-        recipes.addAll(recipeList);
-        notifyDataSetChanged();
+        submitList(recipeList);
+    }
+
+    public RecipeStub getRecipe(int position) {
+        return getItem(position);
     }
 
     public void setOnSelectListener(RecipeOnSelectListener listener) {
@@ -58,59 +87,104 @@ public class RecipeCardAdapter extends RecyclerView.Adapter<RecipeCardAdapter.Re
     }
 
     // Create new views (invoked by the layout manager)
+    @NonNull
     @Override
     public RecipeCardAdapter.RecipeListItemViewHolder onCreateViewHolder(@NonNull ViewGroup parent,
                                                                          int viewType) {
-        // create a new view
-        CardView v = (CardView) LayoutInflater.from(parent.getContext())
-                .inflate(R.layout.elem_recipe_card, parent, false);
+        UiTrace.begin(UiTrace.CREATE_RECIPE_CARD);
+        try {
+            // create a new view
+            CardView v = (CardView) LayoutInflater.from(parent.getContext())
+                    .inflate(R.layout.elem_recipe_card, parent, false);
+
+            final RecipeListItemViewHolder vh = new RecipeListItemViewHolder(v);
+
+            // One listener per holder for every recipe it will show, not one per bind
+            v.setOnClickListener(new View.OnClickListener() {
+                @Override
+                public void onClick(View view) {
+                    int position = vh.getAdapterPosition();
+
+                    if (listener != null && position != RecyclerView.NO_POSITION) {
+                        listener.onSelect(getItem(position));
+                    }
+                }
+            });
+            v.setOnTouchListener(new View.OnTouchListener() {
+                @Override
+                public boolean onTouch(View view, MotionEvent event) {
+                    int position = vh.getAdapterPosition();
+
+                    if (event.getActionMasked() == MotionEvent.ACTION_DOWN && listener != null
+                            && position != RecyclerView.NO_POSITION) {
+                        listener.onPress(getItem(position));
+                    }
+
+                    // Not consumed, the click is still handled by the card
+                    return false;
+                }
+            });
 
-        RecipeListItemViewHolder vh = new RecipeListItemViewHolder(v);
-        return vh;
+            return vh;
+        } finally {
+            UiTrace.end();
+        }
     }
 
     // Replace the contents of a view (invoked by the layout manager)
     @Override
-    public void onBindViewHolder(RecipeListItemViewHolder holder, int position) {
-        // - get element from your dataset at this position
-        // - replace the contents of the view with that element
-        final RecipeStub recipe = recipes.get(position);
-
-        holder.name.setText(recipe.getName());
-        holder.difficulty.setText(String.format(Locale.getDefault(),"%.1f", recipe.getDifficulty()));
-        holder.time.setText(recipe.getTimeString());
-
-        if (position == 0) {
-            setCardMargin(holder, TOP_CARD_MARGIN);
-        } else {
-            setCardMargin(holder, 0f);
+    public void onBindViewHolder(@NonNull RecipeListItemViewHolder holder, int position) {
+        UiTrace.begin(UiTrace.BIND_RECIPE_CARD);
+        try {
+            // - get element from your dataset at this position
+            // - replace the contents of the view with that element
+            RecipeStub recipe = getItem(position);
+
+            holder.name.setText(recipe.getName());
+            holder.difficulty.setText(recipe.getDifficultyString());
+            holder.time.setText(recipe.getTimeString());
+            holder.picture.load(recipe.getPictureUrl());
+        } finally {
+            UiTrace.end();
         }
-
-        holder.card.setOnClickListener(new View.OnClickListener() {
-            @Override
-            public void onClick(View v) {
-                if (listener != null) {
-                    listener.onSelect(recipe.getId());
-                }
-            }
-        });
-
-        holder.image.setImageResource(R.drawable.placeholder_recipe_photo); // TODO get photo from recipe
     }
 
-    // Return the size of your dataset (invoked by the layout manager)
     @Override
-    public int getItemCount() {
-        return recipes.size();
+    public void onViewRecycled(@NonNull RecipeListItemViewHolder holder) {
+        super.onViewRecycled(holder);
+        holder.picture.cancel();
     }
 
-    private static void setCardMargin(ViewHolder holder, float dp) {
-        float scale = holder.card.getResources().getDisplayMetrics().density;
-        int margin_px = (int) (dp * scale + 0.5f);
+    /**
+     * RecipeIDs are longer than 64 bits, the stable id is their 64-bit FNV-1a hash. Nothing is
+     * kept per recipe, and a collision among the few thousand recipes listed is unlikely enough
+     * to cost at most a wrong change animation.
+     */
+    @Override
+    public long getItemId(int position) {
+        String id = getItem(position).getId().getId();
+        long hash = FNV_OFFSET_BASIS;
+
+        if (id != null) {
+            for (int i = 0; i < id.length(); i++) {
+                hash ^= id.charAt(i);
+                hash *= FNV_PRIME;
+            }
+        }
 
-        RecyclerView.LayoutParams params = (RecyclerView.LayoutParams) holder.card.getLayoutParams();
-        params.setMargins(params.leftMargin, margin_px, params.rightMargin, params.bottomMargin);
-        holder.card.setLayoutParams(params);
+        // RecyclerView.NO_ID is -1
+        return hash == RecyclerView.NO_ID ? 0 : hash;
     }
-}
 
+    public static final DiffUtil.ItemCallback<RecipeStub> CALLBACK = new DiffUtil.ItemCallback<RecipeStub>() {
+        @Override
+        public boolean areItemsTheSame(@NonNull RecipeStub oldItem, @NonNull RecipeStub newItem) {
+            return oldItem.getId().equals(newItem.getId());
+        }
+
+        @Override
+        public boolean areContentsTheSame(@NonNull RecipeStub oldItem, @NonNull RecipeStub newItem) {
+            return oldItem.equals(newItem);
+        }
+    };
+}
@@ -0,0 +1,201 @@
+package net.hungryboys.letsyeat.browse;
+
+import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
+import androidx.lifecycle.MutableLiveData;
+
+import net.hungryboys.letsyeat.data.RecipeID;
+import net.hungryboys.letsyeat.data.RecipePage;
+import net.hungryboys.letsyeat.data.RecipeRepository;
+import net.hungryboys.letsyeat.data.RecipeStub;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Cursor based data source for the browse list. Keeps the stubs loaded so far and fetches the
+ * following page on demand, one request at a time. Must be used from the main thread.
+ * <p>
+ * Every {@link #refresh} starts a new generation, answers to requests of an older one are
+ * ignored. A refresh replaces the whole list once its first page is complete, a cached first
+ * page is only shown while the list is empty.
+ */
+class RecipePagingSource {
+
+    private final String email;
+    private final int pageSize;
+    private final MutableLiveData<List<RecipeStub>> recipes;
+
+    // Published as is, appending streamed chunks doesn't copy the stubs already shown
+    private SnapshotList<RecipeStub> loaded = SnapshotList.empty();
+    private int generation;
+
+    private String nextCursor;
+    // Index in loaded of the first stub of the page being streamed, -1 if none
+    private int pageStart = -1;
+    private boolean loading;
+    private boolean endReached;
+
+    // Cached first page shown while the server is asked for a fresh one, null otherwise
+    private RecipePage cachedFirstPage;
+
+    RecipePagingSource(@NonNull String email, int pageSize,
+                       @NonNull MutableLiveData<List<RecipeStub>> recipes) {
+        this.email = email;
+        this.pageSize = pageSize;
+        this.recipes = recipes;
+    }
+
+    /**
+     * Reloads the list from the first page, what is shown stays until that page is complete
+     */
+    void refresh() {
+        generation++;
+        pageStart = -1;
+        cachedFirstPage = null;
+        loading = true;
+
+        request(null);
+    }
+
+    /**
+     * Requests the page following the last loaded one, no-op if already loading or at the end
+     */
+    void loadNextPage() {
+        if (loading || endReached || nextCursor == null) {
+            return;
+        }
+
+        loading = true;
+        request(nextCursor);
+    }
+
+    private void request(@Nullable String cursor) {
+        RecipeRepository.getInstance().getRecipePage(email, cursor, pageSize, new Request(generation));
+    }
+
+    /**
+     * Answers to one request, forwarded only while no refresh happened since
+     */
+    private class Request implements RecipeRepository.PageCallback {
+        private final int requestGeneration;
+
+        Request(int requestGeneration) {
+            this.requestGeneration = requestGeneration;
+        }
+
+        @Override
+        public void onCachedPage(@Nullable String cursor, @NonNull RecipePage page) {
+            if (requestGeneration == generation && cursor == null) {
+                onCachedFirstPage(page);
+            }
+        }
+
+        @Override
+        public void onStubs(@Nullable String cursor, @NonNull List<RecipeStub> stubs) {
+            if (requestGeneration == generation) {
+                RecipePagingSource.this.onStubs(cursor, stubs);
+            }
+        }
+
+        @Override
+        public void onPage(@Nullable String cursor, @NonNull RecipePage page) {
+            if (requestGeneration == generation) {
+                RecipePagingSource.this.onPage(cursor, page);
+            }
+        }
+
+        @Override
+        public void onError(@Nullable String cursor) {
+            if (requestGeneration == generation) {
+                RecipePagingSource.this.onError(cursor);
+            }
+        }
+    }
+
+    private void onCachedFirstPage(@NonNull RecipePage page) {
+        // Only in place of nothing, and not once the fresh page started streaming in
+        if ((!loaded.isEmpty() && cachedFirstPage == null) || pageStart >= 0) {
+            return;
+        }
+
+        // Still loading: the next page is requested with the fresh page's cursor
+        cachedFirstPage = page;
+        loaded = SnapshotList.<RecipeStub>empty().append(page.getRecipes());
+        publish();
+    }
+
+    private void onStubs(@Nullable String cursor, @NonNull List<RecipeStub> stubs) {
+        if (pageStart < 0) {
+            if (cursor == null && !loaded.isEmpty()) {
+                // Keep showing the current list until the fresh first page is complete
+                return;
+            }
+
+            pageStart = loaded.size();
+        }
+
+        loaded = loaded.append(stubs);
+        publish();
+    }
+
+    private void onPage(@Nullable String cursor, @NonNull RecipePage page) {
+        // The first page starts the list over, following pages replace what was streamed of them
+        int start = cursor == null ? 0 : (pageStart >= 0 ? pageStart : loaded.size());
+        List<RecipeStub> received = loaded.subList(start, loaded.size());
+
+        if (!received.equals(page.getRecipes())) {
+            loaded = loaded.truncate(start).append(page.getRecipes());
+        }
+
+        // Nothing streamed of an empty page, the list must still be published once
+        if (recipes.getValue() != loaded) {
+            publish();
+        }
+
+        pageStart = -1;
+        cachedFirstPage = null;
+        nextCursor = page.getNextCursor();
+        endReached = page.isLast();
+        loading = false;
+
+        prefetch(page);
+    }
+
+    /**
+     * Fetches the details of the page's recipes in one request, opening one of its cards then
+     * needs none
+     */
+    private static void prefetch(@NonNull RecipePage page) {
+        List<RecipeStub> stubs = page.getRecipes();
+        List<RecipeID> ids = new ArrayList<>(stubs.size());
+
+        for (int i = 0; i < stubs.size(); i++) {
+            ids.add(stubs.get(i).getId());
+        }
+
+        RecipeRepository.getInstance().prefetchRecipes(ids);
+    }
+
+    private void onError(@Nullable String cursor) {
+        if (pageStart >= 0) {
+            // Drop the partially received page, it will be requested again
+            loaded = loaded.truncate(pageStart);
+            pageStart = -1;
+            publish();
+        }
+
+        if (cursor == null && cachedFirstPage != null) {
+            // Go on from the cached page rather than stopping at it
+            nextCursor = cachedFirstPage.getNextCursor();
+            endReached = cachedFirstPage.isLast();
+            cachedFirstPage = null;
+        }
+
+        loading = false;
+    }
+
+    private void publish() {
+        recipes.setValue(loaded);
+    }
+}
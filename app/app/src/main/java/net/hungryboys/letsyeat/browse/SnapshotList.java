@@ -0,0 +1,95 @@
+package net.hungryboys.letsyeat.browse;
+
+import androidx.annotation.NonNull;
+
+import java.util.AbstractList;
+import java.util.List;
+import java.util.RandomAccess;
+
+/**
+ * Immutable list that can be appended to in amortized O(appended) time, for lists published to
+ * a ListAdapter after every streamed chunk. Successive snapshots share one backing array: an
+ * append writes past the end of the snapshot it is made on, where older snapshots never read.
+ * Only the latest snapshot appends in place, appending to an older or truncated one copies.
+ * Snapshots are safe to read from any thread, appending must be done from a single thread.
+ */
+final class SnapshotList<E> extends AbstractList<E> implements RandomAccess {
+
+    private static final int MIN_CAPACITY = 16;
+
+    private static final SnapshotList<Object> EMPTY = new SnapshotList<>(new Store(0), 0);
+
+    private static final class Store {
+        final Object[] items;
+        // Slots written so far, snapshots of this size may append in place
+        int used;
+
+        Store(int capacity) {
+            items = new Object[capacity];
+        }
+    }
+
+    private final Store store;
+    private final int size;
+
+    private SnapshotList(Store store, int size) {
+        this.store = store;
+        this.size = size;
+    }
+
+    @SuppressWarnings("unchecked")
+    static <E> SnapshotList<E> empty() {
+        return (SnapshotList<E>) EMPTY;
+    }
+
+    /**
+     * @return a snapshot with more after the elements of this one, this one is unchanged
+     */
+    @NonNull
+    SnapshotList<E> append(@NonNull List<? extends E> more) {
+        int count = more.size();
+        if (count == 0) {
+            return this;
+        }
+
+        Store target = store;
+        if (size != store.used || size + count > store.items.length) {
+            target = new Store(Math.max(MIN_CAPACITY, (size + count) * 2));
+            System.arraycopy(store.items, 0, target.items, 0, size);
+        }
+
+        for (int i = 0; i < count; i++) {
+            target.items[size + i] = more.get(i);
+        }
+        target.used = size + count;
+
+        return new SnapshotList<>(target, size + count);
+    }
+
+    /**
+     * @return a snapshot of the first newSize elements, sharing this one's storage
+     */
+    @NonNull
+    SnapshotList<E> truncate(int newSize) {
+        if (newSize < 0 || newSize > size) {
+            throw new IndexOutOfBoundsException("Size " + newSize + " of " + size);
+        }
+
+        return newSize == size ? this : new SnapshotList<E>(store, newSize);
+    }
+
+    @SuppressWarnings("unchecked")
+    @Override
+    public E get(int index) {
+        if (index < 0 || index >= size) {
+            throw new IndexOutOfBoundsException("Index " + index + " of " + size);
+        }
+
+        return (E) store.items[index];
+    }
+
+    @Override
+    public int size() {
+        return size;
+    }
+}
@@ -0,0 +1,33 @@
+package net.hungryboys.letsyeat.browse;
+
+import android.content.res.Resources;
+import android.graphics.Rect;
+import android.view.View;
+
+import androidx.annotation.NonNull;
+import androidx.recyclerview.widget.RecyclerView;
+
+import net.hungryboys.letsyeat.R;
+
+/**
+ * Space above the first recipe card, the cards themselves have no top margin. Applied at layout
+ * time so binding a card never changes its layout params.
+ */
+class TopCardMarginDecoration extends RecyclerView.ItemDecoration {
+
+    private final int topMargin;
+
+    TopCardMarginDecoration(@NonNull Resources resources) {
+        topMargin = resources.getDimensionPixelSize(R.dimen.recipe_card_top_margin);
+    }
+
+    @Override
+    public void getItemOffsets(@NonNull Rect outRect, @NonNull View view, @NonNull RecyclerView parent,
+                               @NonNull RecyclerView.State state) {
+        if (parent.getChildAdapterPosition(view) == 0) {
+            outRect.set(0, topMargin, 0, 0);
+        } else {
+            outRect.setEmpty();
+        }
+    }
+}
@@ -0,0 +1,62 @@
+package net.hungryboys.letsyeat.data;
+
+import com.google.gson.annotations.Expose;
+import com.google.gson.annotations.SerializedName;
+
+import net.hungryboys.letsyeat.processor.GenerateTypeAdapter;
+
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Immutable set of catalog changes since a sync token, as received by HTTP API. Only recipes
+ * added or modified since the token are sent, with the ids of the deleted ones.
+ */
+@GenerateTypeAdapter
+public class CatalogDelta {
+
+    @Expose
+    @SerializedName("recipes")
+    private final List<Recipe> recipes;
+
+    @Expose
+    @SerializedName("deleted")
+    private final List<RecipeID> deleted;
+
+    @Expose
+    @SerializedName("token")
+    private final String token;
+
+    @Expose
+    @SerializedName("hasMore")
+    private final boolean hasMore;
+
+    public CatalogDelta(List<Recipe> recipes, List<RecipeID> deleted, String token, boolean hasMore) {
+        this.recipes = recipes;
+        this.deleted = deleted;
+        this.token = token;
+        this.hasMore = hasMore;
+    }
+
+    public List<Recipe> getRecipes() {
+        return recipes == null ? Collections.<Recipe>emptyList() : Collections.unmodifiableList(recipes);
+    }
+
+    public List<RecipeID> getDeleted() {
+        return deleted == null ? Collections.<RecipeID>emptyList() : Collections.unmodifiableList(deleted);
+    }
+
+    /**
+     * @return token to send with the next sync request
+     */
+    public String getToken() {
+        return token;
+    }
+
+    /**
+     * @return true if more changes are waiting, to be requested right away with {@link #getToken()}
+     */
+    public boolean hasMore() {
+        return hasMore;
+    }
+}
@@ -0,0 +1,59 @@
+package net.hungryboys.letsyeat.data;
+
+import android.content.Context;
+
+import androidx.annotation.NonNull;
+import androidx.work.Constraints;
+import androidx.work.ExistingPeriodicWorkPolicy;
+import androidx.work.ExistingWorkPolicy;
+import androidx.work.NetworkType;
+import androidx.work.OneTimeWorkRequest;
+import androidx.work.PeriodicWorkRequest;
+import androidx.work.WorkManager;
+import androidx.work.Worker;
+import androidx.work.WorkerParameters;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Keeps the local recipe catalog in sync with the server in the background, see
+ * {@link RecipeRepository#syncCatalog()}.
+ */
+public class CatalogSyncWorker extends Worker {
+
+    private static final String WORK_PERIODIC = "catalog_sync";
+    private static final String WORK_STARTUP = "catalog_sync_startup";
+    private static final long SYNC_INTERVAL_HOURS = 6;
+
+    public CatalogSyncWorker(@NonNull Context context, @NonNull WorkerParameters params) {
+        super(context, params);
+    }
+
+    /**
+     * Schedules a sync now and then every few hours, only while connected. Safe to call on every
+     * start, already scheduled work is kept.
+     */
+    public static void schedule(@NonNull Context context) {
+        Constraints constraints = new Constraints.Builder()
+                .setRequiredNetworkType(NetworkType.CONNECTED)
+                .build();
+
+        WorkManager workManager = WorkManager.getInstance(context);
+
+        workManager.enqueueUniquePeriodicWork(WORK_PERIODIC, ExistingPeriodicWorkPolicy.KEEP,
+                new PeriodicWorkRequest.Builder(CatalogSyncWorker.class, SYNC_INTERVAL_HOURS, TimeUnit.HOURS)
+                        .setConstraints(constraints)
+                        .build());
+
+        workManager.enqueueUniqueWork(WORK_STARTUP, ExistingWorkPolicy.KEEP,
+                new OneTimeWorkRequest.Builder(CatalogSyncWorker.class)
+                        .setConstraints(constraints)
+                        .build());
+    }
+
+    @NonNull
+    @Override
+    public Result doWork() {
+        return RecipeRepository.getInstance().syncCatalog() ? Result.success() : Result.retry();
+    }
+}
@@ -1,15 +1,21 @@
 package net.hungryboys.letsyeat.data;
 
+import android.os.Parcel;
+import android.os.Parcelable;
+
 import androidx.annotation.NonNull;
 
 import com.google.gson.annotations.Expose;
 import com.google.gson.annotations.SerializedName;
 
+import net.hungryboys.letsyeat.processor.GenerateTypeAdapter;
+
 import java.util.Arrays;
 import java.util.Locale;
 
 
-public class Ingredient {
+@GenerateTypeAdapter
+public class Ingredient implements Parcelable {
 
     @SerializedName("name")
     @Expose
@@ -33,6 +39,12 @@ public class Ingredient {
         this.unit = unit;
     }
 
+    private Ingredient(Parcel in) {
+        name = in.readString();
+        quantity = in.readString();
+        unit = in.readString();
+    }
+
     public String getName() {
         return name;
     }
@@ -51,9 +63,14 @@ public class Ingredient {
         if (this == o) return true;
         if (o == null || getClass() != o.getClass()) return false;
         Ingredient that = (Ingredient) o;
-        return  quantity.equals(that.quantity) &&
-                name.equals(that.name) &&
-                unit.equals(that.unit);
+        return  equal(quantity, that.quantity) &&
+                equal(name, that.name) &&
+                equal(unit, that.unit);
+    }
+
+    // Quantity and unit are optional in the API
+    private static boolean equal(String a, String b) {
+        return a == null ? b == null : a.equals(b);
     }
 
     @Override
@@ -67,4 +84,28 @@ public class Ingredient {
     public String toString() {
         return String.format(Locale.getDefault(), "%s %s - %s", getQuantity(), getUnit(), getName());
     }
-}
\ No newline at end of file
+
+    @Override
+    public int describeContents() {
+        return 0;
+    }
+
+    @Override
+    public void writeToParcel(Parcel dest, int flags) {
+        dest.writeString(name);
+        dest.writeString(quantity);
+        dest.writeString(unit);
+    }
+
+    public static final Parcelable.Creator<Ingredient> CREATOR = new Parcelable.Creator<Ingredient>() {
+        @Override
+        public Ingredient createFromParcel(Parcel source) {
+            return new Ingredient(source);
+        }
+
+        @Override
+        public Ingredient[] newArray(int size) {
+            return new Ingredient[size];
+        }
+    };
+}
@@ -1,18 +1,29 @@
 package net.hungryboys.letsyeat.data;
 
+import android.os.Parcel;
+import android.os.Parcelable;
+
 import com.google.gson.annotations.Expose;
 import com.google.gson.annotations.SerializedName;
 
+import net.hungryboys.letsyeat.processor.GenerateTypeAdapter;
+
 import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
 
 
 /**
  * Immutable class representing a recipe, as received by HTTP API
  */
-public class Recipe {
+@GenerateTypeAdapter
+public class Recipe implements Parcelable {
     public static final double MAX_DIFF = 5f;
     public static final double MIN_DIFF = 0f;
 
+    private static final Ingredient[] NO_INGREDIENTS = {};
+    private static final String[] NO_INSTRUCTIONS = {};
+
     @SerializedName("id")
     @Expose
     private final RecipeID id;
@@ -33,22 +44,27 @@ public class Recipe {
     @Expose
     private final double difficulty;
 
-    @SerializedName("ingredients")
+    @SerializedName("tags")
     @Expose
-    private final Ingredient[] ingredients;
+    private final TagSet tags;
 
-    @SerializedName("tags")
+    // Arrays are never handed out, package-private only for the generated TypeAdapter
+    @SerializedName("ingredients")
     @Expose
-    private final String[] tags;
+    final Ingredient[] ingredients;
 
     @SerializedName("instructions")
     @Expose
-    private final String[] instructions;
+    final String[] instructions;
+
+    // Read-only views of the arrays, created on first use
+    private transient List<Ingredient> ingredientList;
+    private transient List<String> instructionList;
 
     public static Recipe placeholder() {
         Ingredient[] ingredients =
                 {Ingredient.placeholder(), Ingredient.placeholder(), Ingredient.placeholder()};
-        String[] tags = {"italian", "beef", "cheap"};
+        TagSet tags = TagSet.of("italian", "beef", "cheap");
         String[] instructions = {"Buy ingredients", "Cook for a certain amount of time", "Eat food"};
 
         return new Recipe(RecipeID.placeholder(),
@@ -56,16 +72,30 @@ public class Recipe {
                 ingredients, instructions,tags);
     }
 
+    /**
+     * Null ingredients, instructions or tags, e.g. missing from the JSON, are taken as none
+     */
     public Recipe(RecipeID id, String name, String pictureUrl, int time, double difficulty,
-                  Ingredient[] ingredients, String[] instructions, String[] tags) {
+                  Ingredient[] ingredients, String[] instructions, TagSet tags) {
         this.id = id;
         this.name = name;
         this.pictureUrl = pictureUrl;
         this.time = time;
         this.difficulty = difficulty;
-        this.ingredients = ingredients;
-        this.instructions = instructions;
-        this.tags = tags;
+        this.ingredients = ingredients == null ? NO_INGREDIENTS : ingredients;
+        this.instructions = instructions == null ? NO_INSTRUCTIONS : instructions;
+        this.tags = tags == null ? TagSet.EMPTY : tags;
+    }
+
+    private Recipe(Parcel in) {
+        id = RecipeID.CREATOR.createFromParcel(in);
+        name = in.readString();
+        pictureUrl = in.readString();
+        time = in.readInt();
+        difficulty = in.readDouble();
+        ingredients = in.createTypedArray(Ingredient.CREATOR);
+        tags = TagSet.of(in.createStringArray());
+        instructions = in.createStringArray();
     }
 
     public RecipeID getId() {
@@ -84,8 +114,23 @@ public class Recipe {
         return time;
     }
 
-    public String[] getInstructions() {
-        return Arrays.copyOf(instructions, instructions.length);
+    /**
+     * @return read-only view of the steps, the same instance on every call
+     */
+    public List<String> getInstructions() {
+        if (instructionList == null) {
+            instructionList = Collections.unmodifiableList(Arrays.asList(instructions));
+        }
+
+        return instructionList;
+    }
+
+    public int getInstructionCount() {
+        return instructions.length;
+    }
+
+    public String getInstruction(int index) {
+        return instructions[index];
     }
 
     public String getTimeString() {
@@ -96,11 +141,66 @@ public class Recipe {
         return difficulty;
     }
 
-    public Ingredient[] getIngredients() {
-        return Arrays.copyOf(ingredients, ingredients.length);
+    /**
+     * @return read-only view of the ingredients, the same instance on every call
+     */
+    public List<Ingredient> getIngredients() {
+        if (ingredientList == null) {
+            ingredientList = Collections.unmodifiableList(Arrays.asList(ingredients));
+        }
+
+        return ingredientList;
+    }
+
+    public int getIngredientCount() {
+        return ingredients.length;
+    }
+
+    public Ingredient getIngredient(int index) {
+        return ingredients[index];
+    }
+
+    /**
+     * @return the tags, {@link TagSet#EMPTY} rather than null when there are none
+     */
+    public TagSet getTags() {
+        return tags;
     }
 
-    public String[] getTags() {
-        return Arrays.copyOf(tags, tags.length);
+    public int getTagCount() {
+        return tags.size();
     }
+
+    public String getTag(int index) {
+        return tags.get(index);
+    }
+
+    @Override
+    public int describeContents() {
+        return 0;
+    }
+
+    @Override
+    public void writeToParcel(Parcel dest, int flags) {
+        id.writeToParcel(dest, flags);
+        dest.writeString(name);
+        dest.writeString(pictureUrl);
+        dest.writeInt(time);
+        dest.writeDouble(difficulty);
+        dest.writeTypedArray(ingredients, flags);
+        dest.writeStringArray(tags.toArray());
+        dest.writeStringArray(instructions);
+    }
+
+    public static final Parcelable.Creator<Recipe> CREATOR = new Parcelable.Creator<Recipe>() {
+        @Override
+        public Recipe createFromParcel(Parcel source) {
+            return new Recipe(source);
+        }
+
+        @Override
+        public Recipe[] newArray(int size) {
+            return new Recipe[size];
+        }
+    };
 }
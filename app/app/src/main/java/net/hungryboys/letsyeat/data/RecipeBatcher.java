@@ -0,0 +1,197 @@
+package net.hungryboys.letsyeat.data;
+
+import android.os.Handler;
+import android.os.Looper;
+import android.util.Log;
+
+import androidx.annotation.NonNull;
+
+import net.hungryboys.letsyeat.api.APICaller;
+import net.hungryboys.letsyeat.api.APICalls;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import retrofit2.Call;
+import retrofit2.Callback;
+import retrofit2.Response;
+
+/**
+ * Gathers the recipe requests made within a short window into a single
+ * {@link APICalls#getRecipes} call and hands each caller its recipe. Recipes requested together
+ * with {@link #getRecipes} don't wait for the window. A batch of a single recipe uses the regular,
+ * HTTP cached, single recipe endpoint. Must be used from the main thread.
+ */
+class RecipeBatcher {
+
+    private static final String TAG_BATCHER = "RecipeBatcher";
+
+    private static final long WINDOW_MS = 10;
+    private static final int MAX_BATCH = 50;
+
+    interface Listener {
+        void onRecipe(@NonNull Recipe recipe);
+
+        void onError();
+    }
+
+    // Null for the shared client, which is only built when first needed
+    private final APICalls api;
+    // Created with the first window
+    private Handler handler;
+    private Map<RecipeID, List<Listener>> pending = new LinkedHashMap<>();
+
+    private final Runnable flush = new Runnable() {
+        @Override
+        public void run() {
+            flush();
+        }
+    };
+
+    RecipeBatcher() {
+        this(null);
+    }
+
+    RecipeBatcher(APICalls api) {
+        this.api = api;
+    }
+
+    void getRecipe(@NonNull RecipeID id, @NonNull Listener listener) {
+        boolean first = pending.isEmpty();
+        add(id, listener);
+
+        if (pending.size() >= MAX_BATCH) {
+            flushNow();
+        } else if (first) {
+            if (handler == null) {
+                handler = new Handler(Looper.getMainLooper());
+            }
+            handler.postDelayed(flush, WINDOW_MS);
+        }
+    }
+
+    /**
+     * Requests recipes known together, e.g. those of a browse page, right away in one call per
+     * {@link #MAX_BATCH} recipes, along with those waiting for the window to end
+     *
+     * @param listener called for each of the recipes
+     */
+    void getRecipes(@NonNull List<RecipeID> ids, @NonNull Listener listener) {
+        for (RecipeID id : ids) {
+            add(id, listener);
+
+            if (pending.size() >= MAX_BATCH) {
+                flushNow();
+            }
+        }
+
+        flushNow();
+    }
+
+    private void add(RecipeID id, Listener listener) {
+        List<Listener> listeners = pending.get(id);
+
+        if (listeners == null) {
+            listeners = new ArrayList<>(1);
+            pending.put(id, listeners);
+        }
+
+        listeners.add(listener);
+    }
+
+    private void flushNow() {
+        if (handler != null) {
+            handler.removeCallbacks(flush);
+        }
+        flush();
+    }
+
+    private APICalls api() {
+        return api != null ? api : APICaller.getApiCall();
+    }
+
+    private void flush() {
+        final Map<RecipeID, List<Listener>> batch = pending;
+        pending = new LinkedHashMap<>();
+
+        if (batch.isEmpty()) {
+            return;
+        }
+
+        if (batch.size() == 1) {
+            RecipeID id = batch.keySet().iterator().next();
+
+            api().getRecipe(id).enqueue(new Callback<Recipe>() {
+                @Override
+                public void onResponse(Call<Recipe> call, Response<Recipe> response) {
+                    Recipe recipe = response.body();
+
+                    if (response.isSuccessful() && recipe != null) {
+                        deliver(batch, recipe);
+                    } else {
+                        Log.e(TAG_BATCHER, "Could not load recipe " + response.message());
+                    }
+
+                    failRemaining(batch);
+                }
+
+                @Override
+                public void onFailure(Call<Recipe> call, Throwable t) {
+                    Log.e(TAG_BATCHER, "Could not load recipe", t);
+                    failRemaining(batch);
+                }
+            });
+        } else {
+            List<RecipeID> ids = new ArrayList<>(batch.keySet());
+
+            api().getRecipes(ids).enqueue(new Callback<List<Recipe>>() {
+                @Override
+                public void onResponse(Call<List<Recipe>> call, Response<List<Recipe>> response) {
+                    List<Recipe> recipes = response.body();
+
+                    if (response.isSuccessful() && recipes != null) {
+                        for (Recipe recipe : recipes) {
+                            deliver(batch, recipe);
+                        }
+                    } else {
+                        Log.e(TAG_BATCHER, "Could not load recipes " + response.message());
+                    }
+
+                    failRemaining(batch);
+                }
+
+                @Override
+                public void onFailure(Call<List<Recipe>> call, Throwable t) {
+                    Log.e(TAG_BATCHER, "Could not load recipes", t);
+                    failRemaining(batch);
+                }
+            });
+        }
+    }
+
+    private static void deliver(Map<RecipeID, List<Listener>> batch, Recipe recipe) {
+        List<Listener> listeners = batch.remove(recipe.getId());
+
+        if (listeners != null) {
+            for (Listener listener : listeners) {
+                listener.onRecipe(recipe);
+            }
+        }
+    }
+
+    /**
+     * Notifies the callers whose recipe was not part of the response
+     */
+    private static void failRemaining(Map<RecipeID, List<Listener>> batch) {
+        for (List<Listener> listeners : batch.values()) {
+            for (Listener listener : listeners) {
+                listener.onError();
+            }
+        }
+
+        batch.clear();
+    }
+}
@@ -0,0 +1,268 @@
+package net.hungryboys.letsyeat.data;
+
+import android.content.ContentValues;
+import android.content.Context;
+import android.database.Cursor;
+import android.database.sqlite.SQLiteDatabase;
+import android.database.sqlite.SQLiteOpenHelper;
+
+import androidx.annotation.Nullable;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Persistent tier of the {@link RecipeRepository}. Stores the last known JSON of every recipe
+ * recipe and first browse page received from the server, keyed by recipe id / user email.
+ * <p>
+ * Also holds the local catalog, a copy of every recipe summary on the server kept up to date by
+ * {@link CatalogSyncWorker}, so browsing works without the network. Catalog rows are ordered by
+ * id like the server's recipe list, and indexed on tags, time and difficulty for filtering.
+ */
+class RecipeDatabase extends SQLiteOpenHelper {
+
+    private static final String DATABASE_NAME = "recipes.db";
+    private static final int DATABASE_VERSION = 4;
+
+    private static final String TABLE_RECIPE = "recipe";
+    private static final String TABLE_RECIPE_LIST = "recipe_list";
+    private static final String TABLE_CATALOG = "catalog";
+    private static final String TABLE_CATALOG_TAG = "catalog_tag";
+    private static final String TABLE_SYNC = "sync";
+
+    private static final String COLUMN_KEY = "key";
+    private static final String COLUMN_JSON = "json";
+    private static final String COLUMN_UPDATED = "updated";
+
+    private static final String COLUMN_ID = "id";
+    private static final String COLUMN_NAME = "name";
+    private static final String COLUMN_PICTURE_URL = "picture_url";
+    private static final String COLUMN_TIME = "time";
+    private static final String COLUMN_DIFFICULTY = "difficulty";
+    private static final String COLUMN_INGREDIENTS = "ingredients";
+    private static final String COLUMN_RECIPE_ID = "recipe_id";
+    private static final String COLUMN_TAG = "tag";
+
+    private static final String KEY_SYNC_TOKEN = "catalog_token";
+
+    // Separates the ingredient names of a catalog row, and the tags of an indexed row
+    private static final String LIST_SEPARATOR = "\n";
+
+    private static final String[] CATALOG_COLUMNS =
+            {COLUMN_ID, COLUMN_NAME, COLUMN_PICTURE_URL, COLUMN_TIME, COLUMN_DIFFICULTY};
+
+    RecipeDatabase(Context context) {
+        super(context.getApplicationContext(), DATABASE_NAME, null, DATABASE_VERSION);
+    }
+
+    @Override
+    public void onCreate(SQLiteDatabase db) {
+        db.execSQL(createTable(TABLE_RECIPE));
+        db.execSQL(createTable(TABLE_RECIPE_LIST));
+        db.execSQL(createTable(TABLE_SYNC));
+
+        db.execSQL("CREATE TABLE " + TABLE_CATALOG + " ("
+                + COLUMN_ID + " TEXT PRIMARY KEY, "
+                + COLUMN_NAME + " TEXT, "
+                + COLUMN_PICTURE_URL + " TEXT, "
+                + COLUMN_TIME + " INTEGER NOT NULL, "
+                + COLUMN_DIFFICULTY + " REAL NOT NULL, "
+                + COLUMN_INGREDIENTS + " TEXT)");
+        db.execSQL("CREATE INDEX catalog_time ON " + TABLE_CATALOG + " (" + COLUMN_TIME + ")");
+        db.execSQL("CREATE INDEX catalog_difficulty ON " + TABLE_CATALOG + " (" + COLUMN_DIFFICULTY + ")");
+
+        db.execSQL("CREATE TABLE " + TABLE_CATALOG_TAG + " ("
+                + COLUMN_TAG + " TEXT NOT NULL, "
+                + COLUMN_RECIPE_ID + " TEXT NOT NULL, "
+                + "PRIMARY KEY (" + COLUMN_TAG + ", " + COLUMN_RECIPE_ID + "))");
+        db.execSQL("CREATE INDEX catalog_tag_recipe ON " + TABLE_CATALOG_TAG + " (" + COLUMN_RECIPE_ID + ")");
+    }
+
+    @Override
+    public void onUpgrade(SQLiteDatabase db, int oldVersion, int newVersion) {
+        // Contents are only a cache of server data, safe to drop
+        db.execSQL("DROP TABLE IF EXISTS " + TABLE_RECIPE);
+        db.execSQL("DROP TABLE IF EXISTS " + TABLE_RECIPE_LIST);
+        db.execSQL("DROP TABLE IF EXISTS " + TABLE_SYNC);
+        db.execSQL("DROP TABLE IF EXISTS " + TABLE_CATALOG);
+        db.execSQL("DROP TABLE IF EXISTS " + TABLE_CATALOG_TAG);
+        onCreate(db);
+    }
+
+    @Nullable
+    String getRecipe(String id) {
+        return get(TABLE_RECIPE, id);
+    }
+
+    void putRecipe(String id, String json) {
+        put(TABLE_RECIPE, id, json);
+    }
+
+    @Nullable
+    String getRecipeList(String email) {
+        return get(TABLE_RECIPE_LIST, email);
+    }
+
+    void putRecipeList(String email, String json) {
+        put(TABLE_RECIPE_LIST, email, json);
+    }
+
+    /**
+     * @return token to pass to the next sync, null if the catalog was never synced
+     */
+    @Nullable
+    String getSyncToken() {
+        return get(TABLE_SYNC, KEY_SYNC_TOKEN);
+    }
+
+    /**
+     * Applies one sync delta atomically: changed recipes are upserted in the catalog with their
+     * tags, their full JSON replaces the cached one, deleted recipes are removed, and the token
+     * only moves forward if all of it was written.
+     *
+     * @param json JSON of each recipe of recipes, at the same index
+     */
+    void applyCatalogDelta(List<Recipe> recipes, List<String> json, List<RecipeID> deleted,
+                           String token) {
+        SQLiteDatabase db = getWritableDatabase();
+        db.beginTransaction();
+
+        try {
+            ContentValues values = new ContentValues();
+
+            for (int i = 0; i < recipes.size(); i++) {
+                Recipe recipe = recipes.get(i);
+                String id = recipe.getId().getId();
+
+                values.clear();
+                values.put(COLUMN_ID, id);
+                values.put(COLUMN_NAME, recipe.getName());
+                values.put(COLUMN_PICTURE_URL, recipe.getPictureUrl());
+                values.put(COLUMN_TIME, recipe.getTime());
+                values.put(COLUMN_DIFFICULTY, recipe.getDifficulty());
+                values.put(COLUMN_INGREDIENTS, ingredientNames(recipe));
+                db.insertWithOnConflict(TABLE_CATALOG, null, values, SQLiteDatabase.CONFLICT_REPLACE);
+
+                db.delete(TABLE_CATALOG_TAG, COLUMN_RECIPE_ID + " = ?", new String[]{id});
+                for (int t = 0; t < recipe.getTagCount(); t++) {
+                    values.clear();
+                    values.put(COLUMN_TAG, recipe.getTag(t));
+                    values.put(COLUMN_RECIPE_ID, id);
+                    db.insertWithOnConflict(TABLE_CATALOG_TAG, null, values, SQLiteDatabase.CONFLICT_IGNORE);
+                }
+
+                put(db, TABLE_RECIPE, id, json.get(i));
+            }
+
+            for (RecipeID recipeID : deleted) {
+                String[] id = {recipeID.getId()};
+                db.delete(TABLE_CATALOG, COLUMN_ID + " = ?", id);
+                db.delete(TABLE_CATALOG_TAG, COLUMN_RECIPE_ID + " = ?", id);
+                db.delete(TABLE_RECIPE, COLUMN_KEY + " = ?", id);
+            }
+
+            put(db, TABLE_SYNC, KEY_SYNC_TOKEN, token);
+            db.setTransactionSuccessful();
+        } finally {
+            db.endTransaction();
+        }
+    }
+
+    /**
+     * Page of the catalog in the order of the server's recipe list, read from the primary key
+     * index so its cost doesn't depend on the catalog size.
+     *
+     * @param afterId id of the last recipe of the previous page, null for the first page
+     */
+    List<RecipeStub> getCatalogPage(@Nullable String afterId, int limit) {
+        Cursor cursor = getReadableDatabase().query(TABLE_CATALOG, CATALOG_COLUMNS,
+                afterId == null ? null : COLUMN_ID + " > ?",
+                afterId == null ? null : new String[]{afterId},
+                null, null, COLUMN_ID, String.valueOf(limit));
+
+        try {
+            List<RecipeStub> stubs = new ArrayList<>(cursor.getCount());
+
+            while (cursor.moveToNext()) {
+                stubs.add(new RecipeStub(new RecipeID(cursor.getString(0)), cursor.getString(1),
+                        cursor.getString(2), cursor.getInt(3), cursor.getDouble(4)));
+            }
+
+            return stubs;
+        } finally {
+            cursor.close();
+        }
+    }
+
+    /**
+     * Adds every catalog recipe to builder, in catalog order, with its ingredient names and tags.
+     */
+    void indexCatalog(RecipeSearchIndex.Builder builder) {
+        Cursor cursor = getReadableDatabase().rawQuery("SELECT c." + COLUMN_ID
+                + ", c." + COLUMN_NAME + ", c." + COLUMN_PICTURE_URL + ", c." + COLUMN_TIME
+                + ", c." + COLUMN_DIFFICULTY + ", c." + COLUMN_INGREDIENTS
+                + ", group_concat(t." + COLUMN_TAG + ", '" + LIST_SEPARATOR + "')"
+                + " FROM " + TABLE_CATALOG + " c LEFT JOIN " + TABLE_CATALOG_TAG + " t"
+                + " ON t." + COLUMN_RECIPE_ID + " = c." + COLUMN_ID
+                + " GROUP BY c." + COLUMN_ID + " ORDER BY c." + COLUMN_ID, null);
+
+        try {
+            while (cursor.moveToNext()) {
+                RecipeStub stub = new RecipeStub(new RecipeID(cursor.getString(0)), cursor.getString(1),
+                        cursor.getString(2), cursor.getInt(3), cursor.getDouble(4));
+                builder.add(stub, split(cursor.getString(5)), split(cursor.getString(6)));
+            }
+        } finally {
+            cursor.close();
+        }
+    }
+
+    private static String ingredientNames(Recipe recipe) {
+        StringBuilder names = new StringBuilder();
+
+        for (int i = 0; i < recipe.getIngredientCount(); i++) {
+            if (i > 0) {
+                names.append(LIST_SEPARATOR);
+            }
+            names.append(recipe.getIngredient(i).getName());
+        }
+
+        return names.toString();
+    }
+
+    private static String[] split(@Nullable String list) {
+        return list == null || list.isEmpty() ? new String[0] : list.split(LIST_SEPARATOR);
+    }
+
+    private static String createTable(String table) {
+        return "CREATE TABLE " + table + " ("
+                + COLUMN_KEY + " TEXT PRIMARY KEY, "
+                + COLUMN_JSON + " TEXT NOT NULL, "
+                + COLUMN_UPDATED + " INTEGER NOT NULL)";
+    }
+
+    @Nullable
+    private String get(String table, String key) {
+        Cursor cursor = getReadableDatabase().query(table, new String[]{COLUMN_JSON},
+                COLUMN_KEY + " = ?", new String[]{key}, null, null, null);
+
+        try {
+            return cursor.moveToFirst() ? cursor.getString(0) : null;
+        } finally {
+            cursor.close();
+        }
+    }
+
+    private void put(String table, String key, String json) {
+        put(getWritableDatabase(), table, key, json);
+    }
+
+    private static void put(SQLiteDatabase db, String table, String key, String json) {
+        ContentValues values = new ContentValues();
+        values.put(COLUMN_KEY, key);
+        values.put(COLUMN_JSON, json);
+        values.put(COLUMN_UPDATED, System.currentTimeMillis());
+
+        db.insertWithOnConflict(table, null, values, SQLiteDatabase.CONFLICT_REPLACE);
+    }
+}
@@ -1,12 +1,17 @@
 package net.hungryboys.letsyeat.data;
 
+import android.os.Parcel;
+import android.os.Parcelable;
+
 import com.google.gson.annotations.Expose;
 import com.google.gson.annotations.SerializedName;
 
-import java.io.Serializable;
+import net.hungryboys.letsyeat.processor.GenerateTypeAdapter;
+
 import java.util.UUID;
 
-public class RecipeID implements Serializable {
+@GenerateTypeAdapter
+public class RecipeID implements Parcelable {
 
     @Expose
     @SerializedName("id")
@@ -20,7 +25,57 @@ public class RecipeID implements Serializable {
         this.id = id;
     }
 
+    private RecipeID(Parcel in) {
+        id = in.readString();
+    }
+
     public String getId() {
         return id;
     }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) return true;
+        if (o == null || getClass() != o.getClass()) return false;
+        RecipeID that = (RecipeID) o;
+        return id == null ? that.id == null : id.equals(that.id);
+    }
+
+    @Override
+    public int hashCode() {
+        return id == null ? 0 : id.hashCode();
+    }
+
+    /**
+     * Used by Retrofit when passed as a query parameter, so it also keys the HTTP cache
+     */
+    @Override
+    public String toString() {
+        return id;
+    }
+
+    @Override
+    public int describeContents() {
+        return 0;
+    }
+
+    /**
+     * Also used inline by the classes holding an id, without writing the class name
+     */
+    @Override
+    public void writeToParcel(Parcel dest, int flags) {
+        dest.writeString(id);
+    }
+
+    public static final Parcelable.Creator<RecipeID> CREATOR = new Parcelable.Creator<RecipeID>() {
+        @Override
+        public RecipeID createFromParcel(Parcel source) {
+            return new RecipeID(source);
+        }
+
+        @Override
+        public RecipeID[] newArray(int size) {
+            return new RecipeID[size];
+        }
+    };
 }
@@ -0,0 +1,48 @@
+package net.hungryboys.letsyeat.data;
+
+import androidx.annotation.Nullable;
+
+import com.google.gson.annotations.Expose;
+import com.google.gson.annotations.SerializedName;
+
+import net.hungryboys.letsyeat.processor.GenerateTypeAdapter;
+
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Immutable page of recipe stubs, as received by HTTP API. The next page is requested by
+ * passing {@link #getNextCursor()} back to the server.
+ */
+@GenerateTypeAdapter
+public class RecipePage {
+
+    @Expose
+    @SerializedName("recipes")
+    private final List<RecipeStub> recipes;
+
+    @Expose
+    @SerializedName("nextCursor")
+    private final String nextCursor;
+
+    public RecipePage(List<RecipeStub> recipes, String nextCursor) {
+        this.recipes = recipes;
+        this.nextCursor = nextCursor;
+    }
+
+    public List<RecipeStub> getRecipes() {
+        return recipes == null ? Collections.<RecipeStub>emptyList() : Collections.unmodifiableList(recipes);
+    }
+
+    /**
+     * @return cursor of the following page, null if this is the last page
+     */
+    @Nullable
+    public String getNextCursor() {
+        return nextCursor;
+    }
+
+    public boolean isLast() {
+        return nextCursor == null;
+    }
+}
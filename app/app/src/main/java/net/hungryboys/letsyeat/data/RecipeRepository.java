@@ -0,0 +1,652 @@
+package net.hungryboys.letsyeat.data;
+
+import android.content.Context;
+import android.os.Handler;
+import android.os.Looper;
+import android.util.Log;
+import android.util.LruCache;
+
+import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
+import androidx.annotation.WorkerThread;
+import androidx.lifecycle.MutableLiveData;
+
+import com.google.gson.Gson;
+import com.google.gson.GsonBuilder;
+import com.google.gson.JsonParseException;
+
+import net.hungryboys.letsyeat.GeneratedTypeAdapterFactory;
+import net.hungryboys.letsyeat.api.APICaller;
+import net.hungryboys.letsyeat.api.RecipeBinaryFormat;
+import net.hungryboys.letsyeat.api.RecipeStubStreamParser;
+
+import java.io.IOException;
+import java.lang.reflect.Type;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+import okhttp3.ResponseBody;
+import retrofit2.Call;
+import retrofit2.Callback;
+import retrofit2.Response;
+
+/**
+ * Single source of recipes for the ViewModels. Reads go through an in-memory LRU of recipes and
+ * browse pages, then the on-disk {@link RecipeDatabase}, and are always revalidated against the
+ * server (stale-while-revalidate): the cached value is posted first and replaced once the network
+ * answers.
+ * <p>
+ * Once the local catalog has been synced (see {@link CatalogSyncWorker}), it stands in for the
+ * first browse page until the user's suggestions arrive, and serves the following pages when they
+ * don't.
+ */
+public class RecipeRepository {
+
+    public static final String TAG_RECIPE_REPO = "RecipeRepository";
+
+    private static final int MAX_MEMORY_RECIPES = 32;
+    private static final int STREAM_CHUNK_SIZE = 5;
+    private static final int SYNC_PAGE_SIZE = 200;
+    private static final int MAX_CACHED_SEARCHES = 32;
+    static final long SEARCH_DEBOUNCE_MS = 300;
+    // Prefix of the cursors of pages read from the local catalog rather than the server
+    private static final String CATALOG_CURSOR = "catalog:";
+
+    private static volatile RecipeRepository instance;
+
+    private final LruCache<RecipeID, Recipe> recipes = new LruCache<>(MAX_MEMORY_RECIPES);
+    private final LruCache<String, RecipePage> firstPages = new LruCache<>(4);
+    // Main thread only
+    private final SearchResultCache searchResults = new SearchResultCache(MAX_CACHED_SEARCHES);
+
+    private final RecipeDatabase database;
+    private final ExecutorService diskExecutor = Executors.newSingleThreadExecutor();
+    private final ExecutorService parseExecutor = Executors.newSingleThreadExecutor();
+    private final Handler mainHandler = new Handler(Looper.getMainLooper());
+    private final RecipeBatcher batcher = new RecipeBatcher();
+    private final Gson gson = new GsonBuilder()
+            .registerTypeAdapterFactory(new GeneratedTypeAdapterFactory())
+            .create();
+
+    // Only accessed from diskExecutor, set once the catalog is known to have been synced
+    private boolean catalogReady;
+    // Only accessed from diskExecutor, built on first search and dropped when the catalog changes
+    private RecipeSearchIndex searchIndex;
+
+    // private constructor : singleton access
+    private RecipeRepository(Context context) {
+        database = new RecipeDatabase(context);
+    }
+
+    public static void init(Context context) {
+        if (instance == null) {
+            synchronized (RecipeRepository.class) {
+                if (instance == null) {
+                    instance = new RecipeRepository(context);
+                }
+            }
+        }
+    }
+
+    public static RecipeRepository getInstance() {
+        if (instance == null) {
+            throw new IllegalStateException("RecipeRepository.init() was not called");
+        }
+
+        return instance;
+    }
+
+    /**
+     * Posts the recipe with the given id to result, first from local data if available, then
+     * from the server. Requests made in quick succession are batched, see {@link RecipeBatcher}.
+     * Must be called from the main thread.
+     */
+    public void getRecipe(@NonNull final RecipeID id, @NonNull final MutableLiveData<Recipe> result) {
+        Recipe cached = recipes.get(id);
+
+        if (cached != null) {
+            result.postValue(cached);
+        } else {
+            diskExecutor.execute(new Runnable() {
+                @Override
+                public void run() {
+                    Recipe stored = fromJson(database.getRecipe(id.getId()), Recipe.class);
+
+                    // Don't overwrite a value the network already delivered
+                    if (stored != null && recipes.get(id) == null) {
+                        recipes.put(id, stored);
+                        result.postValue(stored);
+                    }
+                }
+            });
+        }
+
+        batcher.getRecipe(id, new RecipeBatcher.Listener() {
+            @Override
+            public void onRecipe(@NonNull Recipe recipe) {
+                putRecipe(id, recipe);
+                result.postValue(recipe);
+            }
+
+            @Override
+            public void onError() {
+                Log.e(TAG_RECIPE_REPO, "Could not load recipe " + id);
+            }
+        });
+    }
+
+    /**
+     * Loads the recipes not already in memory in a single request, e.g. to warm the cache for
+     * the cards of a browse page.
+     */
+    public void prefetchRecipes(@NonNull List<RecipeID> ids) {
+        List<RecipeID> missing = new ArrayList<>(ids.size());
+
+        for (RecipeID id : ids) {
+            if (recipes.get(id) == null) {
+                missing.add(id);
+            }
+        }
+
+        if (missing.isEmpty()) {
+            return;
+        }
+
+        batcher.getRecipes(missing, new RecipeBatcher.Listener() {
+            @Override
+            public void onRecipe(@NonNull Recipe recipe) {
+                putRecipe(recipe.getId(), recipe);
+            }
+
+            @Override
+            public void onError() {
+                // Will be fetched again when opened
+            }
+        });
+    }
+
+    /**
+     * Callback for {@link #getRecipePage}, always invoked on the main thread.
+     */
+    public interface PageCallback {
+        /**
+         * A page from local data shown while the server is asked for a fresh one, possibly more
+         * than once with better data each time. Always followed by {@link #onStubs} and
+         * {@link #onPage} with the fresh page, or {@link #onError}.
+         *
+         * @param cursor cursor the page was requested with, null for the first page
+         * @param page the locally stored page
+         */
+        void onCachedPage(@Nullable String cursor, @NonNull RecipePage page);
+
+        /**
+         * Stubs of a page still being received from the server, in order. Always followed by
+         * {@link #onPage} with the whole page, or {@link #onError}.
+         *
+         * @param cursor cursor the page was requested with, null for the first page
+         * @param stubs the next stubs of the page
+         */
+        void onStubs(@Nullable String cursor, @NonNull List<RecipeStub> stubs);
+
+        /**
+         * @param cursor cursor the page was requested with, null for the first page
+         * @param page the loaded page
+         */
+        void onPage(@Nullable String cursor, @NonNull RecipePage page);
+
+        void onError(@Nullable String cursor);
+    }
+
+    /**
+     * Loads one page of recipe stubs suggested to the given user from the server, see
+     * {@link #getRemoteRecipePage}. Once the catalog was synced, its first page is delivered as a
+     * cached page in the meantime, and following pages are read from it when requested with the
+     * cursor of a catalog page.
+     */
+    public void getRecipePage(@NonNull final String email, @Nullable final String cursor, final int pageSize,
+                              @NonNull final PageCallback callback) {
+        if (cursor != null && !cursor.startsWith(CATALOG_CURSOR)) {
+            getRemoteRecipePage(email, cursor, pageSize, callback);
+            return;
+        }
+
+        diskExecutor.execute(new Runnable() {
+            @Override
+            public void run() {
+                if (!catalogReady && database.getSyncToken() == null) {
+                    mainHandler.post(new Runnable() {
+                        @Override
+                        public void run() {
+                            if (cursor == null) {
+                                getRemoteRecipePage(email, null, pageSize, callback);
+                            } else {
+                                // The catalog was cleared since this cursor was handed out
+                                callback.onError(cursor);
+                            }
+                        }
+                    });
+                    return;
+                }
+
+                catalogReady = true;
+                final RecipePage result = getCatalogPage(
+                        cursor == null ? null : cursor.substring(CATALOG_CURSOR.length()), pageSize);
+
+                mainHandler.post(new Runnable() {
+                    @Override
+                    public void run() {
+                        if (cursor != null) {
+                            callback.onPage(cursor, result);
+                            return;
+                        }
+
+                        // The user's last suggestions, if known, are a better stand-in
+                        if (firstPages.get(email) == null) {
+                            callback.onCachedPage(null, result);
+                        }
+                        getRemoteRecipePage(email, null, pageSize, callback);
+                    }
+                });
+            }
+        });
+    }
+
+    @WorkerThread
+    private RecipePage getCatalogPage(@Nullable String afterId, int pageSize) {
+        // One extra row tells whether there is a next page, like the server does
+        List<RecipeStub> rows = database.getCatalogPage(afterId, pageSize + 1);
+        boolean hasNext = rows.size() > pageSize;
+        List<RecipeStub> page = hasNext ? new ArrayList<>(rows.subList(0, pageSize)) : rows;
+
+        return new RecipePage(page, hasNext ? CATALOG_CURSOR + page.get(pageSize - 1).getId().getId() : null);
+    }
+
+    /**
+     * Callback for {@link #searchRecipes}, always invoked on the main thread.
+     */
+    public interface SearchCallback {
+        /**
+         * @param results matching recipes, local ones first
+         * @param complete false if server results may still be added
+         */
+        void onResults(@NonNull List<RecipeStub> results, boolean complete);
+    }
+
+    /**
+     * Handle on a search started with {@link #searchRecipes}. Main thread only.
+     */
+    public final class SearchRequest {
+
+        private boolean cancelled;
+        private Runnable pendingRemote;
+        private Call<List<RecipeStub>> call;
+
+        private SearchRequest() {
+        }
+
+        /**
+         * Stops the search, aborting its server request if sent. No callback is made afterwards.
+         */
+        public void cancel() {
+            cancelled = true;
+
+            if (pendingRemote != null) {
+                mainHandler.removeCallbacks(pendingRemote);
+            }
+            if (call != null) {
+                call.cancel();
+            }
+        }
+    }
+
+    /**
+     * Searches recipes by name, ingredient and tags. Matches from the local catalog are delivered
+     * right away, then merged with the server's. The server is only asked if nothing cached
+     * answers the query already (see {@link SearchResultCache}), and once the query stayed the
+     * same for {@link #SEARCH_DEBOUNCE_MS}, so cancel the previous request on each keystroke.
+     * If the server can't be reached, the local matches are final.
+     *
+     * @param query words to look for, prefixes of words are enough
+     * @param tags tags the recipes must all have
+     */
+    @NonNull
+    public SearchRequest searchRecipes(@NonNull final String email, @NonNull final String query,
+                                       @NonNull final TagSet tags, final int limit,
+                                       @NonNull final SearchCallback callback) {
+        final SearchRequest request = new SearchRequest();
+        final List<RecipeStub> cached = searchResults.get(query, tags, limit);
+
+        diskExecutor.execute(new Runnable() {
+            @Override
+            public void run() {
+                RecipeSearchIndex index = getSearchIndex();
+                final List<RecipeStub> local = index == null
+                        ? new ArrayList<RecipeStub>(0)
+                        : index.search(query, tags, limit);
+                mainHandler.post(new Runnable() {
+                    @Override
+                    public void run() {
+                        if (request.cancelled) {
+                            return;
+                        }
+
+                        if (cached != null) {
+                            callback.onResults(RecipeSearchIndex.merge(local, cached, limit), true);
+                            return;
+                        }
+
+                        callback.onResults(local, false);
+
+                        request.pendingRemote = new Runnable() {
+                            @Override
+                            public void run() {
+                                request.pendingRemote = null;
+                                searchRemoteRecipes(request, email, query, tags, limit, local, callback);
+                            }
+                        };
+                        mainHandler.postDelayed(request.pendingRemote, SEARCH_DEBOUNCE_MS);
+                    }
+                });
+            }
+        });
+
+        return request;
+    }
+
+    private void searchRemoteRecipes(final SearchRequest request, String email, final String query,
+                                     final TagSet tags, final int limit,
+                                     final List<RecipeStub> local, final SearchCallback callback) {
+        request.call = APICaller.getApiCall().getRecipeList(email, limit, query, tags.asList());
+        request.call.enqueue(new Callback<List<RecipeStub>>() {
+            @Override
+            public void onResponse(Call<List<RecipeStub>> call, Response<List<RecipeStub>> response) {
+                if (request.cancelled) {
+                    return;
+                }
+
+                List<RecipeStub> remote = response.body();
+
+                if (response.isSuccessful() && remote != null) {
+                    searchResults.put(query, tags, limit, remote);
+                    callback.onResults(RecipeSearchIndex.merge(local, remote, limit), true);
+                } else {
+                    Log.e(TAG_RECIPE_REPO, "Could not search recipes " + response.message());
+                    callback.onResults(local, true);
+                }
+            }
+
+            @Override
+            public void onFailure(Call<List<RecipeStub>> call, Throwable t) {
+                // Cancelled, or offline and the local matches are all there is
+                if (!request.cancelled) {
+                    callback.onResults(local, true);
+                }
+            }
+        });
+    }
+
+    /**
+     * @return index of the local catalog, null if it was never synced
+     */
+    @WorkerThread
+    @Nullable
+    private RecipeSearchIndex getSearchIndex() {
+        if (searchIndex == null && (catalogReady || database.getSyncToken() != null)) {
+            catalogReady = true;
+
+            RecipeSearchIndex.Builder builder = new RecipeSearchIndex.Builder();
+            database.indexCatalog(builder);
+            searchIndex = builder.build();
+        }
+
+        return searchIndex;
+    }
+
+    /**
+     * Pulls the catalog changes since the last sync until it is up to date, each delta applied
+     * atomically so an interrupted sync resumes where it stopped. Blocking, called by
+     * {@link CatalogSyncWorker}.
+     *
+     * @return false if the server could not be reached or answered an error
+     */
+    @WorkerThread
+    boolean syncCatalog() {
+        String token = database.getSyncToken();
+
+        try {
+            while (true) {
+                Response<CatalogDelta> response =
+                        APICaller.getApiCall().syncCatalog(token, SYNC_PAGE_SIZE).execute();
+                CatalogDelta delta = response.body();
+
+                if (!response.isSuccessful() || delta == null || delta.getToken() == null) {
+                    Log.e(TAG_RECIPE_REPO, "Could not sync catalog " + response.message());
+                    return false;
+                }
+
+                List<Recipe> changed = delta.getRecipes();
+                List<String> json = new ArrayList<>(changed.size());
+                for (Recipe recipe : changed) {
+                    json.add(gson.toJson(recipe));
+                }
+
+                database.applyCatalogDelta(changed, json, delta.getDeleted(), delta.getToken());
+
+                // Keep what is already in memory consistent with the catalog
+                for (Recipe recipe : changed) {
+                    if (recipes.get(recipe.getId()) != null) {
+                        recipes.put(recipe.getId(), recipe);
+                    }
+                }
+                for (RecipeID id : delta.getDeleted()) {
+                    recipes.remove(id);
+                }
+
+                diskExecutor.execute(new Runnable() {
+                    @Override
+                    public void run() {
+                        searchIndex = null;
+                    }
+                });
+                mainHandler.post(new Runnable() {
+                    @Override
+                    public void run() {
+                        searchResults.clear();
+                    }
+                });
+
+                token = delta.getToken();
+                if (!delta.hasMore()) {
+                    return true;
+                }
+            }
+        } catch (IOException | JsonParseException e) {
+            Log.e(TAG_RECIPE_REPO, "Could not sync catalog", e);
+            return false;
+        }
+    }
+
+    /**
+     * Loads one page from the server, used until the catalog is synced. The first page (null
+     * cursor) is served from local data first if available, then delivered again once the
+     * server answers.
+     */
+    private void getRemoteRecipePage(@NonNull final String email, @Nullable final String cursor, int pageSize,
+                                     @NonNull final PageCallback callback) {
+        if (cursor == null) {
+            RecipePage cached = firstPages.get(email);
+
+            if (cached != null) {
+                callback.onCachedPage(null, cached);
+            } else {
+                diskExecutor.execute(new Runnable() {
+                    @Override
+                    public void run() {
+                        final RecipePage stored = fromJson(database.getRecipeList(email), RecipePage.class);
+
+                        if (stored != null && firstPages.get(email) == null) {
+                            firstPages.put(email, stored);
+
+                            mainHandler.post(new Runnable() {
+                                @Override
+                                public void run() {
+                                    // Network may have answered in the meantime
+                                    if (firstPages.get(email) == stored) {
+                                        callback.onCachedPage(null, stored);
+                                    }
+                                }
+                            });
+                        }
+                    }
+                });
+            }
+        }
+
+        APICaller.getApiCall().streamRecipeList(email, cursor, pageSize).enqueue(new Callback<ResponseBody>() {
+            @Override
+            public void onResponse(Call<ResponseBody> call, final Response<ResponseBody> response) {
+                if (!response.isSuccessful() || response.body() == null) {
+                    Log.e(TAG_RECIPE_REPO, "Could not get recipe stubs " + response.message());
+                    callback.onError(cursor);
+                    return;
+                }
+
+                // Only headers were read so far, parse the body as it arrives off the main thread
+                parseExecutor.execute(new Runnable() {
+                    @Override
+                    public void run() {
+                        parsePage(email, cursor, response.body(), callback);
+                    }
+                });
+            }
+
+            @Override
+            public void onFailure(Call<ResponseBody> call, Throwable t) {
+                Log.e(TAG_RECIPE_REPO, "Could not get recipe stubs", t);
+                callback.onError(cursor);
+            }
+        });
+    }
+
+    private void parsePage(final String email, final String cursor, ResponseBody body,
+                           final PageCallback callback) {
+        RecipeStubStreamParser.Listener listener = new RecipeStubStreamParser.Listener() {
+            @Override
+            public void onStubs(@NonNull final List<RecipeStub> stubs) {
+                mainHandler.post(new Runnable() {
+                    @Override
+                    public void run() {
+                        callback.onStubs(cursor, stubs);
+                    }
+                });
+            }
+        };
+
+        final RecipePage page;
+        try {
+            if (RecipeBinaryFormat.isBinary(body.contentType())) {
+                page = RecipeBinaryFormat.decodeStubPage(body.byteStream(), chunked(listener));
+            } else {
+                page = new RecipeStubStreamParser(gson, STREAM_CHUNK_SIZE).parse(body.charStream(), listener);
+            }
+        } catch (IOException | JsonParseException e) {
+            Log.e(TAG_RECIPE_REPO, "Could not parse recipe stubs", e);
+
+            mainHandler.post(new Runnable() {
+                @Override
+                public void run() {
+                    callback.onError(cursor);
+                }
+            });
+            return;
+        } finally {
+            body.close();
+        }
+
+        if (cursor == null) {
+            firstPages.put(email, page);
+            database.putRecipeList(email, gson.toJson(page));
+        }
+
+        mainHandler.post(new Runnable() {
+            @Override
+            public void run() {
+                callback.onPage(cursor, page);
+            }
+        });
+    }
+
+    /**
+     * Groups stubs decoded one at a time into chunks like the JSON parser does, the final page
+     * delivers any remainder
+     */
+    private static RecipeBinaryFormat.StubListener chunked(final RecipeStubStreamParser.Listener listener) {
+        return new RecipeBinaryFormat.StubListener() {
+            private List<RecipeStub> chunk = new ArrayList<>(STREAM_CHUNK_SIZE);
+
+            @Override
+            public void onStub(@NonNull RecipeStub stub) {
+                chunk.add(stub);
+
+                if (chunk.size() == STREAM_CHUNK_SIZE) {
+                    listener.onStubs(chunk);
+                    chunk = new ArrayList<>(STREAM_CHUNK_SIZE);
+                }
+            }
+        };
+    }
+
+    /**
+     * Posts a recipe suggestion for the given user to result. Suggestions are never cached, but
+     * the suggested recipe is fetched right away so opening it renders from memory.
+     */
+    public void getRecipeSuggestion(@NonNull String email, @NonNull final MutableLiveData<RecipeID> result) {
+        APICaller.getApiCall().getRecipeSuggestion(email).enqueue(new Callback<RecipeID>() {
+            @Override
+            public void onResponse(Call<RecipeID> call, Response<RecipeID> response) {
+                RecipeID id = response.body();
+
+                if (response.isSuccessful() && id != null) {
+                    result.postValue(id);
+
+                    if (recipes.get(id) == null) {
+                        getRecipe(id, new MutableLiveData<Recipe>());
+                    }
+                } else {
+                    Log.e(TAG_RECIPE_REPO, "Could not get recipe suggestion " + response.message());
+                }
+            }
+
+            @Override
+            public void onFailure(Call<RecipeID> call, Throwable t) {
+                Log.e(TAG_RECIPE_REPO, "Could not get recipe suggestion", t);
+            }
+        });
+    }
+
+    private void putRecipe(final RecipeID id, final Recipe recipe) {
+        recipes.put(id, recipe);
+
+        diskExecutor.execute(new Runnable() {
+            @Override
+            public void run() {
+                database.putRecipe(id.getId(), gson.toJson(recipe));
+            }
+        });
+    }
+
+    private <T> T fromJson(String json, Type type) {
+        if (json == null) {
+            return null;
+        }
+
+        try {
+            return gson.fromJson(json, type);
+        } catch (JsonParseException e) {
+            Log.e(TAG_RECIPE_REPO, "Corrupted local recipe data", e);
+            return null;
+        }
+    }
+}
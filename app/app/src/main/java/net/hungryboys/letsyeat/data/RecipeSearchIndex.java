@@ -0,0 +1,300 @@
+package net.hungryboys.letsyeat.data;
+
+import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
+
+import java.text.Normalizer;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Immutable in-memory inverted index over the local catalog, to search recipes without a server
+ * round trip. Recipe names and ingredient names are split in words, a query matches the recipes
+ * having, for every word of the query, a word starting with it ("chick pas" finds "Chicken pasta").
+ * Tags are kept as one {@link TagSet} per recipe, so filtering on tags is a single AND per recipe.
+ * <p>
+ * Results are in catalog order, the same as the browse list.
+ */
+final class RecipeSearchIndex {
+
+    private static final int[] NO_POSTINGS = new int[0];
+
+    // Document number -> recipe, in insertion (catalog) order
+    private final RecipeStub[] recipes;
+    // Sorted words, with the ascending document numbers containing each
+    private final String[] terms;
+    private final int[][] postings;
+    // Document number -> tags of the recipe
+    private final TagSet[] tags;
+
+    private RecipeSearchIndex(RecipeStub[] recipes, String[] terms, int[][] postings, TagSet[] tags) {
+        this.recipes = recipes;
+        this.terms = terms;
+        this.postings = postings;
+        this.tags = tags;
+    }
+
+    /**
+     * @return number of recipes indexed
+     */
+    int size() {
+        return recipes.length;
+    }
+
+    /**
+     * @return approximate heap size of the index in bytes, not counting the recipes themselves
+     * (64 bit VM, compressed references)
+     */
+    long estimateBytes() {
+        long bytes = arrayBytes(recipes.length, 4) + arrayBytes(terms.length, 4)
+                + arrayBytes(postings.length, 4) + arrayBytes(tags.length, 4);
+
+        for (int t = 0; t < terms.length; t++) {
+            // String object + its characters
+            bytes += 24 + arrayBytes(terms[t].length(), 2) + arrayBytes(postings[t].length, 4);
+        }
+
+        // Recipes with the same tags share a TagSet, count each once
+        Set<TagSet> distinct = new HashSet<>(Arrays.asList(tags));
+        bytes += distinct.size() * 32L;
+
+        return bytes;
+    }
+
+    private static long arrayBytes(int length, int elementBytes) {
+        return (16 + (long) length * elementBytes + 7) / 8 * 8;
+    }
+
+    /**
+     * @param query words to look for, empty to filter on tags only
+     * @param tags tags the recipes must all have
+     * @param limit maximum number of results
+     * @return matching recipes, in catalog order
+     */
+    @NonNull
+    List<RecipeStub> search(@NonNull String query, @NonNull TagSet tags, int limit) {
+        BitSet matches = null;
+
+        for (String word : tokenize(query)) {
+            BitSet prefixed = new BitSet(recipes.length);
+
+            // All the words starting with the query word are next to each other
+            for (int t = lowerBound(word); t < terms.length && terms[t].startsWith(word); t++) {
+                for (int doc : postings[t]) {
+                    prefixed.set(doc);
+                }
+            }
+
+            if (matches == null) {
+                matches = prefixed;
+            } else {
+                matches.and(prefixed);
+            }
+
+            if (matches.isEmpty()) {
+                break;
+            }
+        }
+
+        List<RecipeStub> results = new ArrayList<>(Math.min(limit, recipes.length));
+
+        if (matches == null) {
+            for (int doc = 0; doc < recipes.length && results.size() < limit; doc++) {
+                if (this.tags[doc].containsAll(tags)) {
+                    results.add(recipes[doc]);
+                }
+            }
+        } else {
+            for (int doc = matches.nextSetBit(0); doc >= 0 && results.size() < limit;
+                 doc = matches.nextSetBit(doc + 1)) {
+                if (this.tags[doc].containsAll(tags)) {
+                    results.add(recipes[doc]);
+                }
+            }
+        }
+
+        return results;
+    }
+
+    /**
+     * Appends the server results missing from the local ones, so recipes found locally keep
+     * their place while the server answers.
+     */
+    @NonNull
+    static List<RecipeStub> merge(@NonNull List<RecipeStub> local, @NonNull List<RecipeStub> remote,
+                                  int limit) {
+        List<RecipeStub> merged = new ArrayList<>(Math.min(limit, local.size() + remote.size()));
+        Set<RecipeID> seen = new HashSet<>();
+
+        for (RecipeStub stub : local) {
+            if (merged.size() < limit && seen.add(stub.getId())) {
+                merged.add(stub);
+            }
+        }
+
+        for (RecipeStub stub : remote) {
+            if (merged.size() < limit && seen.add(stub.getId())) {
+                merged.add(stub);
+            }
+        }
+
+        return merged;
+    }
+
+    /**
+     * Lower case words of text, accents removed, as indexed and searched
+     */
+    @NonNull
+    static List<String> tokenize(@Nullable String text) {
+        List<String> words = new ArrayList<>();
+
+        if (text == null) {
+            return words;
+        }
+
+        String normalized = normalize(text);
+        int start = -1;
+
+        for (int i = 0; i < normalized.length(); i++) {
+            if (Character.isLetterOrDigit(normalized.charAt(i))) {
+                if (start < 0) {
+                    start = i;
+                }
+            } else if (start >= 0) {
+                words.add(normalized.substring(start, i));
+                start = -1;
+            }
+        }
+
+        if (start >= 0) {
+            words.add(normalized.substring(start));
+        }
+
+        return words;
+    }
+
+    private static String normalize(String text) {
+        String lower = text.toLowerCase(Locale.ROOT);
+
+        for (int i = 0; i < lower.length(); i++) {
+            if (lower.charAt(i) > 0x7f) {
+                // Decompose accented letters into letter + accent, then drop the accents
+                return Normalizer.normalize(lower, Normalizer.Form.NFD)
+                        .replaceAll("\\p{InCombiningDiacriticalMarks}+", "");
+            }
+        }
+
+        return lower;
+    }
+
+    /**
+     * @return index of the first term >= word
+     */
+    private int lowerBound(String word) {
+        int low = 0;
+        int high = terms.length;
+
+        while (low < high) {
+            int middle = (low + high) >>> 1;
+
+            if (terms[middle].compareTo(word) < 0) {
+                low = middle + 1;
+            } else {
+                high = middle;
+            }
+        }
+
+        return low;
+    }
+
+    /**
+     * Collects recipes in catalog order, then freezes them in an index.
+     */
+    static final class Builder {
+
+        private final List<RecipeStub> recipes = new ArrayList<>();
+        private final Map<String, Postings> terms = new HashMap<>();
+        private final List<TagSet> tags = new ArrayList<>();
+        // Few distinct tag combinations, recipes having the same share one instance
+        private final Map<TagSet, TagSet> interned = new HashMap<>();
+
+        void add(@NonNull RecipeStub recipe, @NonNull String[] ingredientNames, @NonNull String[] tags) {
+            int doc = recipes.size();
+            recipes.add(recipe);
+
+            addWords(doc, recipe.getName());
+            for (String name : ingredientNames) {
+                addWords(doc, name);
+            }
+
+            TagSet tagSet = TagSet.of(tags);
+            TagSet shared = interned.get(tagSet);
+
+            if (shared == null) {
+                interned.put(tagSet, tagSet);
+                shared = tagSet;
+            }
+
+            this.tags.add(shared);
+        }
+
+        @NonNull
+        RecipeSearchIndex build() {
+            String[] sorted = terms.keySet().toArray(new String[0]);
+            Arrays.sort(sorted);
+
+            int[][] postings = new int[sorted.length][];
+            for (int t = 0; t < sorted.length; t++) {
+                postings[t] = terms.get(sorted[t]).toArray();
+            }
+
+            return new RecipeSearchIndex(recipes.toArray(new RecipeStub[0]), sorted, postings,
+                    tags.toArray(new TagSet[0]));
+        }
+
+        private void addWords(int doc, String text) {
+            for (String word : tokenize(text)) {
+                Postings docs = terms.get(word);
+
+                if (docs == null) {
+                    docs = new Postings();
+                    terms.put(word, docs);
+                }
+
+                docs.add(doc);
+            }
+        }
+    }
+
+    /**
+     * Growable list of ascending document numbers, without duplicates
+     */
+    private static final class Postings {
+
+        private int[] docs = NO_POSTINGS;
+        private int size;
+
+        void add(int doc) {
+            if (size > 0 && docs[size - 1] == doc) {
+                return;
+            }
+
+            if (size == docs.length) {
+                docs = Arrays.copyOf(docs, Math.max(4, size * 2));
+            }
+
+            docs[size++] = doc;
+        }
+
+        int[] toArray() {
+            return Arrays.copyOf(docs, size);
+        }
+    }
+}
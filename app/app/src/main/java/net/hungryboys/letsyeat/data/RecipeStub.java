@@ -1,12 +1,17 @@
 package net.hungryboys.letsyeat.data;
 
-import android.os.Bundle;
 import android.os.Parcel;
 import android.os.Parcelable;
 
+import net.hungryboys.letsyeat.processor.GenerateTypeAdapter;
+
+import java.util.Arrays;
+import java.util.Locale;
+
 /**
  *
  */
+@GenerateTypeAdapter
 public final class RecipeStub implements Parcelable {
     private final RecipeID id;
     private final String name;
@@ -14,6 +19,11 @@ public final class RecipeStub implements Parcelable {
     private final int time;
     private final double difficulty;
 
+    // Display strings, built on first use and kept so that rebinding the stub allocates nothing
+    private transient String timeString;
+    private transient String difficultyString;
+    private transient Locale difficultyLocale;
+
     public static RecipeStub placeholder() {
         return new RecipeStub(RecipeID.placeholder(),
                 "Pasta Bolognese", "", 170, 3.0);
@@ -28,13 +38,11 @@ public final class RecipeStub implements Parcelable {
     }
 
     private RecipeStub(Parcel in) {
-        Bundle bundle = in.readBundle(getClass().getClassLoader());
-
-        id = (RecipeID) bundle.getSerializable("id");
-        name = bundle.getString("name");
-        pictureUrl = bundle.getString("pictureUrl");
-        time = bundle.getInt("time");
-        difficulty = bundle.getDouble("difficulty");
+        id = RecipeID.CREATOR.createFromParcel(in);
+        name = in.readString();
+        pictureUrl = in.readString();
+        time = in.readInt();
+        difficulty = in.readDouble();
     }
 
     public RecipeID getId() {
@@ -58,7 +66,48 @@ public final class RecipeStub implements Parcelable {
     }
 
     public String getTimeString() {
-        return (time / 60) + ":" + (time % 60);
+        String string = timeString;
+
+        if (string == null) {
+            string = (time / 60) + ":" + (time % 60);
+            timeString = string;
+        }
+
+        return string;
+    }
+
+    /**
+     * @return difficulty with one decimal, in the default locale
+     */
+    public String getDifficultyString() {
+        Locale locale = Locale.getDefault();
+        String string = difficultyString;
+
+        if (string == null || !locale.equals(difficultyLocale)) {
+            string = String.format(locale, "%.1f", difficulty);
+            difficultyLocale = locale;
+            difficultyString = string;
+        }
+
+        return string;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) return true;
+        if (o == null || getClass() != o.getClass()) return false;
+        RecipeStub that = (RecipeStub) o;
+        return time == that.time &&
+                Double.compare(that.difficulty, difficulty) == 0 &&
+                id.equals(that.id) &&
+                (name == null ? that.name == null : name.equals(that.name)) &&
+                (pictureUrl == null ? that.pictureUrl == null : pictureUrl.equals(that.pictureUrl));
+    }
+
+    @Override
+    public int hashCode() {
+        Object[] fields = {id, name, pictureUrl, time, difficulty};
+        return Arrays.hashCode(fields);
     }
 
     @Override
@@ -68,14 +117,12 @@ public final class RecipeStub implements Parcelable {
 
     @Override
     public void writeToParcel(Parcel dest, int flags) {
-        Bundle bundle = new Bundle(getClass().getClassLoader());
-        bundle.putSerializable("id", id);
-        bundle.putString("name", name);
-        bundle.putString("pictureUrl", pictureUrl);
-        bundle.putInt("time", time);
-        bundle.putDouble("difficulty", difficulty);
-
-        dest.writeBundle(bundle);
+        // Fields are written in a fixed order, no Bundle keys or class names
+        id.writeToParcel(dest, flags);
+        dest.writeString(name);
+        dest.writeString(pictureUrl);
+        dest.writeInt(time);
+        dest.writeDouble(difficulty);
     }
 
     public static final Parcelable.Creator<RecipeStub> CREATOR = new Parcelable.Creator<RecipeStub>() {
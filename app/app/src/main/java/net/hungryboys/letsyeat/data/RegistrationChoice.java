@@ -1,23 +1,27 @@
 package net.hungryboys.letsyeat.data;
 
 import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
 
 import com.google.gson.annotations.Expose;
 import com.google.gson.annotations.SerializedName;
 
+import net.hungryboys.letsyeat.processor.GenerateTypeAdapter;
+
 import java.io.Serializable;
-import java.util.Arrays;
 import java.util.Calendar;
 
+@GenerateTypeAdapter
 public class RegistrationChoice implements Serializable {
 
     @Expose
     @SerializedName("tags")
-    private final String[] tags;
+    private final TagSet tags;
 
+    // Never handed out, package-private only for the generated TypeAdapter
     @Expose
     @SerializedName("time")
-    private final Calendar time;
+    final Calendar time;
 
     @Expose
     @SerializedName("difficulty")
@@ -28,7 +32,7 @@ public class RegistrationChoice implements Serializable {
     public static final double DEFAULT_DIFFICULTY = 3.0;
 
     public static class Builder implements Serializable {
-        private String[] tags = new String[0];
+        private TagSet tags = TagSet.EMPTY;
         private Calendar time;
         private double difficulty = DEFAULT_DIFFICULTY;
 
@@ -38,8 +42,8 @@ public class RegistrationChoice implements Serializable {
             time.set(Calendar.MINUTE, DEFAULT_MINUTES);
         }
 
-        public void setTags(@NonNull String[] tags) {
-            this.tags = Arrays.copyOf(tags, tags.length);
+        public void setTags(@NonNull TagSet tags) {
+            this.tags = tags;
         }
 
         public void setTime(@NonNull Calendar time) {
@@ -55,20 +59,43 @@ public class RegistrationChoice implements Serializable {
         }
     }
 
-    public RegistrationChoice(@NonNull String[] tags, @NonNull Calendar time, double difficulty) {
-        this.tags = Arrays.copyOf(tags, tags.length);
+    /**
+     * @param tags null, e.g. missing from the JSON, is taken as none
+     */
+    public RegistrationChoice(@Nullable TagSet tags, @NonNull Calendar time, double difficulty) {
+        this.tags = tags == null ? TagSet.EMPTY : tags;
         this.time = (Calendar) time.clone();
         this.difficulty = difficulty;
     }
 
-    public String[] getTags() {
-        return Arrays.copyOf(tags, tags.length);
+    public TagSet getTags() {
+        return tags;
+    }
+
+    public int getTagCount() {
+        return tags.size();
+    }
+
+    public String getTag(int index) {
+        return tags.get(index);
     }
 
+    /**
+     * @return a copy of the chosen time, prefer {@link #getHourOfDay()} and {@link #getMinute()}
+     * which don't allocate
+     */
     public Calendar getTime() {
         return (Calendar) time.clone();
     }
 
+    public int getHourOfDay() {
+        return time.get(Calendar.HOUR_OF_DAY);
+    }
+
+    public int getMinute() {
+        return time.get(Calendar.MINUTE);
+    }
+
     public double getDifficulty() {
         return difficulty;
     }
@@ -77,7 +104,7 @@ public class RegistrationChoice implements Serializable {
     @NonNull
     public String toString() {
         return "RegistrationChoice{" +
-                "tags=" + Arrays.toString(tags) +
+                "tags=" + tags +
                 ", time=" + time +
                 ", difficulty=" + difficulty +
                 '}';
@@ -0,0 +1,135 @@
+package net.hungryboys.letsyeat.data;
+
+import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+
+/**
+ * Server search results by (query, tags), least recently used dropped first. A query extending a
+ * cached one is answered from its results when they were not cut by the limit: the server keeps
+ * the recipes whose name contains every word, so "chick" can only find recipes "chic" found.
+ * Must be used from the main thread.
+ */
+final class SearchResultCache {
+
+    private static final class Entry {
+        final List<RecipeStub> results;
+        // False if the server may have had more results than the limit
+        final boolean complete;
+
+        Entry(List<RecipeStub> results, boolean complete) {
+            this.results = results;
+            this.complete = complete;
+        }
+    }
+
+    private final Map<String, Entry> entries;
+
+    SearchResultCache(final int maxEntries) {
+        entries = new LinkedHashMap<String, Entry>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, Entry> eldest) {
+                return size() > maxEntries;
+            }
+        };
+    }
+
+    /**
+     * @return server results for query and tags, from the cache or narrowed from a cached prefix
+     * of query, null if the server has to be asked
+     */
+    @Nullable
+    List<RecipeStub> get(@NonNull String query, @NonNull TagSet tags, int limit) {
+        String normalized = normalizeQuery(query);
+        String tagKey = tagKey(tags);
+
+        Entry exact = entries.get(key(normalized, tagKey));
+        if (exact != null && (exact.complete || exact.results.size() >= limit)) {
+            return exact.results;
+        }
+
+        // Longest cached prefix first, it has the fewest results to filter
+        for (int end = normalized.length() - 1; end > 0; end--) {
+            if (normalized.charAt(end - 1) == ' ') {
+                continue;
+            }
+
+            Entry prefix = entries.get(key(normalized.substring(0, end), tagKey));
+
+            if (prefix != null && prefix.complete) {
+                List<RecipeStub> narrowed = filter(prefix.results, normalized);
+                entries.put(key(normalized, tagKey), new Entry(narrowed, true));
+                return narrowed;
+            }
+        }
+
+        return null;
+    }
+
+    /**
+     * @param results server answer for query and tags, requested with limit
+     */
+    void put(@NonNull String query, @NonNull TagSet tags, int limit,
+             @NonNull List<RecipeStub> results) {
+        entries.put(key(normalizeQuery(query), tagKey(tags)),
+                new Entry(Collections.unmodifiableList(new ArrayList<>(results)), results.size() < limit));
+    }
+
+    void clear() {
+        entries.clear();
+    }
+
+    /**
+     * Lower case words separated by single spaces, so queries typed differently but searching the
+     * same share an entry and a prefix of the query is a prefix of the string
+     */
+    @NonNull
+    static String normalizeQuery(@NonNull String query) {
+        return query.trim().replaceAll("\\s+", " ").toLowerCase(Locale.ROOT);
+    }
+
+    /**
+     * What the server returns for query among candidates
+     */
+    private static List<RecipeStub> filter(List<RecipeStub> candidates, String query) {
+        String[] words = query.split(" ");
+        List<RecipeStub> kept = new ArrayList<>();
+
+        for (RecipeStub stub : candidates) {
+            String name = stub.getName() == null ? "" : stub.getName().toLowerCase(Locale.ROOT);
+            boolean matches = true;
+
+            for (String word : words) {
+                matches &= name.contains(word);
+            }
+
+            if (matches) {
+                kept.add(stub);
+            }
+        }
+
+        return Collections.unmodifiableList(kept);
+    }
+
+    /**
+     * Tags of a TagSet always come in the same order, equal sets give equal keys
+     */
+    private static String tagKey(TagSet tags) {
+        StringBuilder key = new StringBuilder();
+        for (int i = 0; i < tags.size(); i++) {
+            key.append(tags.get(i)).append(',');
+        }
+
+        return key.toString();
+    }
+
+    private static String key(String normalizedQuery, String tagKey) {
+        return normalizedQuery + '\n' + tagKey;
+    }
+}
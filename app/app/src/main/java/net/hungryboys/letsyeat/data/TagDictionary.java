@@ -0,0 +1,71 @@
+package net.hungryboys.letsyeat.data;
+
+import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+/**
+ * Process-wide numbering of tag names for {@link TagSet}. Starts with the vocabulary the recipe
+ * parser assigns (parser/tags.json), tags the server sends that aren't in it are added on first
+ * sight, up to {@link #CAPACITY}. Numbers are only valid in this process, never persist them.
+ */
+final class TagDictionary {
+
+    static final int CAPACITY = Long.SIZE;
+
+    // Same order as parser/tags.json, spelling included since it is what recipes are tagged with
+    static final String[] VOCABULARY = {
+            "beef", "turkey", "chicken", "fish", "pork", "vegan", "vegertarian", "easy", "quick",
+            "aisan", "chinese", "japanese", "thai", "vietnamese", "pasta", "pizza"
+    };
+
+    // Read without locking, written once per bit under the lock
+    private static final AtomicReferenceArray<String> names = new AtomicReferenceArray<>(CAPACITY);
+    private static final Map<String, Integer> bits = new HashMap<>();
+    private static int size;
+
+    static {
+        for (String tag : VOCABULARY) {
+            intern(tag);
+        }
+    }
+
+    private TagDictionary() {
+    }
+
+    /**
+     * @return bit number of tag, -1 if it isn't in the dictionary
+     */
+    static synchronized int bit(@NonNull String tag) {
+        Integer bit = bits.get(tag);
+        return bit == null ? -1 : bit;
+    }
+
+    /**
+     * @return bit number of tag, added if needed, -1 if the dictionary is full
+     */
+    static synchronized int intern(@NonNull String tag) {
+        Integer bit = bits.get(tag);
+
+        if (bit != null) {
+            return bit;
+        } else if (size == CAPACITY) {
+            return -1;
+        }
+
+        names.set(size, tag);
+        bits.put(tag, size);
+        return size++;
+    }
+
+    /**
+     * @return the tag numbered bit, null if none
+     */
+    @Nullable
+    static String name(int bit) {
+        return names.get(bit);
+    }
+}
@@ -0,0 +1,303 @@
+package net.hungryboys.letsyeat.data;
+
+import androidx.annotation.NonNull;
+
+import com.google.gson.TypeAdapter;
+import com.google.gson.annotations.JsonAdapter;
+import com.google.gson.stream.JsonReader;
+import com.google.gson.stream.JsonToken;
+import com.google.gson.stream.JsonWriter;
+
+import java.io.IOException;
+import java.io.Serializable;
+import java.util.AbstractList;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.List;
+
+/**
+ * Immutable set of tags, one bit of a long per tag of the {@link TagDictionary}, so comparing or
+ * filtering on tags is a single AND. Tags beyond the dictionary capacity, which shouldn't happen
+ * with the fixed vocabulary, are kept aside as strings.
+ * <p>
+ * Tags are iterated in dictionary order. On the wire it is still a JSON array of strings.
+ */
+@JsonAdapter(TagSet.GsonAdapter.class)
+public final class TagSet implements Serializable {
+
+    private static final String[] NO_TAGS = new String[0];
+
+    public static final TagSet EMPTY = new TagSet(0, NO_TAGS);
+
+    private static final TagSet VOCABULARY = of(TagDictionary.VOCABULARY);
+
+    private final long bits;
+    // Sorted, usually empty
+    private final String[] others;
+
+    private transient List<String> list;
+
+    private TagSet(long bits, String[] others) {
+        this.bits = bits;
+        this.others = others;
+    }
+
+    public static TagSet of(@NonNull String... tags) {
+        return of(Arrays.asList(tags));
+    }
+
+    public static TagSet of(@NonNull Collection<String> tags) {
+        long bits = 0;
+        List<String> others = null;
+
+        for (String tag : tags) {
+            int bit = TagDictionary.intern(tag);
+
+            if (bit >= 0) {
+                bits |= 1L << bit;
+            } else {
+                if (others == null) {
+                    others = new ArrayList<>();
+                }
+                if (!others.contains(tag)) {
+                    others.add(tag);
+                }
+            }
+        }
+
+        return create(bits, others == null ? NO_TAGS : others.toArray(new String[0]));
+    }
+
+    /**
+     * @return every tag recipes can be given, for tag pickers
+     */
+    public static TagSet vocabulary() {
+        return VOCABULARY;
+    }
+
+    /**
+     * @return this set with tag added, allocates nothing if it is already in
+     */
+    public TagSet with(@NonNull String tag) {
+        int bit = TagDictionary.intern(tag);
+
+        if (bit >= 0) {
+            return (bits & 1L << bit) != 0 ? this : new TagSet(bits | 1L << bit, others);
+        } else if (Arrays.binarySearch(others, tag) >= 0) {
+            return this;
+        }
+
+        String[] added = Arrays.copyOf(others, others.length + 1);
+        added[others.length] = tag;
+        return create(bits, added);
+    }
+
+    /**
+     * @return this set without tag, allocates nothing if it wasn't in
+     */
+    public TagSet without(@NonNull String tag) {
+        int bit = TagDictionary.bit(tag);
+
+        if (bit >= 0) {
+            return (bits & 1L << bit) == 0 ? this : create(bits & ~(1L << bit), others);
+        }
+
+        int index = Arrays.binarySearch(others, tag);
+        if (index < 0) {
+            return this;
+        }
+
+        String[] removed = new String[others.length - 1];
+        System.arraycopy(others, 0, removed, 0, index);
+        System.arraycopy(others, index + 1, removed, index, removed.length - index);
+        return create(bits, removed);
+    }
+
+    public boolean contains(@NonNull String tag) {
+        int bit = TagDictionary.bit(tag);
+        return bit >= 0 ? (bits & 1L << bit) != 0 : Arrays.binarySearch(others, tag) >= 0;
+    }
+
+    /**
+     * @return true if every tag of tags is in this set, e.g. a recipe matching a filter
+     */
+    public boolean containsAll(@NonNull TagSet tags) {
+        if ((bits & tags.bits) != tags.bits) {
+            return false;
+        }
+
+        for (String tag : tags.others) {
+            if (Arrays.binarySearch(others, tag) < 0) {
+                return false;
+            }
+        }
+
+        return true;
+    }
+
+    /**
+     * @return true if at least one tag is in both sets
+     */
+    public boolean intersects(@NonNull TagSet tags) {
+        if ((bits & tags.bits) != 0) {
+            return true;
+        }
+
+        for (String tag : tags.others) {
+            if (Arrays.binarySearch(others, tag) >= 0) {
+                return true;
+            }
+        }
+
+        return false;
+    }
+
+    public boolean isEmpty() {
+        return bits == 0 && others.length == 0;
+    }
+
+    public int size() {
+        return Long.bitCount(bits) + others.length;
+    }
+
+    /**
+     * @return the tag at index in iteration order, without allocating
+     */
+    public String get(int index) {
+        int count = Long.bitCount(bits);
+
+        if (index < 0 || index >= count + others.length) {
+            throw new IndexOutOfBoundsException("Index " + index + ", size " + size());
+        } else if (index >= count) {
+            return others[index - count];
+        }
+
+        long remaining = bits;
+        for (int i = 0; i < index; i++) {
+            remaining &= remaining - 1;
+        }
+
+        return TagDictionary.name(Long.numberOfTrailingZeros(remaining));
+    }
+
+    /**
+     * @return read-only list view, the same instance on every call
+     */
+    public List<String> asList() {
+        if (list == null) {
+            list = new AbstractList<String>() {
+                @Override
+                public String get(int index) {
+                    return TagSet.this.get(index);
+                }
+
+                @Override
+                public int size() {
+                    return TagSet.this.size();
+                }
+            };
+        }
+
+        return list;
+    }
+
+    public String[] toArray() {
+        String[] tags = new String[size()];
+
+        for (int i = 0; i < tags.length; i++) {
+            tags[i] = get(i);
+        }
+
+        return tags;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) {
+            return true;
+        } else if (!(o instanceof TagSet)) {
+            return false;
+        }
+
+        TagSet tagSet = (TagSet) o;
+        return bits == tagSet.bits && Arrays.equals(others, tagSet.others);
+    }
+
+    @Override
+    public int hashCode() {
+        return 31 * (int) (bits ^ (bits >>> 32)) + Arrays.hashCode(others);
+    }
+
+    @Override
+    @NonNull
+    public String toString() {
+        return asList().toString();
+    }
+
+    private static TagSet create(long bits, String[] others) {
+        if (bits == 0 && others.length == 0) {
+            return EMPTY;
+        }
+
+        Arrays.sort(others);
+        return new TagSet(bits, others);
+    }
+
+    /**
+     * Bit numbers only mean something in this process, serialize the names instead
+     */
+    private Object writeReplace() {
+        return new SerializedForm(toArray());
+    }
+
+    private static final class SerializedForm implements Serializable {
+        private final String[] tags;
+
+        SerializedForm(String[] tags) {
+            this.tags = tags;
+        }
+
+        private Object readResolve() {
+            return of(tags);
+        }
+    }
+
+    /**
+     * Reads and writes a JSON array of tag names, as tags always were sent
+     */
+    public static final class GsonAdapter extends TypeAdapter<TagSet> {
+
+        @Override
+        public void write(JsonWriter out, TagSet value) throws IOException {
+            if (value == null) {
+                out.nullValue();
+                return;
+            }
+
+            out.beginArray();
+            for (int i = 0; i < value.size(); i++) {
+                out.value(value.get(i));
+            }
+            out.endArray();
+        }
+
+        @Override
+        public TagSet read(JsonReader in) throws IOException {
+            if (in.peek() == JsonToken.NULL) {
+                in.nextNull();
+                return null;
+            }
+
+            List<String> tags = new ArrayList<>();
+
+            in.beginArray();
+            while (in.hasNext()) {
+                tags.add(in.nextString());
+            }
+            in.endArray();
+
+            return of(tags);
+        }
+    }
+}
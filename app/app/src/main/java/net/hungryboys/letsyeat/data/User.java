@@ -7,11 +7,14 @@ import com.google.android.gms.auth.api.signin.GoogleSignInAccount;
 import com.google.gson.annotations.Expose;
 import com.google.gson.annotations.SerializedName;
 
+import net.hungryboys.letsyeat.processor.GenerateTypeAdapter;
+
 import java.io.Serializable;
 
 /**
  * Data class that captures user information for logged in users retrieved from LoginRepository
  */
+@GenerateTypeAdapter
 public class User implements Serializable {
 
     @Expose
@@ -41,6 +44,13 @@ public class User implements Serializable {
 
     }
 
+    User(boolean fromGoogle, String email, String secret, String firebaseToken) {
+        this.fromGoogle = fromGoogle;
+        this.email = email;
+        this.secret = secret;
+        this.firebaseToken = firebaseToken;
+    }
+
     public User(GoogleSignInAccount account, String firebaseToken) {
         fromGoogle = true;
 
@@ -58,4 +68,12 @@ public class User implements Serializable {
     public String getEmail() {
         return email;
     }
+
+    String getSecret() {
+        return secret;
+    }
+
+    String getFirebaseToken() {
+        return firebaseToken;
+    }
 }
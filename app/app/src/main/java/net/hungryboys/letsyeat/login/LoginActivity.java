@@ -74,7 +74,8 @@ public class LoginActivity extends AppCompatActivity {
             new OnCompleteListener<InstanceIdResult>() {
                 @Override
                 public void onComplete(@NonNull Task<InstanceIdResult> task) {
-                    InstanceIdResult result = task.getResult();
+                    // getResult() throws if the task failed, e.g. offline
+                    InstanceIdResult result = task.isSuccessful() ? task.getResult() : null;
                     if (result != null) {
                         loginViewModel.setFirebaseToken(result.getToken());
                     } else {
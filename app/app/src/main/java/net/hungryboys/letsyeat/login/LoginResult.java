@@ -9,9 +9,12 @@ import com.google.gson.annotations.SerializedName;
 
 import net.hungryboys.letsyeat.data.User;
 
+import net.hungryboys.letsyeat.processor.GenerateTypeAdapter;
+
 /**
  * Authentication result : success (user details) or error message.
  */
+@GenerateTypeAdapter
 public class LoginResult {
 
     @Expose
@@ -43,6 +46,13 @@ public class LoginResult {
         return new LoginResult(true, needsRegistration, serverAuthToken, null);
     }
 
+    LoginResult(boolean success, boolean loggedIn, boolean needsRegistration, String serverAuthToken) {
+        this.success = success;
+        this.loggedIn = loggedIn;
+        this.needsRegistration = needsRegistration;
+        this.serverAuthToken = serverAuthToken;
+    }
+
     private LoginResult(boolean success, boolean needsRegistration,
                         String serverAuthToken, @StringRes Integer errorString) {
         this.success = success;
@@ -55,6 +65,10 @@ public class LoginResult {
         return success;
     }
 
+    boolean isLoggedIn() {
+        return loggedIn;
+    }
+
     public boolean needsRegistration() {
         return needsRegistration;
     }
@@ -36,19 +36,13 @@ public class LoginViewModel extends ViewModel {
     }
 
     public void login(String email, String password) {
-        if (firebaseToken != null) {
-            User user = new User(email, password, firebaseToken);
-            loginToServer(user);
-        } else {
-            Log.e(TAG_LOGIN_VM, "Firebase Token is null");
-        }
+        warnIfNoFirebaseToken();
+        User user = new User(email, password, firebaseToken);
+        loginToServer(user);
     }
 
     public void loginFromGoogle(Task<GoogleSignInAccount> completedLogin) {
-        if (firebaseToken == null) {
-            Log.e(TAG_LOGIN_VM, "Firebase token is null");
-            return;
-        }
+        warnIfNoFirebaseToken();
 
         try {
             GoogleSignInAccount account = completedLogin.getResult(ApiException.class);
@@ -96,6 +90,16 @@ public class LoginViewModel extends ViewModel {
     }
 
     public void setFirebaseToken(String token) {
-        this.firebaseToken = firebaseToken;
+        this.firebaseToken = token;
+    }
+
+    /**
+     * The token is only needed for notifications, without Play Services or offline there is none
+     * and logging in still works
+     */
+    private void warnIfNoFirebaseToken() {
+        if (firebaseToken == null) {
+            Log.w(TAG_LOGIN_VM, "Firebase token is null, cook notifications won't be delivered");
+        }
     }
 }
@@ -9,11 +9,17 @@ import android.util.Log;
 
 import net.hungryboys.letsyeat.R;
 import net.hungryboys.letsyeat.data.RecipeID;
+import net.hungryboys.letsyeat.data.RecipeStub;
 import net.hungryboys.letsyeat.navigation.NavigationFragment;
 
 public class RecipeActivity extends AppCompatActivity {
 
     public static final String EXTRA_RECIPE_ID = "recipe_id";
+
+    /**
+     * Optional, summary of the recipe shown while the full recipe loads
+     */
+    public static final String EXTRA_RECIPE_STUB = "recipe_stub";
     private static final String TAG_RECIPE = "RecipeActivity";
 
     @Override
@@ -24,12 +30,18 @@ public class RecipeActivity extends AppCompatActivity {
         Bundle extras = getIntent().getExtras();
 
         if (extras != null) {
-            RecipeID recipeID = (RecipeID) extras.getSerializable(EXTRA_RECIPE_ID);
+            RecipeID recipeID = extras.getParcelable(EXTRA_RECIPE_ID);
+            RecipeStub stub = extras.getParcelable(EXTRA_RECIPE_STUB);
 
             FragmentManager fragmentManager = getSupportFragmentManager();
 
             FragmentTransaction recipeTransaction = fragmentManager.beginTransaction();
-            RecipeFragment recipeFragment = RecipeFragment.newInstance(recipeID);
+            RecipeFragment recipeFragment;
+            if (stub != null) {
+                recipeFragment = RecipeFragment.newInstance(stub);
+            } else {
+                recipeFragment = RecipeFragment.newInstance(recipeID);
+            }
             recipeTransaction.replace(R.id.recipe_container, recipeFragment);
             recipeTransaction.commit();
 
@@ -0,0 +1,231 @@
+package net.hungryboys.letsyeat.recipe;
+
+import android.view.LayoutInflater;
+import android.view.View;
+import android.view.ViewGroup;
+import android.widget.Button;
+import android.widget.ImageView;
+import android.widget.TextView;
+
+import androidx.annotation.NonNull;
+import androidx.recyclerview.widget.DiffUtil;
+import androidx.recyclerview.widget.ListAdapter;
+import androidx.recyclerview.widget.RecyclerView;
+
+import net.hungryboys.letsyeat.R;
+import net.hungryboys.letsyeat.UiTrace;
+import net.hungryboys.letsyeat.api.ImageLoader;
+import net.hungryboys.letsyeat.data.Ingredient;
+import net.hungryboys.letsyeat.data.Recipe;
+import net.hungryboys.letsyeat.data.RecipeStub;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+
+/**
+ * The whole recipe screen as one list: a {@link Summary} header, the ingredients, then the
+ * instruction steps. Only the rows on screen are inflated and bound, and scrolling recycles them.
+ * Updates are diffed on a background thread, so showing the loaded recipe after its stub only
+ * rebinds the header, and rows of one kind are matched by position.
+ */
+class RecipeDetailAdapter extends ListAdapter<Object, RecyclerView.ViewHolder> {
+
+    // View types are the layout ids
+    static final int TYPE_HEADER = R.layout.elem_recipe_header;
+    static final int TYPE_INGREDIENT = R.layout.elem_ingredient;
+    static final int TYPE_INSTRUCTION = R.layout.elem_instruction;
+
+    private final View.OnClickListener onCook;
+
+    /**
+     * What the header shows, first from a stub and then from the loaded recipe
+     */
+    static final class Summary {
+        final String name;
+        final String pictureUrl;
+        final String time;
+        final String difficulty;
+        // Cooking is only offered once the recipe is loaded
+        final boolean cookable;
+
+        private Summary(String name, String pictureUrl, String time, double difficulty, boolean cookable) {
+            this.name = name;
+            this.pictureUrl = pictureUrl;
+            this.time = time;
+            this.difficulty = String.format(Locale.getDefault(), "%.1f", difficulty);
+            this.cookable = cookable;
+        }
+
+        static Summary of(@NonNull RecipeStub stub) {
+            return new Summary(stub.getName(), stub.getPictureUrl(), stub.getTimeString(),
+                    stub.getDifficulty(), false);
+        }
+
+        static Summary of(@NonNull Recipe recipe) {
+            return new Summary(recipe.getName(), recipe.getPictureUrl(), recipe.getTimeString(),
+                    recipe.getDifficulty(), true);
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (this == o) return true;
+            if (o == null || getClass() != o.getClass()) return false;
+            Summary that = (Summary) o;
+            return cookable == that.cookable && equal(name, that.name)
+                    && equal(pictureUrl, that.pictureUrl) && equal(time, that.time)
+                    && difficulty.equals(that.difficulty);
+        }
+
+        @Override
+        public int hashCode() {
+            return name == null ? 0 : name.hashCode();
+        }
+
+        private static boolean equal(Object a, Object b) {
+            return a == null ? b == null : a.equals(b);
+        }
+    }
+
+    static class HeaderViewHolder extends RecyclerView.ViewHolder {
+        final ImageView image;
+        final TextView title;
+        final TextView time;
+        final TextView difficulty;
+        final Button cookButton;
+        final ImageLoader.Slot picture;
+
+        HeaderViewHolder(@NonNull View root) {
+            super(root);
+            image = root.findViewById(R.id.recipe_image);
+            title = root.findViewById(R.id.recipe_title);
+            time = root.findViewById(R.id.recipe_time);
+            difficulty = root.findViewById(R.id.recipe_difficulty);
+            cookButton = root.findViewById(R.id.recipe_cook_button);
+            picture = new ImageLoader.Slot(image, R.drawable.placeholder_recipe_photo);
+        }
+    }
+
+    static class RowViewHolder extends RecyclerView.ViewHolder {
+        final TextView text;
+
+        RowViewHolder(@NonNull TextView text, @NonNull View root) {
+            super(root);
+            this.text = text;
+        }
+    }
+
+    /**
+     * @param onCook called when the cook button of the loaded recipe is clicked
+     */
+    RecipeDetailAdapter(@NonNull View.OnClickListener onCook) {
+        super(CALLBACK);
+        this.onCook = onCook;
+    }
+
+    /**
+     * Shows the header alone, until the recipe is loaded
+     */
+    void showSummary(@NonNull RecipeStub stub) {
+        List<Object> rows = new ArrayList<>(1);
+        rows.add(Summary.of(stub));
+        submitList(rows);
+    }
+
+    void showRecipe(@NonNull Recipe recipe) {
+        UiTrace.begin(UiTrace.CHANGE_RECIPE_ROWS);
+        try {
+            submitList(rows(recipe));
+        } finally {
+            UiTrace.end();
+        }
+    }
+
+    static List<Object> rows(@NonNull Recipe recipe) {
+        List<Object> rows = new ArrayList<>(1 + recipe.getIngredientCount() + recipe.getInstructionCount());
+        rows.add(Summary.of(recipe));
+        rows.addAll(recipe.getIngredients());
+        rows.addAll(recipe.getInstructions());
+
+        return rows;
+    }
+
+    @Override
+    public int getItemViewType(int position) {
+        Object item = getItem(position);
+
+        if (item instanceof Summary) {
+            return TYPE_HEADER;
+        }
+
+        return item instanceof Ingredient ? TYPE_INGREDIENT : TYPE_INSTRUCTION;
+    }
+
+    @NonNull
+    @Override
+    public RecyclerView.ViewHolder onCreateViewHolder(@NonNull ViewGroup parent, int viewType) {
+        UiTrace.begin(UiTrace.CREATE_RECIPE_ROW);
+        try {
+            View root = LayoutInflater.from(parent.getContext()).inflate(viewType, parent, false);
+
+            switch (viewType) {
+                case TYPE_HEADER:
+                    HeaderViewHolder header = new HeaderViewHolder(root);
+                    header.cookButton.setOnClickListener(onCook);
+                    return header;
+                case TYPE_INGREDIENT:
+                    return new RowViewHolder((TextView) root.findViewById(R.id.elem_ingredient_text), root);
+                default:
+                    return new RowViewHolder((TextView) root.findViewById(R.id.elem_instruction_text), root);
+            }
+        } finally {
+            UiTrace.end();
+        }
+    }
+
+    @Override
+    public void onBindViewHolder(@NonNull RecyclerView.ViewHolder holder, int position) {
+        UiTrace.begin(UiTrace.BIND_RECIPE_ROW);
+        try {
+            Object item = getItem(position);
+
+            if (holder instanceof HeaderViewHolder) {
+                bindHeader((HeaderViewHolder) holder, (Summary) item);
+            } else {
+                ((RowViewHolder) holder).text.setText(item.toString());
+            }
+        } finally {
+            UiTrace.end();
+        }
+    }
+
+    private static void bindHeader(HeaderViewHolder holder, Summary summary) {
+        holder.title.setText(summary.name);
+        holder.time.setText(summary.time);
+        holder.difficulty.setText(summary.difficulty);
+        holder.cookButton.setClickable(summary.cookable);
+        holder.picture.load(summary.pictureUrl);
+    }
+
+    @Override
+    public void onViewRecycled(@NonNull RecyclerView.ViewHolder holder) {
+        super.onViewRecycled(holder);
+
+        if (holder instanceof HeaderViewHolder) {
+            ((HeaderViewHolder) holder).picture.cancel();
+        }
+    }
+
+    private static final DiffUtil.ItemCallback<Object> CALLBACK = new DiffUtil.ItemCallback<Object>() {
+        // Rows are positional within their kind, another recipe rebinds the existing rows
+        @Override
+        public boolean areItemsTheSame(@NonNull Object oldItem, @NonNull Object newItem) {
+            return oldItem.getClass() == newItem.getClass();
+        }
+
+        @Override
+        public boolean areContentsTheSame(@NonNull Object oldItem, @NonNull Object newItem) {
+            return oldItem.equals(newItem);
+        }
+    };
+}
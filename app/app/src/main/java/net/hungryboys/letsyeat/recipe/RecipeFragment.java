@@ -1,18 +1,14 @@
 package net.hungryboys.letsyeat.recipe;
 
+import android.os.Build;
 import android.os.Bundle;
 import android.view.LayoutInflater;
 import android.view.View;
 import android.view.ViewGroup;
-import android.widget.Button;
-import android.widget.ImageView;
-import android.widget.LinearLayout;
 import android.widget.ProgressBar;
-import android.widget.TextView;
 
 import androidx.annotation.NonNull;
 import androidx.annotation.Nullable;
-import androidx.core.widget.NestedScrollView;
 import androidx.fragment.app.Fragment;
 import androidx.lifecycle.Observer;
 import androidx.lifecycle.ViewModelProviders;
@@ -20,39 +16,43 @@ import androidx.recyclerview.widget.LinearLayoutManager;
 import androidx.recyclerview.widget.RecyclerView;
 
 import net.hungryboys.letsyeat.R;
-import net.hungryboys.letsyeat.data.Ingredient;
+import net.hungryboys.letsyeat.UiTrace;
 import net.hungryboys.letsyeat.data.Recipe;
 import net.hungryboys.letsyeat.data.RecipeID;
-
-import java.util.Locale;
+import net.hungryboys.letsyeat.data.RecipeStub;
 
 public class RecipeFragment extends Fragment {
     private static final String ARG_RECIPE_ID = "recipe_id";
+    private static final String ARG_RECIPE_STUB = "recipe_stub";
 
     private View rootView;
 
     private RecipeViewModel mViewModel;
-    private NestedScrollView scrollView;
-    private Button cookButton;
-    private ImageView image;
-    private TextView title;
-    private TextView time;
-    private TextView difficulty;
-
-    private LinearLayout ingredientsContainer;
-    private LinearLayout instructionContainer;
+    private RecyclerView list;
+    private RecipeDetailAdapter adapter;
     private ProgressBar progressBar;
+    private boolean fullyDrawnReported;
 
     public static RecipeFragment newInstance(RecipeID id) {
         RecipeFragment rf = new RecipeFragment();
 
         Bundle args = new Bundle();
-        args.putSerializable(ARG_RECIPE_ID, id);
+        args.putParcelable(ARG_RECIPE_ID, id);
         rf.setArguments(args);
 
         return rf;
     }
 
+    /**
+     * Shows the summary right away, ingredients and instructions follow once loaded
+     */
+    public static RecipeFragment newInstance(RecipeStub stub) {
+        RecipeFragment rf = newInstance(stub.getId());
+        rf.getArguments().putParcelable(ARG_RECIPE_STUB, stub);
+
+        return rf;
+    }
+
     @Nullable
     @Override
     public View onCreateView(@NonNull LayoutInflater inflater, @Nullable ViewGroup container,
@@ -62,21 +62,16 @@ public class RecipeFragment extends Fragment {
         }
 
         rootView = inflater.inflate(R.layout.fragment_recipe, container, false);
-        scrollView = rootView.findViewById(R.id.recipe_scroll_view);
         progressBar = rootView.findViewById(R.id.recipe_progress_bar);
-        cookButton = rootView.findViewById(R.id.recipe_cook_button);
-        image = rootView.findViewById(R.id.recipe_image);
-        title = rootView.findViewById(R.id.recipe_title);
-        time = rootView.findViewById(R.id.recipe_time);
-        difficulty = rootView.findViewById(R.id.recipe_difficulty);
-        ingredientsContainer = rootView.findViewById(R.id.recipe_ingredient_container);
-        instructionContainer = rootView.findViewById(R.id.recipe_instructions_container);
-
-        LinearLayoutManager ingredientsLayoutManager = new LinearLayoutManager(getContext());
-        ingredientsLayoutManager.setOrientation(RecyclerView.VERTICAL);
+        list = rootView.findViewById(R.id.recipe_list);
 
-        LinearLayoutManager instructionsLayoutManager = new LinearLayoutManager(getContext());
-        instructionsLayoutManager.setOrientation(RecyclerView.VERTICAL);
+        adapter = new RecipeDetailAdapter(new View.OnClickListener() {
+            @Override
+            public void onClick(View v) {
+                mViewModel.cookConfirm();
+            }
+        });
+        setUpList(list, adapter);
 
         return rootView;
     }
@@ -85,59 +80,62 @@ public class RecipeFragment extends Fragment {
     public void onActivityCreated(@Nullable Bundle savedInstanceState) {
         super.onActivityCreated(savedInstanceState);
         mViewModel = ViewModelProviders.of(this).get(RecipeViewModel.class);
-        mViewModel.setId((RecipeID) getArguments().getSerializable(ARG_RECIPE_ID));
-
-        mViewModel.getRecipe().observe(this, new Observer<Recipe>() {
-            @Override
-            public void onChanged(Recipe recipe) {
-
-                progressBar.setVisibility(View.GONE);
-                scrollView.setVisibility(View.VISIBLE);
 
-                cookButton.setClickable(true);
-                title.setText(recipe.getName());
-                time.setText(recipe.getTimeString());
-                difficulty.setText(String.format(Locale.getDefault(),"%.1f", recipe.getDifficulty()));
+        mViewModel.setId((RecipeID) getArguments().getParcelable(ARG_RECIPE_ID));
 
-                changeIngredients(recipe.getIngredients());
-                changeInstructions(recipe.getInstructions());
-            }
-        });
+        RecipeStub stub = getArguments().getParcelable(ARG_RECIPE_STUB);
+        if (stub != null && mViewModel.getRecipe().getValue() == null) {
+            showList();
+            adapter.showSummary(stub);
+        }
 
-        cookButton.setOnClickListener(new View.OnClickListener() {
+        mViewModel.getRecipe().observe(this, new Observer<Recipe>() {
             @Override
-            public void onClick(View v) {
-                mViewModel.cookConfirm();
+            public void onChanged(Recipe recipe) {
+                UiTrace.begin(UiTrace.DISPATCH_RECIPE);
+                try {
+                    showList();
+
+                    // Diffed off the main thread, rows only change for what differs from the stub
+                    adapter.showRecipe(recipe);
+                    reportFullyDrawn();
+                } finally {
+                    UiTrace.end();
+                }
             }
         });
     }
 
-    private void changeIngredients(Ingredient[] ingredients) {
-        ingredientsContainer.removeAllViews();
-
-        for (Ingredient ingredient : ingredients) {
-            View view = LayoutInflater.from(getContext())
-                    .inflate(R.layout.elem_ingredient, ingredientsContainer, false);
-
-            TextView text = view.findViewById(R.id.elem_ingredient_text);
-            text.setText(ingredient.toString());
-
-            ingredientsContainer.addView(view);
-        }
+    private void showList() {
+        progressBar.setVisibility(View.GONE);
+        list.setVisibility(View.VISIBLE);
     }
 
-    private void changeInstructions(String[] instructions) {
-        instructionContainer.removeAllViews();
-
-        for (String instruction : instructions) {
-            View view = LayoutInflater.from(getContext())
-                    .inflate(R.layout.elem_instruction, instructionContainer, false);
-
-            TextView text = view.findViewById(R.id.elem_instruction_text);
-            text.setText(instruction);
+    /**
+     * The full recipe is shown, not only the summary from the stub
+     */
+    private void reportFullyDrawn() {
+        if (fullyDrawnReported) {
+            return;
+        }
 
-            instructionContainer.addView(view);
+        fullyDrawnReported = true;
+        if (Build.VERSION.SDK_INT >= Build.VERSION_CODES.KITKAT && getActivity() != null) {
+            getActivity().reportFullyDrawn();
         }
     }
 
+    /**
+     * Rows come from the list's own pool: a pool shared with the next recipe's screen would keep
+     * views, and with them this activity, alive after it is closed
+     */
+    static void setUpList(RecyclerView list, RecipeDetailAdapter adapter) {
+        LinearLayoutManager layoutManager = new LinearLayoutManager(list.getContext());
+        layoutManager.setOrientation(RecyclerView.VERTICAL);
+
+        list.setLayoutManager(layoutManager);
+        // Changed rows are rebound in place, change animations would need a second holder each
+        list.setItemAnimator(null);
+        list.setAdapter(adapter);
+    }
 }
@@ -11,6 +11,7 @@ import net.hungryboys.letsyeat.api.APICaller;
 import net.hungryboys.letsyeat.login.LoginRepository;
 import net.hungryboys.letsyeat.data.Recipe;
 import net.hungryboys.letsyeat.data.RecipeID;
+import net.hungryboys.letsyeat.data.RecipeRepository;
 
 import retrofit2.Call;
 import retrofit2.Callback;
@@ -27,10 +28,7 @@ public class RecipeViewModel extends ViewModel {
             recipe = new MutableLiveData<>();
         }
 
-        if (id != null) {
-            loadRecipe();
-        }
-
+        // Loading is triggered by setId(), observers get the value once it arrives
         return recipe;
     }
 
@@ -64,22 +62,7 @@ public class RecipeViewModel extends ViewModel {
 
     private void loadRecipe() {
         if (id != null) {
-            Call<Recipe> call = APICaller.getApiCall().getRecipe(id);
-            call.enqueue(new Callback<Recipe>() {
-                @Override
-                public void onResponse(Call<Recipe> call, Response<Recipe> response) {
-                    if (response.isSuccessful()) {
-                        recipe.postValue(response.body());
-                    } else {
-                        Log.e(TAG_RECIPE, "Could not load recipe" + response.errorBody());
-                    }
-                }
-
-                @Override
-                public void onFailure(Call<Recipe> call, Throwable t) {
-                    Log.e(TAG_RECIPE, "Could not load recipe", t);
-                }
-            });
+            RecipeRepository.getInstance().getRecipe(id, recipe);
         }
     }
 }
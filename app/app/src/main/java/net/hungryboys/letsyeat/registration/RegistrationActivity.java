@@ -15,6 +15,7 @@ import androidx.lifecycle.ViewModelProviders;
 import net.hungryboys.letsyeat.R;
 import net.hungryboys.letsyeat.browse.BrowseActivity;
 import net.hungryboys.letsyeat.data.Recipe;
+import net.hungryboys.letsyeat.data.TagSet;
 import net.hungryboys.letsyeat.data.User;
 import net.hungryboys.letsyeat.login.LoginActivity;
 import net.hungryboys.letsyeat.login.LoginResult;
@@ -42,7 +43,7 @@ public class RegistrationActivity extends AppCompatActivity implements
         if (savedInstanceState == null) {
             viewModel = ViewModelProviders.of(this).get(RegistrationViewModel.class);
             viewModel.setUser(user);
-            String[] tags = getResources().getStringArray(R.array.tag_strings);
+            String[] tags = TagSet.vocabulary().toArray();
 
             viewModel.getRegistrationResult().observe(this, new Observer<LoginResult>() {
                 @Override
@@ -9,13 +9,12 @@ import androidx.lifecycle.ViewModel;
 import net.hungryboys.letsyeat.R;
 import net.hungryboys.letsyeat.api.APICaller;
 import net.hungryboys.letsyeat.data.RegistrationChoice;
+import net.hungryboys.letsyeat.data.TagSet;
 import net.hungryboys.letsyeat.data.User;
 import net.hungryboys.letsyeat.login.LoginRepository;
 import net.hungryboys.letsyeat.login.LoginResult;
 
 import java.util.Calendar;
-import java.util.HashSet;
-import java.util.Set;
 
 import retrofit2.Call;
 import retrofit2.Response;
@@ -27,7 +26,7 @@ public class RegistrationViewModel extends ViewModel {
     private MutableLiveData<LoginResult> registrationResult = new MutableLiveData<>();
 
     private RegistrationChoice.Builder choice = new RegistrationChoice.Builder();
-    private Set<String> selectedTags = new HashSet<>();
+    private TagSet selectedTags = TagSet.EMPTY;
     private User user;
 
     public LiveData<LoginResult> getRegistrationResult() {
@@ -39,17 +38,11 @@ public class RegistrationViewModel extends ViewModel {
     }
 
     public void tagChanged(String tag, boolean selected) {
-        Set<String> previous = new HashSet<>(selectedTags);
+        TagSet tags = selected ? selectedTags.with(tag) : selectedTags.without(tag);
 
-        if (selected) {
-            selectedTags.add(tag);
-        } else {
-            selectedTags.remove(tag);
-        }
-
-        if (!selectedTags.equals(previous)) {
-            String[] tags = new String[selectedTags.size()];
-            choice.setTags(selectedTags.toArray(tags));
+        if (tags != selectedTags) {
+            selectedTags = tags;
+            choice.setTags(tags);
         }
     }
 
@@ -0,0 +1,62 @@
+package net.hungryboys.letsyeat.api;
+
+import org.junit.Test;
+
+import java.util.Arrays;
+import java.util.Random;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Percentiles of {@link LatencyHistogram} against the exact ones of the recorded samples.
+ */
+public class LatencyHistogramTest {
+
+    @Test
+    public void bucketsCoverEveryValue() {
+        for (long value = 0; value < 1_000_000; value++) {
+            int index = LatencyHistogram.index(value);
+
+            assertTrue(value <= LatencyHistogram.highestEquivalent(index));
+            assertTrue(index == 0 || LatencyHistogram.highestEquivalent(index - 1) < value);
+        }
+    }
+
+    @Test
+    public void percentilesWithinThreePercent() {
+        Random random = new Random(42);
+        long[] samples = new long[100_000];
+        LatencyHistogram histogram = new LatencyHistogram();
+
+        for (int i = 0; i < samples.length; i++) {
+            // Log-normal around 50 ms, like request latencies
+            samples[i] = (long) Math.exp(Math.log(50_000) + random.nextGaussian());
+            histogram.record(samples[i]);
+        }
+
+        Arrays.sort(samples);
+
+        for (double percentile : new double[]{1, 50, 90, 99, 99.9}) {
+            long exact = samples[(int) Math.ceil(percentile / 100 * samples.length) - 1];
+            long estimate = histogram.getMicrosAtPercentile(percentile);
+
+            assertTrue(percentile + ": " + estimate + " vs " + exact,
+                    estimate >= exact && estimate <= exact * 1.03 + 1);
+        }
+
+        assertEquals(samples.length, histogram.getCount());
+        assertEquals(samples[samples.length - 1], histogram.getMaxMicros());
+        assertEquals(samples[samples.length - 1], histogram.getMicrosAtPercentile(100));
+    }
+
+    @Test
+    public void emptyAndOverflow() {
+        LatencyHistogram histogram = new LatencyHistogram();
+        assertEquals(0, histogram.getMicrosAtPercentile(99));
+
+        histogram.record(LatencyHistogram.MAX_MICROS * 10);
+        assertEquals(LatencyHistogram.MAX_MICROS * 10, histogram.getMaxMicros());
+        assertTrue(histogram.getMicrosAtPercentile(50) >= LatencyHistogram.MAX_MICROS);
+    }
+}
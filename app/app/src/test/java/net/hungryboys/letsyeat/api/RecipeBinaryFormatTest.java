@@ -0,0 +1,119 @@
+package net.hungryboys.letsyeat.api;
+
+import com.google.gson.Gson;
+import com.google.gson.GsonBuilder;
+import com.google.gson.reflect.TypeToken;
+
+import net.hungryboys.letsyeat.GeneratedTypeAdapterFactory;
+import net.hungryboys.letsyeat.data.Ingredient;
+import net.hungryboys.letsyeat.data.Recipe;
+import net.hungryboys.letsyeat.data.RecipeID;
+import net.hungryboys.letsyeat.data.RecipePage;
+import net.hungryboys.letsyeat.data.RecipeStub;
+import net.hungryboys.letsyeat.data.TagSet;
+
+import org.junit.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.lang.reflect.Type;
+import java.nio.charset.Charset;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * {@link RecipeBinaryFormat} must decode what it encodes, and be smaller than the JSON of the
+ * same 1,000 recipes and stubs. Decode times are measured by the benchmark module's
+ * RecipeBinaryFormatBenchmark.
+ */
+public class RecipeBinaryFormatTest {
+
+    private static final Type RECIPE_LIST = new TypeToken<List<Recipe>>() {}.getType();
+    private static final Type STUB_LIST = new TypeToken<List<RecipeStub>>() {}.getType();
+    private static final Charset UTF_8 = Charset.forName("UTF-8");
+
+    private static final int ITEMS = 1000;
+
+    private final Gson gson = new GsonBuilder()
+            .setDateFormat("yyyy-MM-dd'T'HH:mm:ss")
+            .registerTypeAdapterFactory(new GeneratedTypeAdapterFactory())
+            .create();
+
+    @Test
+    public void roundTrip() throws IOException {
+        List<Recipe> recipes = recipes();
+        List<Recipe> decoded = RecipeBinaryFormat.decodeRecipes(new ByteArrayInputStream(encodeRecipes(recipes)));
+        assertEquals(gson.toJson(recipes, RECIPE_LIST), gson.toJson(decoded, RECIPE_LIST));
+
+        List<RecipeStub> stubs = stubs();
+        assertEquals(stubs, RecipeBinaryFormat.decodeStubs(new ByteArrayInputStream(encodeStubs(stubs))));
+
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        RecipeBinaryFormat.encodeStubPage(new RecipePage(stubs, "next"), out);
+        RecipePage page = RecipeBinaryFormat.decodeStubPage(new ByteArrayInputStream(out.toByteArray()), null);
+        assertEquals(stubs, page.getRecipes());
+        assertEquals("next", page.getNextCursor());
+    }
+
+    @Test(expected = IOException.class)
+    public void rejectsTruncatedPayload() throws IOException {
+        byte[] bytes = encodeStubs(stubs());
+        byte[] truncated = new byte[bytes.length / 2];
+        System.arraycopy(bytes, 0, truncated, 0, truncated.length);
+
+        RecipeBinaryFormat.decodeStubs(new ByteArrayInputStream(truncated));
+    }
+
+    @Test
+    public void smallerThanJson() throws IOException {
+        assertTrue(encodeRecipes(recipes()).length < gson.toJson(recipes(), RECIPE_LIST).getBytes(UTF_8).length);
+        assertTrue(encodeStubs(stubs()).length < gson.toJson(stubs(), STUB_LIST).getBytes(UTF_8).length);
+    }
+
+    private static byte[] encodeRecipes(List<Recipe> recipes) throws IOException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        RecipeBinaryFormat.encodeRecipes(recipes, out);
+        return out.toByteArray();
+    }
+
+    private static byte[] encodeStubs(List<RecipeStub> stubs) throws IOException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        RecipeBinaryFormat.encodeStubs(stubs, out);
+        return out.toByteArray();
+    }
+
+    private static List<Recipe> recipes() {
+        List<Recipe> recipes = new ArrayList<>(ITEMS);
+
+        for (int i = 0; i < ITEMS; i++) {
+            Ingredient[] ingredients = {
+                    new Ingredient("flour " + i, "2", "cups"),
+                    new Ingredient("egg", "3", "unit"),
+                    new Ingredient("milk", "1.5", "cups")
+            };
+            TagSet tags = TagSet.of("italian", "cheap", "quick");
+            String[] instructions = {"Mix everything", "Cook for " + i + " minutes", "Eat"};
+
+            recipes.add(new Recipe(new RecipeID("5da811e1eb49256ad3f9" + (1000 + i)), "Recipe " + i,
+                    "http://example.com/" + i + ".jpg", 10 + i % 120, (i % 9) / 2.0,
+                    ingredients, instructions, tags));
+        }
+
+        return recipes;
+    }
+
+    private static List<RecipeStub> stubs() {
+        List<RecipeStub> stubs = new ArrayList<>(ITEMS);
+
+        for (int i = 0; i < ITEMS; i++) {
+            stubs.add(new RecipeStub(new RecipeID("5da811e1eb49256ad3f9" + (1000 + i)), "Recipe " + i,
+                    "http://example.com/" + i + ".jpg", 10 + i % 120, (i % 9) / 2.0));
+        }
+
+        return stubs;
+    }
+}
@@ -0,0 +1,57 @@
+package net.hungryboys.letsyeat.browse;
+
+import org.junit.Test;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertSame;
+
+/**
+ * Snapshots published to the browse list must not change when later chunks are appended or a
+ * page is replaced.
+ */
+public class SnapshotListTest {
+
+    @Test
+    public void appendLeavesOlderSnapshotsUnchanged() {
+        SnapshotList<String> first = SnapshotList.<String>empty().append(Arrays.asList("a", "b"));
+        SnapshotList<String> second = first.append(Arrays.asList("c", "d"));
+        SnapshotList<String> third = second.append(Collections.singletonList("e"));
+
+        assertEquals(Arrays.asList("a", "b"), first);
+        assertEquals(Arrays.asList("a", "b", "c", "d"), second);
+        assertEquals(Arrays.asList("a", "b", "c", "d", "e"), third);
+        assertSame(third, third.append(Collections.<String>emptyList()));
+    }
+
+    @Test
+    public void replacingATailDoesNotOverwriteIt() {
+        SnapshotList<String> streamed = SnapshotList.<String>empty().append(Arrays.asList("a", "b", "c"));
+        SnapshotList<String> replaced = streamed.truncate(1).append(Arrays.asList("x", "y"));
+
+        assertEquals(Arrays.asList("a", "b", "c"), streamed);
+        assertEquals(Arrays.asList("a", "x", "y"), replaced);
+
+        // An older snapshot appending again copies instead of writing over the newer one
+        SnapshotList<String> branch = streamed.truncate(2).append(Collections.singletonList("z"));
+        assertEquals(Arrays.asList("a", "x", "y"), replaced);
+        assertEquals(Arrays.asList("a", "b", "z"), branch);
+    }
+
+    @Test
+    public void growsPastInitialCapacity() {
+        SnapshotList<Integer> list = SnapshotList.empty();
+        List<Integer> chunk = Arrays.asList(1, 2, 3, 4, 5);
+
+        for (int i = 0; i < 100; i++) {
+            list = list.append(chunk);
+        }
+
+        assertEquals(500, list.size());
+        assertEquals(Integer.valueOf(5), list.get(499));
+        assertEquals(500, list.subList(0, 500).size());
+    }
+}
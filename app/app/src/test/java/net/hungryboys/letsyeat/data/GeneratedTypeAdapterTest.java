@@ -0,0 +1,97 @@
+package net.hungryboys.letsyeat.data;
+
+import com.google.gson.Gson;
+import com.google.gson.GsonBuilder;
+import com.google.gson.reflect.TypeToken;
+
+import net.hungryboys.letsyeat.GeneratedTypeAdapterFactory;
+
+import org.junit.Test;
+
+import java.lang.reflect.Type;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * The adapters generated by the adapter-processor module must read and write the same JSON as
+ * reflective Gson, and go through the constructor so that missing fields get its defaults. Their speed is measured by the benchmark module's GeneratedTypeAdapterBenchmark.
+ */
+public class GeneratedTypeAdapterTest {
+
+    private static final Type RECIPE_LIST = new TypeToken<List<Recipe>>() {}.getType();
+    private static final Type STUB_LIST = new TypeToken<List<RecipeStub>>() {}.getType();
+
+    private static final int ITEMS = 1000;
+
+    private final Gson reflective = new GsonBuilder()
+            .setDateFormat("yyyy-MM-dd'T'HH:mm:ss")
+            .create();
+
+    private final Gson generated = new GsonBuilder()
+            .setDateFormat("yyyy-MM-dd'T'HH:mm:ss")
+            .registerTypeAdapterFactory(new GeneratedTypeAdapterFactory())
+            .create();
+
+    @Test
+    public void generatedMatchesReflective() {
+        String json = reflective.toJson(recipes(), RECIPE_LIST);
+
+        List<Recipe> fromReflective = reflective.fromJson(json, RECIPE_LIST);
+        List<Recipe> fromGenerated = generated.fromJson(json, RECIPE_LIST);
+
+        assertEquals(reflective.toJson(fromReflective, RECIPE_LIST), generated.toJson(fromGenerated, RECIPE_LIST));
+        assertEquals(json, generated.toJson(fromGenerated, RECIPE_LIST));
+
+        String stubs = reflective.toJson(stubs(), STUB_LIST);
+        assertEquals(stubs, generated.toJson(generated.<List<RecipeStub>>fromJson(stubs, STUB_LIST), STUB_LIST));
+    }
+
+    @Test
+    public void missingArraysReadAsEmpty() {
+        // A catalog document without tags, ingredients or instructions
+        Recipe recipe = generated.fromJson("{\"id\":{\"id\":\"a\"},\"name\":\"Toast\",\"tags\":null}",
+                Recipe.class);
+
+        assertSame(TagSet.EMPTY, recipe.getTags());
+        assertEquals(0, recipe.getTagCount());
+        assertEquals(0, recipe.getIngredientCount());
+        assertTrue(recipe.getIngredients().isEmpty());
+        assertEquals(0, recipe.getInstructionCount());
+        assertTrue(recipe.getInstructions().isEmpty());
+    }
+
+    private static List<Recipe> recipes() {
+        List<Recipe> recipes = new ArrayList<>(ITEMS);
+
+        for (int i = 0; i < ITEMS; i++) {
+            Ingredient[] ingredients = {
+                    new Ingredient("flour " + i, "2", "cups"),
+                    new Ingredient("egg", "3", "unit"),
+                    new Ingredient("milk", "1.5", "cups")
+            };
+            TagSet tags = TagSet.of("italian", "cheap", "quick");
+            String[] instructions = {"Mix everything", "Cook for " + i + " minutes", "Eat"};
+
+            recipes.add(new Recipe(new RecipeID("id" + i), "Recipe " + i,
+                    "http://example.com/" + i + ".jpg", 10 + i % 120, i % 5,
+                    ingredients, instructions, tags));
+        }
+
+        return recipes;
+    }
+
+    private static List<RecipeStub> stubs() {
+        List<RecipeStub> stubs = new ArrayList<>(ITEMS);
+
+        for (int i = 0; i < ITEMS; i++) {
+            stubs.add(new RecipeStub(new RecipeID("id" + i), "Recipe " + i,
+                    "http://example.com/" + i + ".jpg", 10 + i % 120, i % 5));
+        }
+
+        return stubs;
+    }
+}
@@ -0,0 +1,45 @@
+package net.hungryboys.letsyeat.data;
+
+import org.junit.Test;
+
+import java.util.Arrays;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * The {@link Recipe} and {@link RegistrationChoice} accessors used on hot paths return stable,
+ * read-only views instead of defensive copies. Their cost is measured by the benchmark module's
+ * RecipeAccessorsBenchmark and RegistrationChoiceBenchmark.
+ */
+public class RecipeAccessorTest {
+
+    @Test
+    public void viewsAreReadOnlyAndStable() {
+        Recipe recipe = Recipe.placeholder();
+
+        assertSame(recipe.getIngredients(), recipe.getIngredients());
+        assertEquals(recipe.getIngredientCount(), recipe.getIngredients().size());
+        assertEquals(recipe.getIngredient(1), recipe.getIngredients().get(1));
+        assertEquals(recipe.getTag(0), recipe.getTags().get(0));
+        assertSame(recipe.getTags().asList(), recipe.getTags().asList());
+        assertEquals(recipe.getInstruction(2), recipe.getInstructions().get(2));
+
+        try {
+            recipe.getTags().asList().set(0, "changed");
+            throw new AssertionError("Tags must be read-only");
+        } catch (UnsupportedOperationException expected) {
+            assertTrue(recipe.getTags().contains("italian"));
+        }
+
+        RegistrationChoice.Builder builder = new RegistrationChoice.Builder();
+        builder.setTags(TagSet.of("vegan", "quick"));
+        RegistrationChoice choice = builder.build();
+
+        assertSame(choice.getTags(), choice.getTags());
+        assertEquals(Arrays.asList("vegan", "quick"), choice.getTags().asList());
+        assertEquals(RegistrationChoice.DEFAULT_HOUR, choice.getHourOfDay());
+        assertEquals(RegistrationChoice.DEFAULT_MINUTES, choice.getMinute());
+    }
+}
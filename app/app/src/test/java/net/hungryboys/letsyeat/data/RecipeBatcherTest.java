@@ -0,0 +1,130 @@
+package net.hungryboys.letsyeat.data;
+
+import androidx.annotation.NonNull;
+
+import net.hungryboys.letsyeat.api.APICalls;
+
+import org.junit.Test;
+
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.util.ArrayList;
+import java.util.List;
+
+import retrofit2.Call;
+import retrofit2.Callback;
+import retrofit2.Response;
+
+import static org.junit.Assert.assertEquals;
+
+/**
+ * Recipes requested together, e.g. the cards of a browse page, must cost one request rather than
+ * one each.
+ */
+public class RecipeBatcherTest {
+
+    private final List<List<RecipeID>> batches = new ArrayList<>();
+    private final List<Callback<List<Recipe>>> callbacks = new ArrayList<>();
+    private int singleRequests;
+
+    private final List<Recipe> received = new ArrayList<>();
+    private int errors;
+
+    private final RecipeBatcher.Listener listener = new RecipeBatcher.Listener() {
+        @Override
+        public void onRecipe(@NonNull Recipe recipe) {
+            received.add(recipe);
+        }
+
+        @Override
+        public void onError() {
+            errors++;
+        }
+    };
+
+    private final RecipeBatcher batcher = new RecipeBatcher(fakeApi());
+
+    @Test
+    public void pageIsOneRequest() {
+        List<RecipeID> ids = ids(0, 20);
+        batcher.getRecipes(ids, listener);
+
+        assertEquals(1, batches.size());
+        assertEquals(ids, batches.get(0));
+        assertEquals(0, singleRequests);
+
+        // The server skipped the last recipe
+        List<Recipe> recipes = new ArrayList<>();
+        for (RecipeID id : ids.subList(0, 19)) {
+            recipes.add(recipe(id));
+        }
+        callbacks.get(0).onResponse(null, Response.success(recipes));
+
+        assertEquals(recipes, received);
+        assertEquals(1, errors);
+    }
+
+    @Test
+    public void longListsAreSplit() {
+        batcher.getRecipes(ids(0, 120), listener);
+
+        assertEquals(3, batches.size());
+        assertEquals(ids(0, 50), batches.get(0));
+        assertEquals(ids(50, 100), batches.get(1));
+        assertEquals(ids(100, 120), batches.get(2));
+        assertEquals(0, singleRequests);
+    }
+
+    private static List<RecipeID> ids(int from, int to) {
+        List<RecipeID> ids = new ArrayList<>(to - from);
+        for (int i = from; i < to; i++) {
+            ids.add(new RecipeID("id" + i));
+        }
+
+        return ids;
+    }
+
+    private static Recipe recipe(RecipeID id) {
+        return new Recipe(id, "Recipe " + id.getId(), "", 30, 2, null, null, null);
+    }
+
+    /**
+     * Records the requests made, their answers are given by the test
+     */
+    private APICalls fakeApi() {
+        return (APICalls) Proxy.newProxyInstance(APICalls.class.getClassLoader(),
+                new Class<?>[]{APICalls.class}, new InvocationHandler() {
+                    @Override
+                    @SuppressWarnings("unchecked")
+                    public Object invoke(Object proxy, Method method, Object[] args) {
+                        switch (method.getName()) {
+                            case "getRecipes":
+                                batches.add(new ArrayList<>((List<RecipeID>) args[0]));
+                                return call();
+                            case "getRecipe":
+                                singleRequests++;
+                                return call();
+                            default:
+                                throw new UnsupportedOperationException(method.getName());
+                        }
+                    }
+                });
+    }
+
+    private Call<?> call() {
+        return (Call<?>) Proxy.newProxyInstance(Call.class.getClassLoader(),
+                new Class<?>[]{Call.class}, new InvocationHandler() {
+                    @Override
+                    @SuppressWarnings("unchecked")
+                    public Object invoke(Object proxy, Method method, Object[] args) {
+                        if (method.getName().equals("enqueue")) {
+                            callbacks.add((Callback<List<Recipe>>) args[0]);
+                            return null;
+                        }
+
+                        throw new UnsupportedOperationException(method.getName());
+                    }
+                });
+    }
+}
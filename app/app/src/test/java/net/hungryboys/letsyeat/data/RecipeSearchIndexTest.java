@@ -0,0 +1,170 @@
+package net.hungryboys.letsyeat.data;
+
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Locale;
+import java.util.Random;
+
+import static org.junit.Assert.assertEquals;
+
+/**
+ * {@link RecipeSearchIndex} results over a synthetic catalog of 20,000 recipes, checked against a
+ * plain scan of the catalog. Query latency is measured by the benchmark module's
+ * RecipeSearchIndexBenchmark.
+ */
+public class RecipeSearchIndexTest {
+
+    private static final int RECIPES = 20_000;
+    private static final int LIMIT = 50;
+
+    private static final String[] WORDS = {
+            "chicken", "pasta", "spicy", "creamy", "garlic", "lemon", "roasted", "baked", "beef",
+            "curry", "salad", "soup", "tomato", "mushroom", "risotto", "tacos", "quinoa", "pesto",
+            "sweet", "potato", "crispy", "honey", "ginger", "coconut", "black", "bean", "stew",
+            "pork", "teriyaki", "noodles", "chickpea", "spinach", "feta", "pancakes", "brownies"
+    };
+    private static final String[] INGREDIENTS = {
+            "flour", "sugar", "eggs", "butter", "milk", "salt", "pepper", "olive oil", "garlic",
+            "onion", "tomato paste", "chicken breast", "ground beef", "rice", "black beans",
+            "cumin", "paprika", "lime juice", "cilantro", "parmesan", "spinach", "chickpeas",
+            "coconut milk", "soy sauce", "ginger", "honey", "brown sugar", "baking soda", "jalape\u00f1o"
+    };
+    private static final String[] TAGS = {
+            "vegan", "vegetarian", "gluten-free", "dairy-free", "quick", "cheap", "italian",
+            "mexican", "asian", "indian", "breakfast", "dessert", "soup", "salad", "one-pot",
+            "slow-cooker", "meal-prep", "spicy", "kid-friendly", "high-protein"
+    };
+    private static final String[][] QUERIES = {
+            {"c", ""}, {"chi", ""}, {"chicken pas", ""}, {"garlic", "quick"},
+            {"", "vegan,cheap"}, {"sp", "italian,quick"}, {"jalapeno", ""}, {"zzz", ""},
+            {"coconut curry", "asian"}, {"b", "dessert"}
+    };
+
+    private static final class Entry {
+        final RecipeStub stub;
+        final String[] ingredients;
+        final String[] tags;
+
+        Entry(RecipeStub stub, String[] ingredients, String[] tags) {
+            this.stub = stub;
+            this.ingredients = ingredients;
+            this.tags = tags;
+        }
+    }
+
+    @Test
+    public void tokenizesAndFolds() {
+        assertEquals(Arrays.asList("creme", "brulee", "2", "ways"),
+                RecipeSearchIndex.tokenize("Cr\u00e8me  br\u00fbl\u00e9e (2 ways)"));
+        assertEquals(Collections.emptyList(), RecipeSearchIndex.tokenize(" - "));
+    }
+
+    @Test
+    public void mergeKeepsLocalOrder() {
+        RecipeStub a = stub(1, "a");
+        RecipeStub b = stub(2, "b");
+        RecipeStub c = stub(3, "c");
+
+        assertEquals(Arrays.asList(b, a, c),
+                RecipeSearchIndex.merge(Arrays.asList(b, a), Arrays.asList(a, c, b), 10));
+        assertEquals(Arrays.asList(b, a),
+                RecipeSearchIndex.merge(Arrays.asList(b, a), Arrays.asList(c), 2));
+    }
+
+    @Test
+    public void matchesScan() {
+        List<Entry> catalog = catalog();
+        RecipeSearchIndex index = index(catalog);
+
+        for (String[] query : QUERIES) {
+            assertEquals(query[0] + " " + query[1], scan(catalog, query[0], tags(query[1])),
+                    index.search(query[0], tags(query[1]), LIMIT));
+        }
+    }
+
+    private static List<Entry> catalog() {
+        Random random = new Random(42);
+        List<Entry> catalog = new ArrayList<>(RECIPES);
+
+        for (int i = 0; i < RECIPES; i++) {
+            String name = WORDS[random.nextInt(WORDS.length)] + " " + WORDS[random.nextInt(WORDS.length)]
+                    + " " + WORDS[random.nextInt(WORDS.length)];
+
+            String[] ingredients = new String[4 + random.nextInt(8)];
+            for (int j = 0; j < ingredients.length; j++) {
+                ingredients[j] = INGREDIENTS[random.nextInt(INGREDIENTS.length)];
+            }
+
+            String[] tags = new String[1 + random.nextInt(4)];
+            for (int j = 0; j < tags.length; j++) {
+                tags[j] = TAGS[random.nextInt(TAGS.length)];
+            }
+
+            catalog.add(new Entry(stub(i, name), ingredients, tags));
+        }
+
+        return catalog;
+    }
+
+    private static RecipeStub stub(int i, String name) {
+        return new RecipeStub(new RecipeID(String.format(Locale.ROOT, "5da811e1eb4925%010d", i)), name,
+                "http://example.com/" + i + ".jpg", 10 + i % 120, (i % 9) / 2.0);
+    }
+
+    private static RecipeSearchIndex index(List<Entry> catalog) {
+        RecipeSearchIndex.Builder builder = new RecipeSearchIndex.Builder();
+
+        for (Entry entry : catalog) {
+            builder.add(entry.stub, entry.ingredients, entry.tags);
+        }
+
+        return builder.build();
+    }
+
+    /**
+     * What the index should find, the slow way
+     */
+    private static List<RecipeStub> scan(List<Entry> catalog, String query, TagSet tags) {
+        List<RecipeStub> results = new ArrayList<>();
+
+        for (Entry entry : catalog) {
+            if (results.size() == LIMIT) {
+                break;
+            }
+
+            if (!Arrays.asList(entry.tags).containsAll(tags.asList())) {
+                continue;
+            }
+
+            List<String> words = new ArrayList<>(RecipeSearchIndex.tokenize(entry.stub.getName()));
+            for (String ingredient : entry.ingredients) {
+                words.addAll(RecipeSearchIndex.tokenize(ingredient));
+            }
+
+            boolean matches = true;
+            for (String prefix : RecipeSearchIndex.tokenize(query)) {
+                boolean found = false;
+
+                for (String word : words) {
+                    found |= word.startsWith(prefix);
+                }
+
+                matches &= found;
+            }
+
+            if (matches) {
+                results.add(entry.stub);
+            }
+        }
+
+        return results;
+    }
+
+    private static TagSet tags(String list) {
+        return list.isEmpty() ? TagSet.EMPTY : TagSet.of(list.split(","));
+    }
+}
@@ -0,0 +1,108 @@
+package net.hungryboys.letsyeat.data;
+
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Locale;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+
+/**
+ * Server requests left when typing a query once the results of a shorter one are cached.
+ */
+public class SearchResultCacheTest {
+
+    private static final int LIMIT = 50;
+    private static final TagSet NO_TAGS = TagSet.EMPTY;
+
+    private static final List<RecipeStub> SERVER = Arrays.asList(
+            stub(0, "Chicken Pasta"), stub(1, "Chickpea Curry"), stub(2, "Chicory Salad"),
+            stub(3, "Peach Cobbler"), stub(4, "Beef Chili"));
+
+    private int requests;
+
+    @Test
+    public void typingNarrowsCachedPrefix() {
+        SearchResultCache cache = new SearchResultCache(8);
+
+        // Debounced, the first request goes out after "ch"
+        assertEquals(Arrays.asList(SERVER.get(0), SERVER.get(1), SERVER.get(2), SERVER.get(3), SERVER.get(4)),
+                search(cache, "ch"));
+
+        for (String query : new String[]{"chi", "chic", "chick"}) {
+            search(cache, query);
+        }
+
+        assertEquals(1, requests);
+        assertEquals(Arrays.asList(SERVER.get(0), SERVER.get(1)), cache.get("Chick", NO_TAGS, LIMIT));
+        assertEquals(Collections.singletonList(SERVER.get(0)), search(cache, "chick  pas"));
+        assertEquals(1, requests);
+    }
+
+    @Test
+    public void truncatedResultsAreNotNarrowed() {
+        SearchResultCache cache = new SearchResultCache(8);
+        cache.put("c", NO_TAGS, 3, SERVER.subList(0, 3));
+
+        assertNotNull(cache.get("c", NO_TAGS, 3));
+        assertNull(cache.get("ch", NO_TAGS, 3));
+    }
+
+    @Test
+    public void tagsArePartOfTheKey() {
+        SearchResultCache cache = new SearchResultCache(8);
+        cache.put("chi", TagSet.of("quick", "pasta"), LIMIT, SERVER.subList(0, 2));
+
+        assertNull(cache.get("chi", NO_TAGS, LIMIT));
+        assertNull(cache.get("chi", TagSet.of("quick"), LIMIT));
+        assertEquals(SERVER.subList(0, 2), cache.get("chi", TagSet.of("pasta", "quick"), LIMIT));
+    }
+
+    @Test
+    public void evictsLeastRecentlyUsed() {
+        SearchResultCache cache = new SearchResultCache(2);
+        cache.put("a", NO_TAGS, LIMIT, SERVER);
+        cache.put("b", NO_TAGS, LIMIT, SERVER);
+        cache.get("a", NO_TAGS, LIMIT);
+        cache.put("c", NO_TAGS, LIMIT, SERVER);
+
+        assertNotNull(cache.get("a", NO_TAGS, LIMIT));
+        assertNull(cache.get("b", NO_TAGS, LIMIT));
+    }
+
+    /**
+     * What RecipeRepository does: the cache first, then the server, which keeps the names
+     * containing every word
+     */
+    private List<RecipeStub> search(SearchResultCache cache, String query) {
+        List<RecipeStub> cached = cache.get(query, NO_TAGS, LIMIT);
+        if (cached != null) {
+            return cached;
+        }
+
+        requests++;
+
+        List<RecipeStub> results = new ArrayList<>();
+        for (RecipeStub stub : SERVER) {
+            boolean matches = true;
+            for (String word : SearchResultCache.normalizeQuery(query).split(" ")) {
+                matches &= stub.getName().toLowerCase(Locale.ROOT).contains(word);
+            }
+            if (matches) {
+                results.add(stub);
+            }
+        }
+
+        cache.put(query, NO_TAGS, LIMIT, results);
+        return results;
+    }
+
+    private static RecipeStub stub(int i, String name) {
+        return new RecipeStub(new RecipeID("id" + i), name, "http://example.com/" + i + ".jpg", 30, 2);
+    }
+}
@@ -0,0 +1,100 @@
+package net.hungryboys.letsyeat.data;
+
+import com.google.gson.Gson;
+import com.google.gson.GsonBuilder;
+
+import net.hungryboys.letsyeat.GeneratedTypeAdapterFactory;
+
+import org.junit.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.Random;
+import java.util.Set;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Wire compatibility of {@link TagSet}, and filtering on tags with it the same way as with the
+ * string sets it replaces. Filtering speed is measured by the benchmark module's TagSetBenchmark.
+ */
+public class TagSetTest {
+
+    private static final int RECIPES = 20_000;
+
+    private final Gson gson = new GsonBuilder()
+            .registerTypeAdapterFactory(new GeneratedTypeAdapterFactory())
+            .create();
+
+    @Test
+    public void sameJsonAsStringArray() {
+        Recipe recipe = gson.fromJson("{\"id\":{\"id\":\"a\"},\"tags\":[\"quick\",\"beef\",\"not-in-vocabulary\"]}",
+                Recipe.class);
+
+        assertEquals(3, recipe.getTagCount());
+        assertTrue(recipe.getTags().contains("not-in-vocabulary"));
+        assertEquals("[\"beef\",\"quick\",\"not-in-vocabulary\"]", gson.toJson(recipe.getTags()));
+        assertEquals(TagSet.EMPTY, gson.fromJson("[]", TagSet.class));
+    }
+
+    @Test
+    public void missingTagsAreEmpty() {
+        Recipe recipe = gson.fromJson("{\"id\":{\"id\":\"a\"}}", Recipe.class);
+        RegistrationChoice choice = gson.fromJson("{\"time\":{\"year\":2019,\"month\":10,\"dayOfMonth\":1,"
+                + "\"hourOfDay\":19,\"minute\":30,\"second\":0},\"difficulty\":2.0}", RegistrationChoice.class);
+
+        assertSame(TagSet.EMPTY, recipe.getTags());
+        assertEquals(0, recipe.getTagCount());
+        assertEquals(0, recipe.getTags().toArray().length);
+        assertSame(TagSet.EMPTY, choice.getTags());
+        assertEquals("[]", gson.toJson(recipe.getTags()));
+    }
+
+    @Test
+    public void setOperations() throws IOException, ClassNotFoundException {
+        TagSet tags = TagSet.of("pasta", "easy");
+
+        assertSame(tags, tags.with("easy"));
+        assertSame(tags, tags.without("pizza"));
+        assertEquals(TagSet.of("easy"), tags.without("pasta"));
+        assertSame(TagSet.EMPTY, tags.without("pasta").without("easy"));
+        assertTrue(tags.with("thai").containsAll(tags));
+        assertFalse(tags.containsAll(tags.with("thai")));
+        assertTrue(tags.intersects(TagSet.of("easy", "fish")));
+        assertTrue(TagSet.vocabulary().containsAll(tags));
+
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        ObjectOutputStream out = new ObjectOutputStream(bytes);
+        out.writeObject(tags);
+        out.close();
+
+        Object read = new ObjectInputStream(new ByteArrayInputStream(bytes.toByteArray())).readObject();
+        assertEquals(tags, read);
+    }
+
+    @Test
+    public void filtersLikeStringSets() {
+        Random random = new Random(42);
+        String[] vocabulary = TagSet.vocabulary().toArray();
+        Set<String> stringFilter = new HashSet<>(Arrays.asList("easy", "chicken"));
+        TagSet filter = TagSet.of("easy", "chicken");
+
+        for (int i = 0; i < RECIPES; i++) {
+            String[] tags = new String[1 + random.nextInt(4)];
+            for (int j = 0; j < tags.length; j++) {
+                tags[j] = vocabulary[random.nextInt(vocabulary.length)];
+            }
+
+            assertEquals(new HashSet<>(Arrays.asList(tags)).containsAll(stringFilter),
+                    TagSet.of(tags).containsAll(filter));
+        }
+    }
+}
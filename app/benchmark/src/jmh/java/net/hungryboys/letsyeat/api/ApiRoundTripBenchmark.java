@@ -0,0 +1,219 @@
+package net.hungryboys.letsyeat.api;
+
+import com.google.gson.Gson;
+import com.google.gson.GsonBuilder;
+
+import net.hungryboys.letsyeat.GeneratedTypeAdapterFactory;
+import net.hungryboys.letsyeat.data.BenchmarkData;
+import net.hungryboys.letsyeat.data.Recipe;
+import net.hungryboys.letsyeat.data.RecipeID;
+import net.hungryboys.letsyeat.data.RecipePage;
+import net.hungryboys.letsyeat.data.RecipeStub;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+
+import java.io.IOException;
+import java.net.InetAddress;
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+import javax.net.ServerSocketFactory;
+
+import okhttp3.OkHttpClient;
+import okhttp3.mockwebserver.Dispatcher;
+import okhttp3.mockwebserver.MockResponse;
+import okhttp3.mockwebserver.MockWebServer;
+import okhttp3.mockwebserver.RecordedRequest;
+import okio.Buffer;
+import retrofit2.Response;
+import retrofit2.Retrofit;
+import retrofit2.converter.gson.GsonConverterFactory;
+
+/**
+ * {@link APICalls} end to end against a local MockWebServer: request building, the interceptors,
+ * HTTP over loopback and response conversion, with the server answering in JSON or in
+ * {@link RecipeBinaryFormat}.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@State(Scope.Benchmark)
+public class ApiRoundTripBenchmark {
+
+    private static final String JSON = "application/json; charset=utf-8";
+
+    @Param({"json", "binary"})
+    public String format;
+
+    @Param({"10", "1000"})
+    public int size;
+
+    // MockWebServer logs every request at INFO, which would be measured too
+    private static final Logger SERVER_LOGGER = Logger.getLogger(MockWebServer.class.getName());
+
+    private MockWebServer server;
+    private APICalls api;
+    private List<RecipeID> ids;
+
+    @Setup
+    public void setUp() throws IOException {
+        // Same Gson and converters as APICaller, without the disk cache
+        Gson gson = new GsonBuilder()
+                .setDateFormat("yyyy-MM-dd'T'HH:mm:ss")
+                .registerTypeAdapterFactory(new GeneratedTypeAdapterFactory())
+                .create();
+
+        List<Recipe> recipes = BenchmarkData.recipes(size);
+        List<RecipeStub> stubs = BenchmarkData.stubs(size);
+        RecipePage page = new RecipePage(stubs, "next");
+
+        ids = new ArrayList<>(recipes.size());
+        for (Recipe recipe : recipes) {
+            ids.add(recipe.getId());
+        }
+
+        final MockResponse recipeResponse = json(gson.toJson(recipes.get(0)));
+        final MockResponse recipesResponse;
+        final MockResponse pageResponse;
+
+        if ("binary".equals(format)) {
+            Buffer recipesBody = new Buffer();
+            RecipeBinaryFormat.encodeRecipes(recipes, recipesBody.outputStream());
+            recipesResponse = binary(recipesBody);
+
+            Buffer pageBody = new Buffer();
+            RecipeBinaryFormat.encodeStubPage(page, pageBody.outputStream());
+            pageResponse = binary(pageBody);
+        } else {
+            recipesResponse = json(gson.toJson(recipes));
+            pageResponse = json(gson.toJson(page));
+        }
+
+        SERVER_LOGGER.setLevel(Level.WARNING);
+
+        server = new MockWebServer();
+        server.setServerSocketFactory(new NoDelayServerSocketFactory());
+        server.setDispatcher(new Dispatcher() {
+            @Override
+            public MockResponse dispatch(RecordedRequest request) {
+                String path = request.getRequestUrl().encodedPath();
+
+                if (path.equals("/recipe/id")) {
+                    return recipeResponse;
+                } else if (path.equals("/recipe/ids")) {
+                    return recipesResponse;
+                } else if (path.equals("/recipe/list")) {
+                    return pageResponse;
+                }
+
+                return new MockResponse().setResponseCode(404);
+            }
+        });
+        server.start();
+
+        OkHttpClient client = new OkHttpClient.Builder()
+                .addInterceptor(CachePolicy.REQUEST)
+                .addNetworkInterceptor(CachePolicy.RESPONSE)
+                .build();
+
+        api = new Retrofit.Builder()
+                .baseUrl(server.url("/"))
+                .addConverterFactory(new RecipeBinaryConverterFactory())
+                .addConverterFactory(GsonConverterFactory.create(gson))
+                .client(client)
+                .build()
+                .create(APICalls.class);
+    }
+
+    /**
+     * The server keeps every request it received until taken
+     */
+    @TearDown(org.openjdk.jmh.annotations.Level.Iteration)
+    public void takeRequests() throws InterruptedException {
+        while (server.takeRequest(0, TimeUnit.SECONDS) != null) {
+            // Dropped
+        }
+    }
+
+    @TearDown
+    public void tearDown() throws IOException {
+        server.shutdown();
+    }
+
+    @Benchmark
+    public Recipe getRecipe() throws IOException {
+        return body(api.getRecipe(ids.get(0)).execute());
+    }
+
+    @Benchmark
+    public List<Recipe> getRecipes() throws IOException {
+        return body(api.getRecipes(ids).execute());
+    }
+
+    @Benchmark
+    public RecipePage getRecipeListPage() throws IOException {
+        return body(api.getRecipeList("bench@example.com", null, size).execute());
+    }
+
+    private static <T> T body(Response<T> response) throws IOException {
+        if (!response.isSuccessful() || response.body() == null) {
+            throw new IOException("HTTP " + response.code());
+        }
+
+        return response.body();
+    }
+
+    /**
+     * MockWebServer writes headers and body separately, with Nagle's algorithm every small
+     * response would wait for the client's delayed ACK (~40 ms) and that is all we'd measure
+     */
+    private static class NoDelayServerSocketFactory extends ServerSocketFactory {
+
+        @Override
+        public ServerSocket createServerSocket() throws IOException {
+            return new ServerSocket() {
+                @Override
+                public Socket accept() throws IOException {
+                    Socket socket = super.accept();
+                    socket.setTcpNoDelay(true);
+                    return socket;
+                }
+            };
+        }
+
+        @Override
+        public ServerSocket createServerSocket(int port) throws IOException {
+            throw new UnsupportedOperationException();
+        }
+
+        @Override
+        public ServerSocket createServerSocket(int port, int backlog) throws IOException {
+            throw new UnsupportedOperationException();
+        }
+
+        @Override
+        public ServerSocket createServerSocket(int port, int backlog, InetAddress address) throws IOException {
+            throw new UnsupportedOperationException();
+        }
+    }
+
+    private static MockResponse json(String body) {
+        return new MockResponse().setHeader("Content-Type", JSON).setBody(body);
+    }
+
+    private static MockResponse binary(Buffer body) {
+        return new MockResponse().setHeader("Content-Type", RecipeBinaryFormat.MEDIA_TYPE).setBody(body);
+    }
+}
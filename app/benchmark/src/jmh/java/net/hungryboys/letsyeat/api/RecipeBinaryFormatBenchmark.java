@@ -0,0 +1,91 @@
+package net.hungryboys.letsyeat.api;
+
+import com.google.gson.Gson;
+import com.google.gson.GsonBuilder;
+import com.google.gson.reflect.TypeToken;
+
+import net.hungryboys.letsyeat.GeneratedTypeAdapterFactory;
+import net.hungryboys.letsyeat.data.BenchmarkData;
+import net.hungryboys.letsyeat.data.Recipe;
+import net.hungryboys.letsyeat.data.RecipeStub;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.lang.reflect.Type;
+import java.nio.charset.Charset;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Decoding 1,000 recipes and stubs from {@link RecipeBinaryFormat} against the JSON the app
+ * otherwise receives, read by Gson with the generated adapters.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@State(Scope.Benchmark)
+public class RecipeBinaryFormatBenchmark {
+
+    private static final Type RECIPE_LIST = new TypeToken<List<Recipe>>() {}.getType();
+    private static final Type STUB_LIST = new TypeToken<List<RecipeStub>>() {}.getType();
+    private static final Charset UTF_8 = Charset.forName("UTF-8");
+
+    private static final int ITEMS = 1000;
+
+    // Same configuration as APICaller
+    private final Gson gson = new GsonBuilder()
+            .setDateFormat("yyyy-MM-dd'T'HH:mm:ss")
+            .registerTypeAdapterFactory(new GeneratedTypeAdapterFactory())
+            .create();
+
+    private byte[] recipesJson;
+    private byte[] recipesBinary;
+    private byte[] stubsJson;
+    private byte[] stubsBinary;
+
+    @Setup
+    public void setUp() throws IOException {
+        List<Recipe> recipes = BenchmarkData.recipes(ITEMS);
+        List<RecipeStub> stubs = BenchmarkData.stubs(ITEMS);
+
+        recipesJson = gson.toJson(recipes, RECIPE_LIST).getBytes(UTF_8);
+        stubsJson = gson.toJson(stubs, STUB_LIST).getBytes(UTF_8);
+
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        RecipeBinaryFormat.encodeRecipes(recipes, out);
+        recipesBinary = out.toByteArray();
+
+        out.reset();
+        RecipeBinaryFormat.encodeStubs(stubs, out);
+        stubsBinary = out.toByteArray();
+    }
+
+    @Benchmark
+    public List<Recipe> recipesFromJson() {
+        return gson.fromJson(new InputStreamReader(new ByteArrayInputStream(recipesJson), UTF_8), RECIPE_LIST);
+    }
+
+    @Benchmark
+    public List<Recipe> recipesFromBinary() throws IOException {
+        return RecipeBinaryFormat.decodeRecipes(new ByteArrayInputStream(recipesBinary));
+    }
+
+    @Benchmark
+    public List<RecipeStub> stubsFromJson() {
+        return gson.fromJson(new InputStreamReader(new ByteArrayInputStream(stubsJson), UTF_8), STUB_LIST);
+    }
+
+    @Benchmark
+    public List<RecipeStub> stubsFromBinary() throws IOException {
+        return RecipeBinaryFormat.decodeStubs(new ByteArrayInputStream(stubsBinary));
+    }
+}
@@ -0,0 +1,71 @@
+package net.hungryboys.letsyeat.data;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+/**
+ * Recipes shaped like the server's, generated from a fixed seed so every run sees the same data.
+ */
+public final class BenchmarkData {
+
+    private static final String[] WORDS = {
+            "chicken", "beef", "pasta", "curry", "salad", "soup", "roasted", "spicy", "garlic",
+            "lemon", "tomato", "mushroom", "rice", "noodles", "baked", "grilled"
+    };
+    private static final String[] UNITS = {"cups", "tbsp", "tsp", "g", "ml", null};
+
+    private BenchmarkData() {
+    }
+
+    public static List<Recipe> recipes(int count) {
+        Random random = new Random(count);
+        String[] vocabulary = TagSet.vocabulary().toArray();
+        List<Recipe> recipes = new ArrayList<>(count);
+
+        for (int i = 0; i < count; i++) {
+            Ingredient[] ingredients = new Ingredient[4 + random.nextInt(8)];
+            for (int j = 0; j < ingredients.length; j++) {
+                ingredients[j] = new Ingredient(word(random), random.nextBoolean() ? null : "" + (1 + random.nextInt(500)),
+                        UNITS[random.nextInt(UNITS.length)]);
+            }
+
+            String[] instructions = new String[3 + random.nextInt(6)];
+            for (int j = 0; j < instructions.length; j++) {
+                instructions[j] = "Step " + (j + 1) + ": mix the " + word(random) + " with the " + word(random);
+            }
+
+            TagSet tags = TagSet.of(vocabulary[random.nextInt(vocabulary.length)],
+                    vocabulary[random.nextInt(vocabulary.length)]);
+
+            recipes.add(new Recipe(id(i), name(random), "http://example.com/" + i + ".jpg",
+                    5 + random.nextInt(180), 1 + random.nextInt(5), ingredients, instructions, tags));
+        }
+
+        return recipes;
+    }
+
+    public static List<RecipeStub> stubs(int count) {
+        Random random = new Random(count);
+        List<RecipeStub> stubs = new ArrayList<>(count);
+
+        for (int i = 0; i < count; i++) {
+            stubs.add(new RecipeStub(id(i), name(random), "http://example.com/" + i + ".jpg",
+                    5 + random.nextInt(180), 1 + random.nextInt(5)));
+        }
+
+        return stubs;
+    }
+
+    private static RecipeID id(int i) {
+        return new RecipeID(String.format("%024x", i));
+    }
+
+    private static String name(Random random) {
+        return word(random) + " " + word(random) + " " + word(random);
+    }
+
+    private static String word(Random random) {
+        return WORDS[random.nextInt(WORDS.length)];
+    }
+}
@@ -0,0 +1,71 @@
+package net.hungryboys.letsyeat.data;
+
+import com.google.gson.Gson;
+import com.google.gson.GsonBuilder;
+import com.google.gson.reflect.TypeToken;
+
+import net.hungryboys.letsyeat.GeneratedTypeAdapterFactory;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import java.lang.reflect.Type;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Reflective Gson against the adapters generated by the adapter-processor module, on 1,000
+ * recipes. Their output is checked to be the same by the app's GeneratedTypeAdapterTest.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@State(Scope.Benchmark)
+public class GeneratedTypeAdapterBenchmark {
+
+    private static final Type RECIPE_LIST = new TypeToken<List<Recipe>>() {}.getType();
+    private static final Type STUB_LIST = new TypeToken<List<RecipeStub>>() {}.getType();
+
+    private static final int ITEMS = 1000;
+
+    @Param({"reflective", "generated"})
+    public String adapters;
+
+    private Gson gson;
+    private List<Recipe> recipes;
+    private String recipesJson;
+    private String stubsJson;
+
+    @Setup
+    public void setUp() {
+        GsonBuilder builder = new GsonBuilder().setDateFormat("yyyy-MM-dd'T'HH:mm:ss");
+        if (adapters.equals("generated")) {
+            builder.registerTypeAdapterFactory(new GeneratedTypeAdapterFactory());
+        }
+        gson = builder.create();
+
+        recipes = BenchmarkData.recipes(ITEMS);
+        recipesJson = gson.toJson(recipes, RECIPE_LIST);
+        stubsJson = gson.toJson(BenchmarkData.stubs(ITEMS), STUB_LIST);
+    }
+
+    @Benchmark
+    public List<Recipe> readRecipes() {
+        return gson.fromJson(recipesJson, RECIPE_LIST);
+    }
+
+    @Benchmark
+    public String writeRecipes() {
+        return gson.toJson(recipes, RECIPE_LIST);
+    }
+
+    @Benchmark
+    public List<RecipeStub> readStubs() {
+        return gson.fromJson(stubsJson, STUB_LIST);
+    }
+}
@@ -0,0 +1,74 @@
+package net.hungryboys.letsyeat.data;
+
+import com.google.gson.Gson;
+import com.google.gson.GsonBuilder;
+import com.google.gson.reflect.TypeToken;
+
+import net.hungryboys.letsyeat.GeneratedTypeAdapterFactory;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import java.lang.reflect.Type;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Reading and writing recipe and stub lists with the Gson instance the app uses.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@State(Scope.Benchmark)
+public class GsonListBenchmark {
+
+    private static final Type RECIPE_LIST = new TypeToken<List<Recipe>>() {}.getType();
+    private static final Type STUB_LIST = new TypeToken<List<RecipeStub>>() {}.getType();
+
+    @Param({"10", "1000", "50000"})
+    public int size;
+
+    // Same configuration as APICaller
+    private final Gson gson = new GsonBuilder()
+            .setDateFormat("yyyy-MM-dd'T'HH:mm:ss")
+            .registerTypeAdapterFactory(new GeneratedTypeAdapterFactory())
+            .create();
+
+    private List<Recipe> recipes;
+    private List<RecipeStub> stubs;
+    private String recipesJson;
+    private String stubsJson;
+
+    @Setup
+    public void setUp() {
+        recipes = BenchmarkData.recipes(size);
+        stubs = BenchmarkData.stubs(size);
+        recipesJson = gson.toJson(recipes, RECIPE_LIST);
+        stubsJson = gson.toJson(stubs, STUB_LIST);
+    }
+
+    @Benchmark
+    public List<Recipe> readRecipes() {
+        return gson.fromJson(recipesJson, RECIPE_LIST);
+    }
+
+    @Benchmark
+    public String writeRecipes() {
+        return gson.toJson(recipes, RECIPE_LIST);
+    }
+
+    @Benchmark
+    public List<RecipeStub> readStubs() {
+        return gson.fromJson(stubsJson, STUB_LIST);
+    }
+
+    @Benchmark
+    public String writeStubs() {
+        return gson.toJson(stubs, STUB_LIST);
+    }
+}
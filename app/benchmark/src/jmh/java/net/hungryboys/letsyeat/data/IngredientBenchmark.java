@@ -0,0 +1,57 @@
+package net.hungryboys.letsyeat.data;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * {@link Ingredient} identity methods, as called by hash-based collections and list diffing.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@State(Scope.Thread)
+public class IngredientBenchmark {
+
+    private final Ingredient ingredient = new Ingredient("all-purpose flour", "250", "g");
+    // Equal but not the same strings, as two parsed responses would give
+    private final Ingredient equal = new Ingredient(new String("all-purpose flour"), new String("250"),
+            new String("g"));
+    private final Ingredient different = new Ingredient("all-purpose flour", "250", "ml");
+    // Quantity and unit are optional in the API
+    private final Ingredient optional = new Ingredient("salt", null, null);
+
+    @Benchmark
+    public int hashCodeAllFields() {
+        return ingredient.hashCode();
+    }
+
+    @Benchmark
+    public int hashCodeOptionalFields() {
+        return optional.hashCode();
+    }
+
+    @Benchmark
+    public boolean equalsEqual() {
+        return ingredient.equals(equal);
+    }
+
+    @Benchmark
+    public boolean equalsDifferent() {
+        return ingredient.equals(different);
+    }
+
+    @Benchmark
+    public String toStringAllFields() {
+        return ingredient.toString();
+    }
+
+    @Benchmark
+    public String toStringOptionalFields() {
+        return optional.toString();
+    }
+}
@@ -0,0 +1,75 @@
+package net.hungryboys.letsyeat.data;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * {@link Recipe} accessors used when binding the recipe screen. They return read-only views, a
+ * regression to defensive copies shows up here as time and in -prof gc as allocation.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@State(Scope.Thread)
+public class RecipeAccessorsBenchmark {
+
+    private Recipe recipe;
+
+    @Setup
+    public void setUp() {
+        recipe = BenchmarkData.recipes(1).get(0);
+    }
+
+    @Benchmark
+    public void ingredientsList(Blackhole blackhole) {
+        List<Ingredient> ingredients = recipe.getIngredients();
+        for (int i = 0; i < ingredients.size(); i++) {
+            blackhole.consume(ingredients.get(i));
+        }
+    }
+
+    @Benchmark
+    public void ingredientsIndexed(Blackhole blackhole) {
+        for (int i = 0; i < recipe.getIngredientCount(); i++) {
+            blackhole.consume(recipe.getIngredient(i));
+        }
+    }
+
+    @Benchmark
+    public void instructionsList(Blackhole blackhole) {
+        List<String> instructions = recipe.getInstructions();
+        for (int i = 0; i < instructions.size(); i++) {
+            blackhole.consume(instructions.get(i));
+        }
+    }
+
+    @Benchmark
+    public void instructionsIndexed(Blackhole blackhole) {
+        for (int i = 0; i < recipe.getInstructionCount(); i++) {
+            blackhole.consume(recipe.getInstruction(i));
+        }
+    }
+
+    @Benchmark
+    public void tagsList(Blackhole blackhole) {
+        List<String> tags = recipe.getTags().asList();
+        for (int i = 0; i < tags.size(); i++) {
+            blackhole.consume(tags.get(i));
+        }
+    }
+
+    @Benchmark
+    public void tagsIndexed(Blackhole blackhole) {
+        for (int i = 0; i < recipe.getTagCount(); i++) {
+            blackhole.consume(recipe.getTag(i));
+        }
+    }
+}
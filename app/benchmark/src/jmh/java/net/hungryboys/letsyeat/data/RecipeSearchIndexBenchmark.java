@@ -0,0 +1,87 @@
+package net.hungryboys.letsyeat.data;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Building {@link RecipeSearchIndex} over a catalog of 20,000 recipes and querying it the way
+ * the search box does, 50 results at most. Results are checked by the app's RecipeSearchIndexTest.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@State(Scope.Benchmark)
+public class RecipeSearchIndexBenchmark {
+
+    private static final int RECIPES = 20_000;
+    private static final int LIMIT = 50;
+
+    private List<Recipe> recipes;
+    private RecipeSearchIndex index;
+
+    /**
+     * A search, kept apart so that only the query benchmark runs for each of them
+     */
+    @State(Scope.Benchmark)
+    public static class Search {
+        /**
+         * Words typed, then the tags checked after a '|'
+         */
+        @Param({"c|", "chi|", "chicken pas|", "garlic|quick", "|vegan,easy", "sp|pasta,quick", "zzz|"})
+        public String search;
+
+        String query;
+        TagSet tags;
+
+        @Setup
+        public void setUp() {
+            int bar = search.indexOf('|');
+            query = search.substring(0, bar);
+            tags = bar == search.length() - 1
+                    ? TagSet.EMPTY : TagSet.of(search.substring(bar + 1).split(","));
+        }
+    }
+
+    @Setup
+    public void setUp() {
+        recipes = BenchmarkData.recipes(RECIPES);
+        index = build();
+    }
+
+    @Benchmark
+    public List<RecipeStub> query(Search search) {
+        return index.search(search.query, search.tags, LIMIT);
+    }
+
+    /**
+     * Once per catalog sync
+     */
+    @Benchmark
+    @OutputTimeUnit(TimeUnit.MILLISECONDS)
+    public RecipeSearchIndex build() {
+        RecipeSearchIndex.Builder builder = new RecipeSearchIndex.Builder();
+
+        for (int i = 0; i < recipes.size(); i++) {
+            Recipe recipe = recipes.get(i);
+
+            String[] ingredients = new String[recipe.getIngredientCount()];
+            for (int j = 0; j < ingredients.length; j++) {
+                ingredients[j] = recipe.getIngredient(j).getName();
+            }
+
+            RecipeStub stub = new RecipeStub(recipe.getId(), recipe.getName(), recipe.getPictureUrl(),
+                    recipe.getTime(), recipe.getDifficulty());
+            builder.add(stub, ingredients, recipe.getTags().toArray());
+        }
+
+        return builder.build();
+    }
+}
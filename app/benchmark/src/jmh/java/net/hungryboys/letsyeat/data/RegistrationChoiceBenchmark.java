@@ -0,0 +1,58 @@
+package net.hungryboys.letsyeat.data;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.util.Calendar;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Building the choice sent on registration, which copies the chosen time, and reading it back.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@State(Scope.Thread)
+public class RegistrationChoiceBenchmark {
+
+    private RegistrationChoice.Builder builder;
+    private RegistrationChoice choice;
+
+    @Setup
+    public void setUp() {
+        Calendar time = Calendar.getInstance();
+        time.set(Calendar.HOUR_OF_DAY, 18);
+        time.set(Calendar.MINUTE, 45);
+
+        builder = new RegistrationChoice.Builder();
+        builder.setTags(TagSet.of("vegan", "quick", "thai"));
+        builder.setTime(time);
+        builder.setDifficulty(2.0);
+        choice = builder.build();
+    }
+
+    @Benchmark
+    public RegistrationChoice build() {
+        return builder.build();
+    }
+
+    @Benchmark
+    public RegistrationChoice newBuilderAndBuild() {
+        return new RegistrationChoice.Builder().build();
+    }
+
+    /**
+     * Tags and time are read without copying, unlike getTime()
+     */
+    @Benchmark
+    public void read(Blackhole blackhole) {
+        blackhole.consume(choice.getTags());
+        blackhole.consume(choice.getHourOfDay());
+        blackhole.consume(choice.getMinute());
+    }
+}
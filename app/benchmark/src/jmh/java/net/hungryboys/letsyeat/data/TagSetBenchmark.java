@@ -0,0 +1,75 @@
+package net.hungryboys.letsyeat.data;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Random;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Filtering 20,000 recipes on two tags with {@link TagSet}, compared with the string sets it
+ * replaces.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@State(Scope.Benchmark)
+public class TagSetBenchmark {
+
+    private static final int RECIPES = 20_000;
+
+    private final List<Set<String>> stringSets = new ArrayList<>(RECIPES);
+    private final List<TagSet> tagSets = new ArrayList<>(RECIPES);
+
+    private final Set<String> stringFilter = new HashSet<>(Arrays.asList("easy", "chicken"));
+    private final TagSet filter = TagSet.of("easy", "chicken");
+
+    @Setup
+    public void setUp() {
+        Random random = new Random(42);
+        String[] vocabulary = TagSet.vocabulary().toArray();
+
+        for (int i = 0; i < RECIPES; i++) {
+            String[] tags = new String[1 + random.nextInt(4)];
+            for (int j = 0; j < tags.length; j++) {
+                tags[j] = vocabulary[random.nextInt(vocabulary.length)];
+            }
+
+            stringSets.add(new HashSet<>(Arrays.asList(tags)));
+            tagSets.add(TagSet.of(tags));
+        }
+    }
+
+    @Benchmark
+    public int filterStringSets() {
+        int found = 0;
+        for (int i = 0; i < stringSets.size(); i++) {
+            if (stringSets.get(i).containsAll(stringFilter)) {
+                found++;
+            }
+        }
+
+        return found;
+    }
+
+    @Benchmark
+    public int filterTagSets() {
+        int found = 0;
+        for (int i = 0; i < tagSets.size(); i++) {
+            if (tagSets.get(i).containsAll(filter)) {
+                found++;
+            }
+        }
+
+        return found;
+    }
+}
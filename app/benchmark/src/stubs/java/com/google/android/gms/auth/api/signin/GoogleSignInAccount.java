@@ -0,0 +1,15 @@
+package com.google.android.gms.auth.api.signin;
+
+/**
+ * Compile-only stand-in for the Play Services class, the benchmarks never sign in with Google
+ */
+public class GoogleSignInAccount {
+
+    public String getEmail() {
+        throw new UnsupportedOperationException();
+    }
+
+    public String getServerAuthCode() {
+        throw new UnsupportedOperationException();
+    }
+}
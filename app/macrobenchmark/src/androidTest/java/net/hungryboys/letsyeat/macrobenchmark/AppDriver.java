@@ -0,0 +1,187 @@
+package net.hungryboys.letsyeat.macrobenchmark;
+
+import android.app.Instrumentation;
+import android.os.SystemClock;
+
+import androidx.test.platform.app.InstrumentationRegistry;
+import androidx.test.uiautomator.By;
+import androidx.test.uiautomator.BySelector;
+import androidx.test.uiautomator.UiDevice;
+import androidx.test.uiautomator.UiObject2;
+import androidx.test.uiautomator.Until;
+
+import java.io.IOException;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Drives the app under test from the outside: shell commands, UI automation and the timings the
+ * system logs for it.
+ */
+final class AppDriver {
+
+    static final String PACKAGE = "net.hungryboys.letsyeat";
+    static final String LOGIN_ACTIVITY = ".login.LoginActivity";
+    static final String BROWSE_ACTIVITY = ".browse.BrowseActivity";
+    static final String RECIPE_ACTIVITY = ".recipe.RecipeActivity";
+
+    static final String EMAIL = "benchmark@example.com";
+
+    private static final long TIMEOUT_MS = 20_000;
+    private static final long POLL_MS = 50;
+
+    private static final Pattern TOTAL_TIME = Pattern.compile("TotalTime: (\\d+)");
+    // e.g. "1571383620.123 ... ActivityTaskManager: Fully drawn net.hungryboys.letsyeat/.browse.BrowseActivity: +1s52ms"
+    private static final String LAUNCH_EVENT =
+            "^\\s*(\\d+)\\.(\\d{3}).*(%s) %s/%s: \\+(?:(\\d+)s)?(\\d+)ms";
+
+    final UiDevice device;
+
+    AppDriver(Instrumentation instrumentation) {
+        device = UiDevice.getInstance(instrumentation);
+    }
+
+    /**
+     * Time an activity took to display (TTID) or report being fully drawn (TTFD), from the
+     * system's log
+     */
+    static final class LaunchEvent {
+        /** When it was logged, in System.currentTimeMillis() time */
+        final long wallTimeMs;
+        /** Since the activity was launched */
+        final long sinceLaunchMs;
+
+        LaunchEvent(long wallTimeMs, long sinceLaunchMs) {
+            this.wallTimeMs = wallTimeMs;
+            this.sinceLaunchMs = sinceLaunchMs;
+        }
+    }
+
+    /**
+     * @return how many times each benchmark is repeated, the "iterations" runner argument
+     */
+    static int iterations() {
+        return Integer.parseInt(InstrumentationRegistry.getArguments().getString("iterations", "5"));
+    }
+
+    String shell(String command) {
+        try {
+            return device.executeShellCommand(command);
+        } catch (IOException e) {
+            throw new AssertionError("Could not run " + command, e);
+        }
+    }
+
+    void kill() {
+        shell("am force-stop " + PACKAGE);
+    }
+
+    void clearLog() {
+        shell("logcat -c");
+    }
+
+    /**
+     * Leaves the app with back presses, its process stays alive for a warm start
+     */
+    void leave() {
+        for (int i = 0; i < 3 && PACKAGE.equals(device.getCurrentPackageName()); i++) {
+            device.pressBack();
+            device.waitForIdle();
+        }
+    }
+
+    /**
+     * @return ms until the login screen was displayed, as reported by am start -W
+     */
+    long startLogin() {
+        String output = shell("am start -W -n " + PACKAGE + "/" + LOGIN_ACTIVITY);
+        Matcher matcher = TOTAL_TIME.matcher(output);
+
+        if (!matcher.find()) {
+            throw new AssertionError("No launch time in: " + output);
+        }
+
+        return Long.parseLong(matcher.group(1));
+    }
+
+    /**
+     * Logs in with the email form
+     *
+     * @return System.currentTimeMillis() when the login button was pressed
+     */
+    long login() {
+        find(By.res(PACKAGE, "username")).setText(EMAIL);
+        find(By.res(PACKAGE, "password")).setText("benchmark");
+
+        UiObject2 button = find(By.res(PACKAGE, "email_login_btn"));
+        long pressed = System.currentTimeMillis();
+        button.click();
+
+        return pressed;
+    }
+
+    /**
+     * Cold starts the app and logs in, until the browse list is fully drawn
+     */
+    LaunchEvent launchToBrowse() {
+        kill();
+        clearLog();
+        startLogin();
+        login();
+
+        return awaitFullyDrawn(BROWSE_ACTIVITY);
+    }
+
+    UiObject2 find(BySelector selector) {
+        UiObject2 object = device.wait(Until.findObject(selector), TIMEOUT_MS);
+
+        if (object == null) {
+            throw new AssertionError("Not shown: " + selector);
+        }
+
+        return object;
+    }
+
+    /**
+     * @return the TTFD activity reported since the log was last cleared, waiting for it
+     */
+    LaunchEvent awaitFullyDrawn(String activity) {
+        return awaitLaunchEvent("Fully drawn", activity);
+    }
+
+    /**
+     * @return the TTID of activity since the log was last cleared, waiting for it
+     */
+    LaunchEvent awaitDisplayed(String activity) {
+        return awaitLaunchEvent("Displayed", activity);
+    }
+
+    private LaunchEvent awaitLaunchEvent(String event, String activity) {
+        Pattern pattern = Pattern.compile(String.format(LAUNCH_EVENT, event,
+                Pattern.quote(PACKAGE), Pattern.quote(activity)), Pattern.MULTILINE);
+        long deadline = SystemClock.uptimeMillis() + TIMEOUT_MS;
+
+        while (SystemClock.uptimeMillis() < deadline) {
+            Matcher matcher = pattern.matcher(shell("logcat -d -v epoch -s ActivityTaskManager:I ActivityManager:I"));
+
+            if (matcher.find()) {
+                long wallTime = Long.parseLong(matcher.group(1)) * 1000 + Long.parseLong(matcher.group(2));
+                long seconds = matcher.group(4) == null ? 0 : Long.parseLong(matcher.group(4));
+
+                return new LaunchEvent(wallTime, seconds * 1000 + Long.parseLong(matcher.group(5)));
+            }
+
+            SystemClock.sleep(POLL_MS);
+        }
+
+        throw new AssertionError(event + " not logged for " + activity);
+    }
+
+    void resetFrameStats() {
+        shell("dumpsys gfxinfo " + PACKAGE + " reset");
+    }
+
+    FrameStats frameStats() {
+        return FrameStats.parse(shell("dumpsys gfxinfo " + PACKAGE));
+    }
+}
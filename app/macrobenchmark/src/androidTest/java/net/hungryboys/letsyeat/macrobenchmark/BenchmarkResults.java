@@ -0,0 +1,105 @@
+package net.hungryboys.letsyeat.macrobenchmark;
+
+import android.app.Instrumentation;
+import android.os.Bundle;
+
+import org.json.JSONArray;
+import org.json.JSONException;
+import org.json.JSONObject;
+
+import java.io.DataInputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Metric values of every iteration of a benchmark, reported as min / median / max through
+ * instrumentation status and to macrobenchmark.json in the test app's external files.
+ */
+final class BenchmarkResults {
+
+    private static final String FILE = "macrobenchmark.json";
+
+    private final Instrumentation instrumentation;
+    private final String benchmark;
+    private final Map<String, List<Double>> metrics = new LinkedHashMap<>();
+
+    BenchmarkResults(Instrumentation instrumentation, String benchmark) {
+        this.instrumentation = instrumentation;
+        this.benchmark = benchmark;
+    }
+
+    void add(String metric, double value) {
+        List<Double> values = metrics.get(metric);
+
+        if (values == null) {
+            values = new ArrayList<>();
+            metrics.put(metric, values);
+        }
+
+        values.add(value);
+    }
+
+    void report() throws JSONException, IOException {
+        Bundle status = new Bundle();
+        JSONObject json = new JSONObject();
+
+        for (Map.Entry<String, List<Double>> metric : metrics.entrySet()) {
+            List<Double> values = new ArrayList<>(metric.getValue());
+            Collections.sort(values);
+
+            double min = values.get(0);
+            double median = values.get(values.size() / 2);
+            double max = values.get(values.size() - 1);
+
+            String key = benchmark + "_" + metric.getKey();
+            status.putDouble(key + "_min", min);
+            status.putDouble(key + "_median", median);
+            status.putDouble(key + "_max", max);
+
+            json.put(metric.getKey(), new JSONObject()
+                    .put("min", min)
+                    .put("median", median)
+                    .put("max", max)
+                    .put("runs", new JSONArray(metric.getValue())));
+        }
+
+        instrumentation.sendStatus(0, status);
+        write(json);
+    }
+
+    /**
+     * Adds this benchmark to the results file, replacing results of a previous run of it
+     */
+    private void write(JSONObject results) throws JSONException, IOException {
+        File file = new File(instrumentation.getTargetContext().getExternalFilesDir(null), FILE);
+        JSONObject all = new JSONObject();
+
+        if (file.exists()) {
+            byte[] bytes = new byte[(int) file.length()];
+            DataInputStream in = new DataInputStream(new FileInputStream(file));
+            try {
+                in.readFully(bytes);
+            } finally {
+                in.close();
+            }
+            all = new JSONObject(new String(bytes, "UTF-8"));
+        }
+
+        all.put(benchmark, results);
+
+        OutputStream out = new FileOutputStream(file);
+        try {
+            out.write(all.toString(2).getBytes("UTF-8"));
+        } finally {
+            out.close();
+        }
+    }
+}
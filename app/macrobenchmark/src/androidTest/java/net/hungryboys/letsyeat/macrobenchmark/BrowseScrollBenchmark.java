@@ -0,0 +1,101 @@
+package net.hungryboys.letsyeat.macrobenchmark;
+
+import android.app.Instrumentation;
+
+import androidx.test.ext.junit.runners.AndroidJUnit4;
+import androidx.test.platform.app.InstrumentationRegistry;
+import androidx.test.uiautomator.By;
+import androidx.test.uiautomator.Direction;
+import androidx.test.uiautomator.UiObject2;
+
+import org.junit.AfterClass;
+import org.junit.Before;
+import org.junit.BeforeClass;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Frame timing while flinging from the top of the browse list past its 500th card, pages being
+ * loaded and pictures decoded along the way.
+ */
+@RunWith(AndroidJUnit4.class)
+public class BrowseScrollBenchmark {
+
+    private static final int CARDS = 500;
+    private static final int MAX_FLINGS = 300;
+
+    private static MockRecipeServer server;
+
+    private Instrumentation instrumentation;
+    private AppDriver app;
+
+    @BeforeClass
+    public static void startServer() throws Exception {
+        server = new MockRecipeServer();
+        server.start();
+    }
+
+    @AfterClass
+    public static void stopServer() throws Exception {
+        server.shutdown();
+    }
+
+    @Before
+    public void setUp() {
+        instrumentation = InstrumentationRegistry.getInstrumentation();
+        app = new AppDriver(instrumentation);
+
+        // The first launch syncs the catalog, it isn't what users see on every start
+        app.launchToBrowse();
+    }
+
+    @Test
+    public void flingThroughFiveHundredCards() throws Exception {
+        BenchmarkResults results = new BenchmarkResults(instrumentation, "browse_fling");
+
+        for (int i = 0; i < AppDriver.iterations(); i++) {
+            app.launchToBrowse();
+
+            UiObject2 list = app.find(By.res(AppDriver.PACKAGE, "browse_recipe_list"));
+            // Away from the edges, where the system takes gestures for navigation
+            list.setGestureMargin(app.device.getDisplayWidth() / 10);
+
+            app.resetFrameStats();
+
+            int flings = 0;
+            while (lastShownCard() < CARDS - 1 && flings < MAX_FLINGS) {
+                list.fling(Direction.DOWN);
+                flings++;
+            }
+
+            FrameStats frames = app.frameStats();
+            assertTrue("Card " + CARDS + " not reached in " + flings + " flings", lastShownCard() >= CARDS - 1);
+
+            results.add("flings", flings);
+            results.add("frames", frames.frames);
+            results.add("janky_percent", frames.jankyPercent());
+            results.add("frame_p50_ms", frames.p50Ms);
+            results.add("frame_p90_ms", frames.p90Ms);
+            results.add("frame_p95_ms", frames.p95Ms);
+            results.add("frame_p99_ms", frames.p99Ms);
+        }
+
+        results.report();
+    }
+
+    /**
+     * @return position of the furthest card on screen, the mock server numbers recipe names
+     */
+    private int lastShownCard() {
+        int last = -1;
+
+        for (UiObject2 name : app.device.findObjects(By.res(AppDriver.PACKAGE, "recipe_card_name"))) {
+            String text = name.getText();
+            last = Math.max(last, Integer.parseInt(text.substring(text.length() - 4)));
+        }
+
+        return last;
+    }
+}
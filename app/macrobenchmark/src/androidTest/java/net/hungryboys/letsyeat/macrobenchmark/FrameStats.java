@@ -0,0 +1,58 @@
+package net.hungryboys.letsyeat.macrobenchmark;
+
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Frame timing of the app since the last reset, from dumpsys gfxinfo.
+ */
+final class FrameStats {
+
+    private static final Pattern TOTAL = Pattern.compile("Total frames rendered: (\\d+)");
+    private static final Pattern JANKY = Pattern.compile("Janky frames: (\\d+)");
+    private static final String PERCENTILE = "%dth percentile: (\\d+)ms";
+
+    final int frames;
+    final int jankyFrames;
+    final int p50Ms;
+    final int p90Ms;
+    final int p95Ms;
+    final int p99Ms;
+
+    private FrameStats(int frames, int jankyFrames, int p50Ms, int p90Ms, int p95Ms, int p99Ms) {
+        this.frames = frames;
+        this.jankyFrames = jankyFrames;
+        this.p50Ms = p50Ms;
+        this.p90Ms = p90Ms;
+        this.p95Ms = p95Ms;
+        this.p99Ms = p99Ms;
+    }
+
+    /**
+     * @param gfxinfo output of dumpsys gfxinfo for one package, percentiles need API 24
+     */
+    static FrameStats parse(String gfxinfo) {
+        return new FrameStats(find(TOTAL, gfxinfo), find(JANKY, gfxinfo),
+                percentile(50, gfxinfo), percentile(90, gfxinfo),
+                percentile(95, gfxinfo), percentile(99, gfxinfo));
+    }
+
+    double jankyPercent() {
+        return frames == 0 ? 0 : 100.0 * jankyFrames / frames;
+    }
+
+    private static int percentile(int percentile, String gfxinfo) {
+        return find(Pattern.compile(String.format(PERCENTILE, percentile)), gfxinfo);
+    }
+
+    private static int find(Pattern pattern, String gfxinfo) {
+        // The first match is the app's summary, later ones are per window
+        Matcher matcher = pattern.matcher(gfxinfo);
+
+        if (!matcher.find()) {
+            throw new AssertionError("No " + pattern + " in gfxinfo");
+        }
+
+        return Integer.parseInt(matcher.group(1));
+    }
+}
@@ -0,0 +1,197 @@
+package net.hungryboys.letsyeat.macrobenchmark;
+
+import android.graphics.Bitmap;
+import android.graphics.Color;
+
+import org.json.JSONArray;
+import org.json.JSONException;
+import org.json.JSONObject;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.util.List;
+import java.util.Locale;
+
+import okhttp3.HttpUrl;
+import okhttp3.mockwebserver.Dispatcher;
+import okhttp3.mockwebserver.MockResponse;
+import okhttp3.mockwebserver.MockWebServer;
+import okhttp3.mockwebserver.RecordedRequest;
+import okio.Buffer;
+
+/**
+ * Answers the API calls the app makes when logging in, browsing and opening recipes with
+ * synthetic recipes, on the loopback port the app's benchmark build type points at.
+ */
+final class MockRecipeServer {
+
+    static final int PORT = 3001;
+    static final int RECIPES = 600;
+
+    private static final String BASE_URL = "http://127.0.0.1:" + PORT;
+    private static final String JSON = "application/json; charset=utf-8";
+    private static final String SYNC_TOKEN = "benchmark";
+
+    private static final String[] WORDS = {
+            "Chicken", "Beef", "Pasta", "Curry", "Salad", "Soup", "Roasted", "Spicy", "Garlic",
+            "Lemon", "Tomato", "Mushroom", "Rice", "Noodles", "Baked", "Grilled"
+    };
+    private static final String[] TAGS = {"beef", "chicken", "easy", "quick", "thai", "pasta"};
+
+    private final MockWebServer server = new MockWebServer();
+    private final String[] recipes = new String[RECIPES];
+    private final String[] stubs = new String[RECIPES];
+    private final byte[] image;
+
+    MockRecipeServer() throws JSONException {
+        for (int i = 0; i < RECIPES; i++) {
+            JSONObject stub = stub(i);
+            stubs[i] = stub.toString();
+            recipes[i] = recipe(stub, i).toString();
+        }
+
+        Bitmap bitmap = Bitmap.createBitmap(320, 240, Bitmap.Config.ARGB_8888);
+        bitmap.eraseColor(Color.rgb(200, 120, 60));
+        ByteArrayOutputStream jpeg = new ByteArrayOutputStream();
+        bitmap.compress(Bitmap.CompressFormat.JPEG, 80, jpeg);
+        bitmap.recycle();
+        image = jpeg.toByteArray();
+    }
+
+    void start() throws IOException {
+        server.setDispatcher(new Dispatcher() {
+            @Override
+            public MockResponse dispatch(RecordedRequest request) {
+                return respond(request.getRequestUrl());
+            }
+        });
+        server.start(PORT);
+    }
+
+    void shutdown() throws IOException {
+        server.shutdown();
+    }
+
+    /**
+     * Name of the recipe at position in the browse list
+     */
+    static String name(int position) {
+        return String.format(Locale.ROOT, "%s %s %04d", WORDS[position % WORDS.length],
+                WORDS[position / WORDS.length % WORDS.length], position);
+    }
+
+    private MockResponse respond(HttpUrl url) {
+        String path = url.encodedPath();
+
+        if (path.startsWith("/image/")) {
+            return new MockResponse().setHeader("Content-Type", "image/jpeg").setBody(new Buffer().write(image));
+        }
+
+        switch (path) {
+            case "/user/login":
+            case "/user/register":
+                return json("{\"success\":true,\"loggedIn\":true,\"needsRegistration\":false,"
+                        + "\"serverAuthToken\":\"benchmark\"}");
+            case "/recipe/list":
+                return recipeList(url);
+            case "/recipe/sync":
+                return sync(url.queryParameter("token"));
+            case "/recipe/id":
+                return json(recipes[index(url.queryParameter("id"))]);
+            case "/recipe/ids":
+                return recipesById(url.queryParameterValues("id"));
+            case "/recipe/suggest":
+                return json("{\"id\":\"" + id(0) + "\"}");
+            default:
+                return new MockResponse().setResponseCode(404);
+        }
+    }
+
+    private MockResponse recipeList(HttpUrl url) {
+        // Search results: a plain list, the first max recipes will do
+        String max = url.queryParameter("max");
+        if (max != null) {
+            return json(join(stubs, 0, Math.min(Integer.parseInt(max), RECIPES)));
+        }
+
+        String cursor = url.queryParameter("cursor");
+        String limit = url.queryParameter("limit");
+        int start = cursor == null ? 0 : Integer.parseInt(cursor);
+        int end = Math.min(start + (limit == null ? 20 : Integer.parseInt(limit)), RECIPES);
+        String next = end < RECIPES ? "\"" + end + "\"" : "null";
+
+        return json("{\"recipes\":" + join(stubs, start, end) + ",\"nextCursor\":" + next + "}");
+    }
+
+    /**
+     * The whole catalog on the first sync, nothing changed afterwards
+     */
+    private MockResponse sync(String token) {
+        String changed = SYNC_TOKEN.equals(token) ? "[]" : join(recipes, 0, RECIPES);
+        return json("{\"recipes\":" + changed + ",\"deleted\":[],\"token\":\"" + SYNC_TOKEN
+                + "\",\"hasMore\":false}");
+    }
+
+    private MockResponse recipesById(List<String> ids) {
+        String[] found = new String[ids.size()];
+        for (int i = 0; i < found.length; i++) {
+            found[i] = recipes[index(ids.get(i))];
+        }
+
+        return json(join(found, 0, found.length));
+    }
+
+    private static MockResponse json(String body) {
+        return new MockResponse().setHeader("Content-Type", JSON).setBody(body);
+    }
+
+    private static String join(String[] objects, int start, int end) {
+        StringBuilder array = new StringBuilder("[");
+        for (int i = start; i < end; i++) {
+            if (i > start) {
+                array.append(',');
+            }
+            array.append(objects[i]);
+        }
+
+        return array.append(']').toString();
+    }
+
+    private static String id(int position) {
+        return String.format(Locale.ROOT, "%024x", position);
+    }
+
+    private static int index(String id) {
+        return Integer.parseInt(id, 16);
+    }
+
+    private static JSONObject stub(int i) throws JSONException {
+        return new JSONObject()
+                .put("id", new JSONObject().put("id", id(i)))
+                .put("name", name(i))
+                .put("pictureURL", BASE_URL + "/image/" + i + ".jpg")
+                .put("time", 10 + i % 110)
+                .put("difficulty", 1 + i % 5);
+    }
+
+    private static JSONObject recipe(JSONObject stub, int i) throws JSONException {
+        JSONArray ingredients = new JSONArray();
+        for (int j = 0; j < 6 + i % 10; j++) {
+            ingredients.put(new JSONObject()
+                    .put("name", WORDS[(i + j) % WORDS.length].toLowerCase(Locale.ROOT))
+                    .put("quantity", String.valueOf(1 + j))
+                    .put("unit", j % 2 == 0 ? "cups" : "tbsp"));
+        }
+
+        JSONArray instructions = new JSONArray();
+        for (int j = 0; j < 4 + i % 6; j++) {
+            instructions.put("Step " + (j + 1) + ": combine the " + WORDS[(i + j) % WORDS.length].toLowerCase(Locale.ROOT)
+                    + " and cook for " + (5 + j) + " minutes.");
+        }
+
+        return new JSONObject(stub.toString())
+                .put("tags", new JSONArray().put(TAGS[i % TAGS.length]).put(TAGS[(i / TAGS.length) % TAGS.length]))
+                .put("ingredients", ingredients)
+                .put("instructions", instructions);
+    }
+}
@@ -0,0 +1,74 @@
+package net.hungryboys.letsyeat.macrobenchmark;
+
+import android.app.Instrumentation;
+
+import androidx.test.ext.junit.runners.AndroidJUnit4;
+import androidx.test.platform.app.InstrumentationRegistry;
+import androidx.test.uiautomator.By;
+import androidx.test.uiautomator.UiObject2;
+
+import org.junit.AfterClass;
+import org.junit.Before;
+import org.junit.BeforeClass;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+
+import java.util.List;
+
+/**
+ * Tapping a browse card until the recipe screen shows the full recipe. Cards on screen are opened
+ * in turn, a recipe opened before may come from the repository's cache.
+ */
+@RunWith(AndroidJUnit4.class)
+public class RecipeOpenBenchmark {
+
+    private static MockRecipeServer server;
+
+    private Instrumentation instrumentation;
+    private AppDriver app;
+
+    @BeforeClass
+    public static void startServer() throws Exception {
+        server = new MockRecipeServer();
+        server.start();
+    }
+
+    @AfterClass
+    public static void stopServer() throws Exception {
+        server.shutdown();
+    }
+
+    @Before
+    public void setUp() {
+        instrumentation = InstrumentationRegistry.getInstrumentation();
+        app = new AppDriver(instrumentation);
+        app.launchToBrowse();
+    }
+
+    @Test
+    public void tapToDetail() throws Exception {
+        BenchmarkResults results = new BenchmarkResults(instrumentation, "recipe_open");
+
+        for (int i = 0; i < AppDriver.iterations(); i++) {
+            app.find(By.res(AppDriver.PACKAGE, "browse_recipe_list"));
+            List<UiObject2> cards = app.device.findObjects(By.res(AppDriver.PACKAGE, "recipe_card_name"));
+            // The first cards, the last one on screen may be under the navigation bar
+            UiObject2 card = cards.get(i % Math.min(cards.size(), 2));
+
+            app.clearLog();
+            long tapped = System.currentTimeMillis();
+            card.click();
+
+            AppDriver.LaunchEvent displayed = app.awaitDisplayed(AppDriver.RECIPE_ACTIVITY);
+            AppDriver.LaunchEvent fullyDrawn = app.awaitFullyDrawn(AppDriver.RECIPE_ACTIVITY);
+
+            results.add("ttid_ms", displayed.sinceLaunchMs);
+            results.add("ttfd_ms", fullyDrawn.sinceLaunchMs);
+            results.add("tap_to_full_display_ms", fullyDrawn.wallTimeMs - tapped);
+
+            app.device.pressBack();
+        }
+
+        results.report();
+    }
+}
@@ -0,0 +1,84 @@
+package net.hungryboys.letsyeat.macrobenchmark;
+
+import android.app.Instrumentation;
+
+import androidx.test.ext.junit.runners.AndroidJUnit4;
+import androidx.test.platform.app.InstrumentationRegistry;
+
+import org.junit.AfterClass;
+import org.junit.Before;
+import org.junit.BeforeClass;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+
+/**
+ * Launching the app until the first browse page is shown: cold, through the login screen, and
+ * warm, with the process alive and the user still logged in.
+ */
+@RunWith(AndroidJUnit4.class)
+public class StartupBenchmark {
+
+    private static MockRecipeServer server;
+
+    private Instrumentation instrumentation;
+    private AppDriver app;
+
+    @BeforeClass
+    public static void startServer() throws Exception {
+        server = new MockRecipeServer();
+        server.start();
+    }
+
+    @AfterClass
+    public static void stopServer() throws Exception {
+        server.shutdown();
+    }
+
+    @Before
+    public void setUp() {
+        instrumentation = InstrumentationRegistry.getInstrumentation();
+        app = new AppDriver(instrumentation);
+
+        // The first launch syncs the catalog, it isn't what users see on every start
+        app.launchToBrowse();
+    }
+
+    @Test
+    public void coldStart() throws Exception {
+        BenchmarkResults results = new BenchmarkResults(instrumentation, "cold_start");
+
+        for (int i = 0; i < AppDriver.iterations(); i++) {
+            app.kill();
+            app.clearLog();
+
+            long loginDisplayed = app.startLogin();
+            long loginPressed = app.login();
+            AppDriver.LaunchEvent browse = app.awaitFullyDrawn(AppDriver.BROWSE_ACTIVITY);
+
+            results.add("login_ttid_ms", loginDisplayed);
+            results.add("browse_ttfd_ms", browse.sinceLaunchMs);
+            results.add("login_to_browse_full_display_ms", browse.wallTimeMs - loginPressed);
+        }
+
+        results.report();
+    }
+
+    @Test
+    public void warmStart() throws Exception {
+        BenchmarkResults results = new BenchmarkResults(instrumentation, "warm_start");
+
+        for (int i = 0; i < AppDriver.iterations(); i++) {
+            app.leave();
+            app.clearLog();
+
+            // Still logged in, the login screen goes straight to browsing
+            long displayed = app.startLogin();
+            AppDriver.LaunchEvent browse = app.awaitFullyDrawn(AppDriver.BROWSE_ACTIVITY);
+
+            results.add("ttid_ms", displayed);
+            results.add("browse_ttfd_ms", browse.sinceLaunchMs);
+        }
+
+        results.report();
+    }
+}
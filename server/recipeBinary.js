@@ -0,0 +1,174 @@
+/*
+	Compact binary encoding of recipe lists
+	- opt-in alternative to JSON, sent when the client Accept header prefers MEDIA_TYPE
+	- layout documented in the app, see api/RecipeBinaryFormat.java
+
+*/
+const MEDIA_TYPE = "application/x-yeat-recipes";
+const VERSION = 1;
+
+const KIND_STUB_LIST = 1;
+const KIND_RECIPE_LIST = 2;
+const KIND_STUB_PAGE = 3;
+
+class Writer {
+    constructor() {
+        this.buffer = Buffer.alloc(1024);
+        this.length = 0;
+    }
+
+    ensure(n) {
+        if (this.length + n > this.buffer.length) {
+            var grown = Buffer.alloc(Math.max(this.buffer.length * 2, this.length + n));
+            this.buffer.copy(grown, 0, 0, this.length);
+            this.buffer = grown;
+        }
+    }
+
+    byte(b) {
+        this.ensure(1);
+        this.buffer[this.length++] = b;
+    }
+
+    // unsigned 32 bit varint, 7 bits per byte, low bits first
+    varint(value) {
+        value = value >>> 0;
+        while (value > 0x7f) {
+            this.byte((value & 0x7f) | 0x80);
+            value = value >>> 7;
+        }
+        this.byte(value);
+    }
+
+    zigzag(value) {
+        value = value | 0;
+        this.varint((value << 1) ^ (value >> 31));
+    }
+
+    // hundredths, to send difficulties without floats
+    fixed(value) {
+        this.zigzag(Math.round((Number(value) || 0) * 100));
+    }
+
+    // length + 1 then utf8 bytes, 0 for null
+    string(value) {
+        if (value === null || value === undefined) {
+            this.varint(0);
+            return;
+        }
+        var str = String(value);
+        var n = Buffer.byteLength(str, "utf8");
+        this.varint(n + 1);
+        this.ensure(n);
+        this.buffer.write(str, this.length, n, "utf8");
+        this.length += n;
+    }
+
+    header(kind, dictionary) {
+        this.byte(0x59); // 'Y'
+        this.byte(0x52); // 'R'
+        this.byte(VERSION);
+        this.byte(kind);
+        this.varint(dictionary.length);
+        dictionary.forEach(entry => this.string(entry));
+    }
+
+    stub(stub) {
+        this.string(idOf(stub.id));
+        this.string(stub.name);
+        this.string(stub.pictureUrl !== undefined ? stub.pictureUrl : stub.pictureURL);
+        this.zigzag(stub.time || 0);
+        this.fixed(stub.difficulty);
+    }
+
+    toBuffer() {
+        return this.buffer.slice(0, this.length);
+    }
+}
+
+function idOf(id) {
+    if (id === null || id === undefined) {
+        return null;
+    }
+    return String(id.id !== undefined ? id.id : id);
+}
+
+function encodeStubList(stubs) {
+    var writer = new Writer();
+    writer.header(KIND_STUB_LIST, []);
+    writer.varint(stubs.length);
+    stubs.forEach(stub => writer.stub(stub));
+    return writer.toBuffer();
+}
+
+function encodeStubPage(stubs, nextCursor) {
+    var writer = new Writer();
+    writer.header(KIND_STUB_PAGE, []);
+    writer.string(nextCursor);
+    writer.varint(stubs.length);
+    stubs.forEach(stub => writer.stub(stub));
+    return writer.toBuffer();
+}
+
+function encodeRecipeList(recipes) {
+    // tags repeat a lot across recipes, send each once and refer to it by index
+    var dictionary = [];
+    var indexes = {};
+    recipes.forEach(recipe => (recipe.tags || []).forEach(tag => {
+        if (!(tag in indexes)) {
+            indexes[tag] = dictionary.length;
+            dictionary.push(tag);
+        }
+    }));
+
+    var writer = new Writer();
+    writer.header(KIND_RECIPE_LIST, dictionary);
+    writer.varint(recipes.length);
+
+    recipes.forEach(recipe => {
+        writer.stub(recipe);
+
+        var ingredients = recipe.ingredients || [];
+        writer.varint(ingredients.length);
+        ingredients.forEach(ingredient => {
+            writer.string(ingredient.name);
+            writer.string(ingredient.quantity);
+            writer.string(ingredient.unit);
+        });
+
+        var tags = recipe.tags || [];
+        writer.varint(tags.length);
+        tags.forEach(tag => writer.varint(indexes[tag]));
+
+        var instructions = recipe.instructions || [];
+        writer.varint(instructions.length);
+        instructions.forEach(instruction => writer.string(instruction));
+    });
+
+    return writer.toBuffer();
+}
+
+/**
+ * Whether the request prefers the binary format over JSON
+ */
+function accepts(req) {
+    return req.accepts(["application/json", MEDIA_TYPE]) === MEDIA_TYPE;
+}
+
+/**
+ * Sends buffer as the binary format, responses vary with the Accept header so caches
+ * don't serve one format to a client asking for the other
+ */
+function send(res, buffer) {
+    res.vary("Accept");
+    res.status(200).type(MEDIA_TYPE).send(buffer);
+}
+
+module.exports = {
+    MEDIA_TYPE: MEDIA_TYPE,
+    encodeStubList: encodeStubList,
+    encodeStubPage: encodeStubPage,
+    encodeRecipeList: encodeRecipeList,
+    accepts: accepts,
+    send: send
+};
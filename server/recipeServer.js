@@ -17,6 +17,9 @@ mongoClient.connect(serverURL, {useNewUrlParser: true,useUnifiedTopology: true }
 
 // (max, fromYear, fromMonth, toYear, toMonth)
 var batch2018 = parse.parseByDate(100,2018,1,2018,2).then(batch =>{
+    // stamped so clients pick the new recipes up on their next catalog sync
+    var now = Date.now();
+    batch.forEach(doc => doc.updatedAt = now);
     recipe.insertMany(batch);
     console.log("Insertion success.")
 });
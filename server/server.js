@@ -17,6 +17,7 @@ var devicetoken = "e_wP1VIOmw4:APA91bHFToKrYKnYTbe2QpsbdEZ_gpj4ADvc9IU0h-p4VqSM5
 // get for Luca's device, testing with Kyle's
 
 var parser = require('../parser')
+var recipeBinary = require('./recipeBinary')
 //var recipees = require('/classes')
 var admin = require('firebase-admin')
 const express = require('express')
@@ -61,6 +62,9 @@ mongoClient.connect(serverURL, {useNewUrlParser: true,useUnifiedTopology: true }
 	db = client.db('backenddb')
 	users = db.collection("user")
 	recipes = db.collection("recipe")
+	// recipes inserted before catalog sync existed count as changed at time 0
+	recipes.updateMany({ "updatedAt": { $exists: false } }, { $set: { "updatedAt": 0 } })
+	recipes.createIndex({ "updatedAt": 1, "_id": 1 })
 	// listen to port
 	server.listen(3001,function(){
 		console.log("server is up!!!!")
@@ -283,6 +287,46 @@ server.get('/recipe/id', (req, res) => {
 	//})
 })
 
+function toRecipe(doc) {
+    var ing = (doc.ingredients || []).map(function (element) {
+        return new Ingredient(element.name, element.quantity, element.unit);
+    });
+    return new Recipe(new RecipeID(doc._id), doc.name, doc.url, doc.time, doc.difficulty, ing, doc.tags, doc.instruction);
+}
+
+/**
+ * Get several recipes at once from their IDs
+ * ?id=a&id=b... returns the recipes found, in the requested order
+ * - JSON, or recipeBinary if the Accept header prefers it
+ */
+server.get('/recipe/ids', (req, res) => {
+    var ids = [].concat(req.query.id || []);
+
+    if (ids.length == 0 || !ids.every(id => ObjectId.isValid(id))) {
+        res.status(400).json("Missing or invalid recipe ids");
+        return;
+    }
+
+    var objectIds = ids.map(id => new ObjectId(id));
+    db.collection("recipe").find({ "_id": { $in: objectIds } }).toArray((err, result) => {
+        if (err) {
+            res.status(400).json("found some error help");
+            return;
+        }
+
+        var byId = {};
+        result.forEach(doc => byId[String(doc._id)] = toRecipe(doc));
+        var found = ids.filter(id => byId[id]).map(id => byId[id]);
+
+        if (recipeBinary.accepts(req)) {
+            recipeBinary.send(res, recipeBinary.encodeRecipeList(found));
+        } else {
+            res.vary("Accept");
+            res.status(200).json(found);
+        }
+    })
+})
+
 function generateOneRecipe(userId){
 	// currently the recipe is hardcoded.
 	return new Promise((resolve, reject) => {
@@ -305,6 +349,137 @@ server.get('/recipes/byuser/:username',(req,res)=>{
 })
 
 
+class RecipeStub {
+    constructor(id, name, pictureUrl, time, difficulty) {
+        this.id = id;
+        this.name = name;
+        this.pictureUrl = pictureUrl;
+        this.time = time;
+        this.difficulty = difficulty;
+    }
+}
+
+function toRecipeStub(doc) {
+    return new RecipeStub(new RecipeID(doc._id), doc.name, doc.url, doc.time, doc.difficulty);
+}
+
+/**
+ * Get a list of recipe stubs, ordered by id
+ * - legacy: ?max=n returns a plain array of at most n stubs
+ * - paged: ?limit=n&cursor=c returns { recipes, nextCursor } with the n stubs following
+ *   cursor c (first page if no cursor). nextCursor is null on the last page.
+ * - search=words&tags=a&tags=b... keeps the recipes whose name contains every word
+ *   (case insensitive) and that have all the tags
+ * - JSON, or recipeBinary if the Accept header prefers it
+ */
+server.get('/recipe/list', (req, res) => {
+    let { max, limit, cursor, search } = req.query;
+    var tags = [].concat(req.query.tags || []);
+    var paged = limit !== undefined;
+    var size = parseInt(paged ? limit : max) || 20;
+    var query = {};
+
+    if (cursor) {
+        if (!ObjectId.isValid(cursor)) {
+            res.status(400).json("Invalid cursor");
+            return;
+        }
+        query["_id"] = { $gt: new ObjectId(cursor) };
+    }
+
+    var words = String(search || "").split(/\s+/).filter(word => word.length > 0);
+    if (words.length > 0) {
+        query["$and"] = words.map(word => ({ "name": { $regex: escapeRegex(word), $options: "i" } }));
+    }
+
+    if (tags.length > 0) {
+        query["tags"] = { $all: tags };
+    }
+
+    // fetch one extra document to know whether there is a next page
+    db.collection("recipe").find(query).sort({ "_id": 1 }).limit(size + 1).toArray((err, result) => {
+        if (err) {
+            res.status(400).json("found some error help");
+            return;
+        }
+
+        var hasNext = result.length > size;
+        var stubs = result.slice(0, size).map(toRecipeStub);
+
+        var binary = recipeBinary.accepts(req);
+        res.vary("Accept");
+
+        if (!paged) {
+            if (binary) {
+                recipeBinary.send(res, recipeBinary.encodeStubList(stubs));
+            } else {
+                res.status(200).json(stubs);
+            }
+        } else {
+            var nextCursor = hasNext ? String(result[size - 1]._id) : null;
+            if (binary) {
+                recipeBinary.send(res, recipeBinary.encodeStubPage(stubs, nextCursor));
+            } else {
+                res.status(200).json({ recipes: stubs, nextCursor: nextCursor });
+            }
+        }
+    })
+})
+
+const SYNC_DEFAULT_LIMIT = 200;
+const SYNC_MAX_LIMIT = 500;
+// token of a client that never synced, before any change
+const SYNC_START_TOKEN = "0:000000000000000000000000";
+
+/**
+ * Catalog changes since a sync token, for clients keeping a local copy of all recipes
+ * ?token=t&limit=n returns { recipes, deleted, token, hasMore }
+ * - recipes changed (or added) after token t, at most n per call, ordered by change
+ * - deleted: ids of recipes removed (deleted: true) after t
+ * - token: "updatedAt:_id" of the last change sent, to pass on the next call
+ * - hasMore: whether to call again right away
+ */
+server.get('/recipe/sync', (req, res) => {
+    var token = req.query.token || SYNC_START_TOKEN;
+    var limit = Math.min(parseInt(req.query.limit) || SYNC_DEFAULT_LIMIT, SYNC_MAX_LIMIT);
+    var parts = token.split(":");
+    var since = Number(parts[0]);
+
+    if (parts.length != 2 || isNaN(since) || !ObjectId.isValid(parts[1])) {
+        res.status(400).json("Invalid sync token");
+        return;
+    }
+
+    var after = new ObjectId(parts[1]);
+    var query = { $or: [
+        { "updatedAt": { $gt: since } },
+        { "updatedAt": since, "_id": { $gt: after } }
+    ] };
+
+    // fetch one extra document to know whether there is more
+    db.collection("recipe").find(query).sort({ "updatedAt": 1, "_id": 1 }).limit(limit + 1).toArray((err, result) => {
+        if (err) {
+            res.status(400).json("found some error help");
+            return;
+        }
+
+        var hasMore = result.length > limit;
+        var changes = result.slice(0, limit);
+        var last = changes[changes.length - 1];
+
+        res.status(200).json({
+            recipes: changes.filter(doc => !doc.deleted).map(toRecipe),
+            deleted: changes.filter(doc => doc.deleted).map(doc => new RecipeID(doc._id)),
+            token: last ? last.updatedAt + ":" + last._id : token,
+            hasMore: hasMore
+        });
+    })
+})
+
+function escapeRegex(text) {
+    return text.replace(/[.*+?^${}()|[\]\\]/g, "\\$&");
+}
+
 function getRandomInt(max) {
   return Math.floor(Math.random() * Math.floor(max));
 }